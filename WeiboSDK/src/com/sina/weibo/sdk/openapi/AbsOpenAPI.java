@@ -19,6 +19,7 @@ package com.sina.weibo.sdk.openapi;
 import android.text.TextUtils;
 
 import com.sina.weibo.sdk.auth.Oauth2AccessToken;
+import com.sina.weibo.sdk.exception.WeiboException;
 import com.sina.weibo.sdk.net.AsyncWeiboRunner;
 import com.sina.weibo.sdk.net.RequestListener;
 import com.sina.weibo.sdk.net.WeiboParameters;
@@ -55,25 +56,59 @@ public abstract class AbsOpenAPI {
     }
 
     /**
-     * HTTP 异步请求。
+     * HTTP 异步请求，在 {@link AsyncRequestExecutor#getDefault()} 上执行。
      * 
      * @param url        请求的地址
      * @param params     请求的参数
      * @param httpMethod 请求方法
      * @param listener   请求后的回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求；参数错误时返回 null
      */
-    protected void requestAsync(String url, WeiboParameters params, String httpMethod, RequestListener listener) {
+    protected RequestHandle requestAsync(String url, WeiboParameters params, String httpMethod, RequestListener listener) {
         if (null == mAccessToken
                 || TextUtils.isEmpty(url)
                 || null == params
                 || TextUtils.isEmpty(httpMethod)
                 || null == listener) {
             LogUtil.e(TAG, "Argument error!");
-            return;
+            return null;
         }
         
         params.put(KEY_ACCESS_TOKEN, mAccessToken.getToken());
-        AsyncWeiboRunner.requestAsync(url, params, httpMethod, listener);
+
+        final RequestHandle handle = new RequestHandle(listener);
+        AsyncRequestExecutor executor = AsyncRequestExecutor.getDefault();
+
+        // 相同的 GET 请求正在进行中时，共享其结果，不再重复请求
+        if (HTTPMETHOD_GET.equals(httpMethod) && !params.hasBinaryData()) {
+            String key = url + "?" + params.encodeUrl();
+            RequestListener dispatcher = RequestCoalescer.join(key, handle);
+            if (null != dispatcher) {
+                RequestCoalescer.setTask(key, executor.submit(url, params, httpMethod, dispatcher));
+            }
+            return handle;
+        }
+
+        final AsyncRequestExecutor.Task task = executor.submit(url, params, httpMethod,
+                new RequestListener() {
+                    @Override
+                    public void onComplete(String response) {
+                        handle.deliverComplete(response);
+                    }
+
+                    @Override
+                    public void onWeiboException(WeiboException e) {
+                        handle.deliverException(e);
+                    }
+                });
+        handle.setOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                task.cancel();
+            }
+        });
+        return handle;
     }
     
     /**
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.net.AsyncWeiboRunner;
+import com.sina.weibo.sdk.net.RequestListener;
+import com.sina.weibo.sdk.net.WeiboParameters;
+
+/**
+ * 执行 OpenAPI 异步请求的线程池。
+ * <p>
+ * 所有 {@link AbsOpenAPI#requestAsync} 的请求都在这里排队执行，线程数和排队数都有上限，
+ * 队列满时请求立即以 {@link WeiboException} 失败，而不是无限堆积。
+ * 回调默认在主线程执行，与 {@link AsyncWeiboRunner#requestAsync} 一致，
+ * 也可以通过构造函数指定其它的回调线程。
+ * <p>
+ * 应用可以通过 {@link #setDefault} 替换默认的实例，例如在测试中使用同步的 Executor。
+ */
+public class AsyncRequestExecutor {
+
+    /** 默认的并发请求数 */
+    private static final int DEFAULT_POOL_SIZE = 4;
+    /** 默认的最大排队请求数 */
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+    /** 空闲线程的存活时间（秒） */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static AsyncRequestExecutor sDefault;
+
+    /** 执行请求的线程池 */
+    private final ExecutorService mExecutor;
+    /** 执行回调的线程 */
+    private final Executor mCallbackExecutor;
+    /** 请求的观察者，可为 null */
+    private volatile RequestObserver mObserver;
+
+    private final AtomicInteger mQueued = new AtomicInteger();
+    private final AtomicInteger mRunning = new AtomicInteger();
+    private final AtomicLong mCompleted = new AtomicLong();
+    private final AtomicLong mCancelled = new AtomicLong();
+    private final AtomicLong mRejected = new AtomicLong();
+
+    /**
+     * 构造函数。
+     * 
+     * @param executor         执行请求的线程池，应当是有界的
+     * @param callbackExecutor 执行 {@link RequestListener} 回调的线程
+     */
+    public AsyncRequestExecutor(ExecutorService executor, Executor callbackExecutor) {
+        if (null == executor || null == callbackExecutor) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        mExecutor = executor;
+        mCallbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * 获取默认的实例：{@value #DEFAULT_POOL_SIZE} 个后台线程，最多排队
+     * {@value #DEFAULT_QUEUE_CAPACITY} 个请求，回调在主线程执行。
+     */
+    public static synchronized AsyncRequestExecutor getDefault() {
+        if (null == sDefault) {
+            sDefault = new AsyncRequestExecutor(createDefaultExecutor(), new MainThreadExecutor());
+        }
+        return sDefault;
+    }
+
+    /**
+     * 替换默认的实例，之后的请求都在新的实例上执行。
+     * 
+     * @param executor 新的实例
+     */
+    public static synchronized void setDefault(AsyncRequestExecutor executor) {
+        sDefault = executor;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(DEFAULT_QUEUE_CAPACITY),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                r.run();
+                            }
+                        }, "WeiboRequest #" + mCount.getAndIncrement());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 设置请求的观察者，用于统计每个请求的耗时和错误。
+     * 
+     * @param observer 观察者，null 表示不再观察
+     */
+    public void setRequestObserver(RequestObserver observer) {
+        mObserver = observer;
+    }
+
+    /**
+     * 提交一个请求。
+     * 
+     * @param url        请求的地址
+     * @param params     请求的参数
+     * @param httpMethod 请求方法
+     * @param listener   请求后的回调接口，在回调线程上执行
+     * 
+     * @return 后台任务，可用于取消
+     */
+    Task submit(String url, WeiboParameters params, String httpMethod, RequestListener listener) {
+        Task task = new Task(url, params, httpMethod, listener);
+
+        mQueued.incrementAndGet();
+        try {
+            task.mFuture = mExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            // 被拒绝的任务不会再执行，也不能再被取消
+            task.mClaimed.set(true);
+            mQueued.decrementAndGet();
+            mRejected.incrementAndGet();
+            task.deliverException(new WeiboException("Too many pending requests", e));
+        }
+        return task;
+    }
+
+    /**
+     * 一个排队中或执行中的请求。
+     */
+    final class Task implements Runnable {
+        private final String mUrl;
+        private final WeiboParameters mParams;
+        private final String mHttpMethod;
+        private final RequestListener mListener;
+        /** 开始执行或被取消时置为 true，二者只有一个会成功 */
+        private final AtomicBoolean mClaimed = new AtomicBoolean();
+        private volatile Future<?> mFuture;
+        /** 提交的时间 */
+        private final long mSubmittedAt = SystemClock.elapsedRealtime();
+
+        Task(String url, WeiboParameters params, String httpMethod, RequestListener listener) {
+            mUrl = url;
+            mParams = params;
+            mHttpMethod = httpMethod;
+            mListener = listener;
+        }
+
+        @Override
+        public void run() {
+            if (!mClaimed.compareAndSet(false, true)) {
+                return;
+            }
+
+            mQueued.decrementAndGet();
+            mRunning.incrementAndGet();
+            long startedAt = SystemClock.elapsedRealtime();
+            WeiboException error = null;
+            try {
+                final String response = AsyncWeiboRunner.request(mUrl, mParams, mHttpMethod);
+                mCallbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mListener.onComplete(response);
+                    }
+                });
+            } catch (WeiboException e) {
+                error = e;
+                deliverException(e);
+            } catch (RuntimeException e) {
+                // 其他运行时异常会被 Future 吞掉，必须转交回调，否则调用方永远等不到结果
+                error = new WeiboException(e);
+                deliverException(error);
+            } finally {
+                mRunning.decrementAndGet();
+                mCompleted.incrementAndGet();
+
+                RequestObserver observer = mObserver;
+                if (null != observer) {
+                    observer.onRequestFinished(mUrl, startedAt - mSubmittedAt,
+                            SystemClock.elapsedRealtime() - startedAt, error);
+                }
+            }
+        }
+
+        /**
+         * 取消请求。尚未开始的请求从队列中移除；已开始的请求会被中断，但网络操作未必能立即停止。
+         */
+        void cancel() {
+            // 只统计真正生效的取消：从队列中拿走了任务，或中断了正在执行的任务
+            boolean cancelled = false;
+            if (mClaimed.compareAndSet(false, true)) {
+                mQueued.decrementAndGet();
+                cancelled = true;
+            }
+
+            Future<?> future = mFuture;
+            if (future != null && future.cancel(true)) {
+                cancelled = true;
+            }
+
+            if (cancelled) {
+                mCancelled.incrementAndGet();
+            }
+        }
+
+        private void deliverException(final WeiboException e) {
+            mCallbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mListener.onWeiboException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return 正在排队等待执行的请求数
+     */
+    public int getQueueDepth() {
+        return Math.max(0, mQueued.get());
+    }
+
+    /**
+     * @return 正在执行的请求数
+     */
+    public int getActiveCount() {
+        return mRunning.get();
+    }
+
+    /**
+     * @return 已执行完的请求数
+     */
+    public long getCompletedCount() {
+        return mCompleted.get();
+    }
+
+    /**
+     * @return 被取消的请求数
+     */
+    public long getCancelledCount() {
+        return mCancelled.get();
+    }
+
+    /**
+     * @return 因队列已满而被拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return mRejected.get();
+    }
+
+    /**
+     * 在主线程执行回调。
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            mHandler.post(command);
+        }
+    }
+}
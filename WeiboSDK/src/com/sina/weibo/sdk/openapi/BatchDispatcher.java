@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.sina.weibo.sdk.auth.Oauth2AccessToken;
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.net.RequestListener;
+
+/**
+ * 把单个 ID 的查询合并成批量接口的请求。
+ * <p>
+ * 在一个很短的时间窗口内（或凑满接口允许的最大数量时）收到的查询，合并成一次批量请求发出，
+ * 返回的 JSON 数组按每一项的 "id" 字段拆开，分别回调给各自的调用者：
+ * {@link RequestListener#onComplete(String)} 收到的是对应项的 JSON 字符串。
+ * 返回结果中没有的 ID，回调 {@link RequestListener#onWeiboException(WeiboException)}。
+ * <p>
+ * 例如，刷新一屏 20 条微博的转发数和评论数只需要一次 statuses/count 请求，而不是 20 次。
+ */
+public abstract class BatchDispatcher {
+
+    /** 默认的合并时间窗口（毫秒） */
+    public static final long DEFAULT_WINDOW_MS = 50;
+
+    private static final String KEY_ID = "id";
+
+    /** 批量接口一次允许的最大 ID 数 */
+    private final int mMaxBatchSize;
+    /** 合并时间窗口（毫秒） */
+    private final long mWindowMs;
+    private final Handler mHandler;
+
+    /** 等待发出的 ID 及其回调，保持请求的顺序 */
+    private LinkedHashMap<Long, List<RequestListener>> mPending =
+            new LinkedHashMap<Long, List<RequestListener>>();
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * 构造函数。
+     * 
+     * @param maxBatchSize 批量接口一次允许的最大 ID 数
+     * @param windowMs     合并时间窗口（毫秒）
+     */
+    protected BatchDispatcher(int maxBatchSize, long windowMs) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive.");
+        }
+        mMaxBatchSize = maxBatchSize;
+        mWindowMs = windowMs;
+        mHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * 发出批量请求。
+     * 
+     * @param ids      要查询的 ID，不超过最大批量数
+     * @param listener 请求后的回调接口，返回 JSON 数组
+     */
+    protected abstract void requestBatch(long[] ids, RequestListener listener);
+
+    /**
+     * 查询一个 ID。
+     * 
+     * @param id       要查询的 ID
+     * @param listener 请求后的回调接口，返回该 ID 对应项的 JSON 字符串
+     */
+    public void request(long id, RequestListener listener) {
+        LinkedHashMap<Long, List<RequestListener>> full = null;
+        synchronized (this) {
+            List<RequestListener> listeners = mPending.get(id);
+            if (null == listeners) {
+                listeners = new ArrayList<RequestListener>(1);
+                mPending.put(id, listeners);
+            }
+            listeners.add(listener);
+
+            if (mPending.size() >= mMaxBatchSize) {
+                full = takePending();
+            } else if (1 == mPending.size()) {
+                mHandler.postDelayed(mFlushRunnable, mWindowMs);
+            }
+        }
+
+        if (null != full) {
+            send(full);
+        }
+    }
+
+    /**
+     * 立即发出所有等待中的查询。
+     */
+    public void flush() {
+        LinkedHashMap<Long, List<RequestListener>> batch;
+        synchronized (this) {
+            if (mPending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    private LinkedHashMap<Long, List<RequestListener>> takePending() {
+        mHandler.removeCallbacks(mFlushRunnable);
+        LinkedHashMap<Long, List<RequestListener>> batch = mPending;
+        mPending = new LinkedHashMap<Long, List<RequestListener>>();
+        return batch;
+    }
+
+    private void send(final LinkedHashMap<Long, List<RequestListener>> batch) {
+        long[] ids = new long[batch.size()];
+        int i = 0;
+        for (Long id : batch.keySet()) {
+            ids[i++] = id;
+        }
+
+        requestBatch(ids, new RequestListener() {
+            @Override
+            public void onComplete(String response) {
+                Map<Long, String> items;
+                try {
+                    items = split(parseItems(response));
+                } catch (JSONException e) {
+                    onWeiboException(new WeiboException(e));
+                    return;
+                }
+
+                for (Map.Entry<Long, List<RequestListener>> entry : batch.entrySet()) {
+                    String item = items.get(entry.getKey());
+                    for (RequestListener listener : entry.getValue()) {
+                        if (null != item) {
+                            listener.onComplete(item);
+                        } else {
+                            listener.onWeiboException(
+                                    new WeiboException("No result for id " + entry.getKey()));
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onWeiboException(WeiboException e) {
+                for (List<RequestListener> listeners : batch.values()) {
+                    for (RequestListener listener : listeners) {
+                        listener.onWeiboException(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 取出批量接口返回的结果数组，默认整个返回就是数组。
+     * 
+     * @param response 批量接口返回的字符串
+     */
+    protected JSONArray parseItems(String response) throws JSONException {
+        return new JSONArray(response);
+    }
+
+    /**
+     * 把结果数组按 "id" 拆开。
+     */
+    private static Map<Long, String> split(JSONArray array) {
+        Map<Long, String> items = new HashMap<Long, String>(array.length() * 2);
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.optJSONObject(i);
+            if (null != item && item.has(KEY_ID)) {
+                items.put(item.optLong(KEY_ID), item.toString());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 批量获取微博的转发数、评论数、表态数，每项形如
+     * {"id":..., "comments":..., "reposts":..., "attitudes":...}。
+     * 
+     * @param accessToken 访问令牌
+     */
+    public static BatchDispatcher forStatusCounts(Oauth2AccessToken accessToken) {
+        final com.sina.weibo.sdk.openapi.legacy.StatusesAPI api =
+                new com.sina.weibo.sdk.openapi.legacy.StatusesAPI(accessToken);
+        return new BatchDispatcher(100, DEFAULT_WINDOW_MS) {
+            @Override
+            protected void requestBatch(long[] ids, RequestListener listener) {
+                String[] strIds = new String[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    strIds[i] = String.valueOf(ids[i]);
+                }
+                api.count(strIds, listener);
+            }
+        };
+    }
+
+    /**
+     * 批量获取用户的粉丝数、关注数、微博数。
+     * 
+     * @param accessToken 访问令牌
+     */
+    public static BatchDispatcher forUserCounts(Oauth2AccessToken accessToken) {
+        final UsersAPI api = new UsersAPI(accessToken);
+        return new BatchDispatcher(100, DEFAULT_WINDOW_MS) {
+            @Override
+            protected void requestBatch(long[] ids, RequestListener listener) {
+                api.counts(ids, listener);
+            }
+        };
+    }
+
+    /**
+     * 批量获取用户信息，每项是一个完整的用户对象。
+     * 
+     * @param accessToken 访问令牌
+     */
+    public static BatchDispatcher forUsers(Oauth2AccessToken accessToken) {
+        final UsersAPI api = new UsersAPI(accessToken);
+        return new BatchDispatcher(50, DEFAULT_WINDOW_MS) {
+            @Override
+            protected void requestBatch(long[] ids, RequestListener listener) {
+                api.showBatch(ids, listener);
+            }
+
+            @Override
+            protected JSONArray parseItems(String response) throws JSONException {
+                return new JSONObject(response).getJSONArray("users");
+            }
+        };
+    }
+
+    /**
+     * 根据评论 ID 批量返回评论信息。
+     * 
+     * @param accessToken 访问令牌
+     */
+    public static BatchDispatcher forComments(Oauth2AccessToken accessToken) {
+        final CommentsAPI api = new CommentsAPI(accessToken);
+        return new BatchDispatcher(50, DEFAULT_WINDOW_MS) {
+            @Override
+            protected void requestBatch(long[] ids, RequestListener listener) {
+                api.showBatch(ids, listener);
+            }
+        };
+    }
+}
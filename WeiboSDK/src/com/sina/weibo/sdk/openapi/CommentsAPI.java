@@ -98,12 +98,14 @@ public class CommentsAPI extends AbsOpenAPI {
      *                   <li>{@link #AUTHOR_FILTER_ATTENTIONS}
      *                   <li>{@link #AUTHOR_FILTER_STRANGER}
      * @param listener   异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void show(long id, long since_id, long max_id, int count, int page, int authorType, RequestListener listener) {
+    public RequestHandle show(long id, long since_id, long max_id, int count, int page, int authorType, RequestListener listener) {
         WeiboParameters params = buildTimeLineParamsBase(since_id, max_id, count, page);
         params.put("id", id);
         params.put("filter_by_author", authorType);
-        requestAsync(sAPIList.get(READ_API_SHOW), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_SHOW), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -118,11 +120,13 @@ public class CommentsAPI extends AbsOpenAPI {
      *                   <li>{@link #SRC_FILTER_WEIBO}
      *                   <li>{@link #SRC_FILTER_WEIQUN} 
      * @param listener   异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void byME(long since_id, long max_id, int count, int page, int sourceType, RequestListener listener) {
+    public RequestHandle byME(long since_id, long max_id, int count, int page, int sourceType, RequestListener listener) {
         WeiboParameters params = buildTimeLineParamsBase(since_id, max_id, count, page);
         params.put("filter_by_source", sourceType);
-        requestAsync(sAPIList.get(READ_API_BY_ME), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_BY_ME), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -141,13 +145,15 @@ public class CommentsAPI extends AbsOpenAPI {
      *                   <li>{@link #SRC_FILTER_WEIBO}
      *                   <li>{@link #SRC_FILTER_WEIQUN}
      * @param listener   异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void toME(long since_id, long max_id, int count, int page, int authorType, int sourceType,
+    public RequestHandle toME(long since_id, long max_id, int count, int page, int authorType, int sourceType,
             RequestListener listener) {
         WeiboParameters params = buildTimeLineParamsBase(since_id, max_id, count, page);
         params.put("filter_by_author", authorType);
         params.put("filter_by_source", sourceType);
-        requestAsync(sAPIList.get(READ_API_TO_ME), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_TO_ME), params, HTTPMETHOD_GET, listener);
     }
 
     /**
@@ -159,11 +165,13 @@ public class CommentsAPI extends AbsOpenAPI {
      * @param page      返回结果的页码，默认为1。
      * @param trim_user 返回值中user字段开关，false：返回完整user字段、true：user字段仅返回user_id，默认为false。
      * @param listener  异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void timeline(long since_id, long max_id, int count, int page, boolean trim_user, RequestListener listener) {
+    public RequestHandle timeline(long since_id, long max_id, int count, int page, boolean trim_user, RequestListener listener) {
         WeiboParameters params = buildTimeLineParamsBase(since_id, max_id, count, page);
         params.put("trim_user", trim_user ? 1 : 0);
-        requestAsync(sAPIList.get(READ_API_TIMELINE), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_TIMELINE), params, HTTPMETHOD_GET, listener);
     }
 
     /**
@@ -182,13 +190,15 @@ public class CommentsAPI extends AbsOpenAPI {
      *                   <li> {@link #SRC_FILTER_WEIBO}
      *                   <li> {@link #SRC_FILTER_WEIQUN}
      * @param listener   异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void mentions(long since_id, long max_id, int count, int page, int authorType, int sourceType,
+    public RequestHandle mentions(long since_id, long max_id, int count, int page, int authorType, int sourceType,
             RequestListener listener) {
         WeiboParameters params = buildTimeLineParamsBase(since_id, max_id, count, page);
         params.put("filter_by_author", authorType);
         params.put("filter_by_source", sourceType);
-        requestAsync(sAPIList.get(READ_API_MENTIONS), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_MENTIONS), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -196,10 +206,12 @@ public class CommentsAPI extends AbsOpenAPI {
      * 
      * @param cids      需要查询的批量评论ID数组，最大50
      * @param listener  异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void showBatch(long[] cids, RequestListener listener) {
+    public RequestHandle showBatch(long[] cids, RequestListener listener) {
         WeiboParameters params = buildShowOrDestoryBatchParams(cids);
-        requestAsync(sAPIList.get(READ_API_SHOW_BATCH), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_SHOW_BATCH), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -209,10 +221,12 @@ public class CommentsAPI extends AbsOpenAPI {
      * @param id          需要评论的微博ID。
      * @param comment_ori 当评论转发微博时，是否评论给原微博
      * @param listener    异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void create(String comment, long id, boolean comment_ori, RequestListener listener) {
+    public RequestHandle create(String comment, long id, boolean comment_ori, RequestListener listener) {
         WeiboParameters params = buildCreateParams(comment, id, comment_ori);
-        requestAsync(sAPIList.get(WRITE_API_CREATE), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_CREATE), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -220,11 +234,13 @@ public class CommentsAPI extends AbsOpenAPI {
      * 
      * @param cid      要删除的评论ID，只能删除登录用户自己发布的评论。
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void destroy(long cid, RequestListener listener) {
+    public RequestHandle destroy(long cid, RequestListener listener) {
         WeiboParameters params = new WeiboParameters();
         params.put("cid", cid);
-        requestAsync(sAPIList.get(WRITE_API_DESTROY), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_DESTROY), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -232,10 +248,12 @@ public class CommentsAPI extends AbsOpenAPI {
      * 
      * @param ids      需要删除的评论ID数组，最多20个。
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void destroyBatch(long[] ids, RequestListener listener) {
+    public RequestHandle destroyBatch(long[] ids, RequestListener listener) {
         WeiboParameters params = buildShowOrDestoryBatchParams(ids);
-        requestAsync(sAPIList.get(WRITE_API_SDESTROY_BATCH), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_SDESTROY_BATCH), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -247,11 +265,13 @@ public class CommentsAPI extends AbsOpenAPI {
      * @param without_mention 回复中是否自动加入“回复@用户名”，true：是、false：否，默认为false
      * @param comment_ori     当评论转发微博时，是否评论给原微博，false：否、true：是，默认为false
      * @param listener        异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void reply(long cid, long id, String comment, boolean without_mention, boolean comment_ori,
+    public RequestHandle reply(long cid, long id, String comment, boolean without_mention, boolean comment_ori,
             RequestListener listener) {
         WeiboParameters params = buildReplyParams(cid, id, comment, without_mention, comment_ori);
-        requestAsync(sAPIList.get(WRITE_API_REPLY), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_REPLY), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.net.RequestListener;
+
+/**
+ * 合并正在进行中的相同 GET 请求。
+ * 第一个请求正常发出，其后相同的请求只登记回调，不再重复访问网络；
+ * 请求结束后，结果分发给每一个登记的回调。
+ */
+final class RequestCoalescer {
+
+    /** 请求 Key 与正在进行中的请求 */
+    private static final HashMap<String, InFlight> sInFlight = new HashMap<String, InFlight>();
+
+    private RequestCoalescer() {
+    }
+
+    /**
+     * 登记一个请求。
+     * 
+     * @param key    请求的 Key（请求地址及参数）
+     * @param handle 请求的句柄
+     * 
+     * @return 如果已有相同的请求在进行中，返回 null，调用者不应再发出请求；
+     *         否则返回需要交给网络请求的回调，它会把结果分发给所有登记的句柄。
+     */
+    static RequestListener join(final String key, RequestHandle handle) {
+        final InFlight inFlight;
+        synchronized (sInFlight) {
+            InFlight existing = sInFlight.get(key);
+            if (existing != null) {
+                existing.mHandles.add(handle);
+                leaveOnCancel(key, existing, handle);
+                return null;
+            }
+
+            inFlight = new InFlight();
+            inFlight.mHandles.add(handle);
+            sInFlight.put(key, inFlight);
+        }
+        leaveOnCancel(key, inFlight, handle);
+
+        return new RequestListener() {
+            @Override
+            public void onComplete(String response) {
+                for (RequestHandle h : finish(key, inFlight)) {
+                    h.deliverComplete(response);
+                }
+            }
+
+            @Override
+            public void onWeiboException(WeiboException e) {
+                for (RequestHandle h : finish(key, inFlight)) {
+                    h.deliverException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * 设置真正发出的请求，所有登记的句柄都取消后，它也会被取消。
+     */
+    static void setTask(String key, AsyncRequestExecutor.Task task) {
+        synchronized (sInFlight) {
+            InFlight inFlight = sInFlight.get(key);
+            if (inFlight != null) {
+                inFlight.mTask = task;
+                return;
+            }
+        }
+        // 所有句柄在请求提交前就已取消
+        task.cancel();
+    }
+
+    private static void leaveOnCancel(final String key, final InFlight inFlight,
+            final RequestHandle handle) {
+        handle.setOnCancel(new Runnable() {
+            @Override
+            public void run() {
+                AsyncRequestExecutor.Task task = null;
+                synchronized (sInFlight) {
+                    inFlight.mHandles.remove(handle);
+                    if (inFlight.mHandles.isEmpty() && sInFlight.get(key) == inFlight) {
+                        sInFlight.remove(key);
+                        task = inFlight.mTask;
+                    }
+                }
+                if (task != null) {
+                    task.cancel();
+                }
+            }
+        });
+    }
+
+    private static List<RequestHandle> finish(String key, InFlight inFlight) {
+        synchronized (sInFlight) {
+            if (sInFlight.get(key) == inFlight) {
+                sInFlight.remove(key);
+            }
+            return new ArrayList<RequestHandle>(inFlight.mHandles);
+        }
+    }
+
+    /**
+     * 一个正在进行中的请求及等待其结果的句柄。
+     */
+    private static class InFlight {
+        final List<RequestHandle> mHandles = new ArrayList<RequestHandle>(1);
+        AsyncRequestExecutor.Task mTask;
+    }
+}
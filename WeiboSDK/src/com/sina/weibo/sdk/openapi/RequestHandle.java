@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi;
+
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.net.RequestListener;
+
+/**
+ * 一次异步请求的句柄，由 {@link AbsOpenAPI#requestAsync} 返回。
+ * 取消之后，请求的结果不会再回调给调用者；如果请求尚未开始，则不会再发出。
+ */
+public final class RequestHandle {
+
+    /** 请求后的回调接口 */
+    private final RequestListener mListener;
+    /** 取消时需要执行的操作，如停止后台任务 */
+    private Runnable mOnCancel;
+    /** 是否已取消 */
+    private volatile boolean mCancelled;
+    /** 是否已回调 */
+    private volatile boolean mDone;
+
+    RequestHandle(RequestListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * 取消请求。回调线程上调用时，保证之后不会再收到回调。
+     */
+    public void cancel() {
+        Runnable onCancel;
+        synchronized (this) {
+            if (mCancelled || mDone) {
+                return;
+            }
+            mCancelled = true;
+            onCancel = mOnCancel;
+            mOnCancel = null;
+        }
+
+        if (onCancel != null) {
+            onCancel.run();
+        }
+    }
+
+    /**
+     * @return 请求是否已取消
+     */
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * @return 请求是否已结束（已回调或已取消）
+     */
+    public boolean isDone() {
+        return mDone || mCancelled;
+    }
+
+    /**
+     * 设置取消时需要执行的操作。如果请求已经取消，立即执行。
+     */
+    void setOnCancel(Runnable onCancel) {
+        synchronized (this) {
+            if (!mCancelled) {
+                mOnCancel = onCancel;
+                return;
+            }
+        }
+        onCancel.run();
+    }
+
+    void deliverComplete(String response) {
+        if (finish()) {
+            mListener.onComplete(response);
+        }
+    }
+
+    void deliverException(WeiboException e) {
+        if (finish()) {
+            mListener.onWeiboException(e);
+        }
+    }
+
+    private synchronized boolean finish() {
+        if (mCancelled || mDone) {
+            return false;
+        }
+        mDone = true;
+        mOnCancel = null;
+        return true;
+    }
+}
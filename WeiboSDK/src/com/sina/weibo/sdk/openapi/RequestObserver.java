@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi;
+
+import com.sina.weibo.sdk.exception.WeiboException;
+
+/**
+ * 观察 {@link AsyncRequestExecutor} 执行的每一个请求，用于统计耗时和错误。
+ * 回调在执行请求的后台线程上调用，不应执行耗时的操作。
+ */
+public interface RequestObserver {
+
+    /**
+     * 请求结束（成功或失败）时调用。
+     * 
+     * @param url         请求的地址
+     * @param queueMillis 在队列中等待的时间（毫秒）
+     * @param execMillis  执行请求的时间（毫秒）
+     * @param error       失败时的异常，成功时为 null
+     */
+    void onRequestFinished(String url, long queueMillis, long execMillis, WeiboException error);
+}
@@ -107,12 +107,14 @@ public class StatusesAPI extends AbsOpenAPI {
      *                    <li>{@link #FEATURE_MUSICE}
      * @param trim_user   返回值中user字段开关，false：返回完整user字段、true：user字段仅返回user_id，默认为false。
      * @param listener    异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void friendsTimeline(long since_id, long max_id, int count, int page, boolean base_app,
+    public RequestHandle friendsTimeline(long since_id, long max_id, int count, int page, boolean base_app,
             int featureType, boolean trim_user, RequestListener listener) {
         WeiboParameters params = 
                 buildTimeLineParamsBase(since_id, max_id, count, page, base_app, trim_user, featureType);
-        requestAsync(sAPIList.get(READ_API_FRIENDS_TIMELINE), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_FRIENDS_TIMELINE), params, HTTPMETHOD_GET, listener);
     }    
     
     /**
@@ -135,11 +137,13 @@ public class StatusesAPI extends AbsOpenAPI {
      *                      <li>{@link #TYPE_FILTER_ORIGAL}
      * @param trim_user     返回值中user字段开关，false：返回完整user字段、true：user字段仅返回user_id，默认为false
      * @param listener      异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void mentions(long since_id, long max_id, int count, int page, int authorType, int sourceType,
+    public RequestHandle mentions(long since_id, long max_id, int count, int page, int authorType, int sourceType,
             int filterType, boolean trim_user, RequestListener listener) {
         WeiboParameters params = buildMentionsParams(since_id, max_id, count, page, authorType, sourceType, filterType, trim_user);
-        requestAsync(sAPIList.get(READ_API_MENTIONS), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_API_MENTIONS), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -149,10 +153,12 @@ public class StatusesAPI extends AbsOpenAPI {
      * @param lat      纬度，有效范围：-90.0到+90.0，+表示北纬，默认为0.0。
      * @param lon      经度，有效范围：-180.0到+180.0，+表示东经，默认为0.0。
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void update(String content, String lat, String lon, RequestListener listener) {
+    public RequestHandle update(String content, String lat, String lon, RequestListener listener) {
         WeiboParameters params = buildUpdateParams(content, lat, lon);
-        requestAsync(sAPIList.get(WRITE_API_UPDATE), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_UPDATE), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -163,11 +169,13 @@ public class StatusesAPI extends AbsOpenAPI {
      * @param lat      纬度，有效范围：-90.0到+90.0，+表示北纬，默认为0.0。
      * @param lon      经度，有效范围：-180.0到+180.0，+表示东经，默认为0.0。
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void upload(String content, Bitmap bitmap, String lat, String lon, RequestListener listener) {
+    public RequestHandle upload(String content, Bitmap bitmap, String lat, String lon, RequestListener listener) {
         WeiboParameters params = buildUpdateParams(content, lat, lon);
         params.put("pic", bitmap);
-        requestAsync(sAPIList.get(WRITE_API_UPLOAD), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_UPLOAD), params, HTTPMETHOD_POST, listener);
     }
     
     /**
@@ -181,13 +189,15 @@ public class StatusesAPI extends AbsOpenAPI {
      * @param lat      纬度，有效范围：-90.0到+90.0，+表示北纬，默认为0.0。
      * @param lon      经度，有效范围：-180.0到+180.0，+表示东经，默认为0.0。
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void uploadUrlText(String status, String imageUrl, String pic_id, String lat, String lon,
+    public RequestHandle uploadUrlText(String status, String imageUrl, String pic_id, String lat, String lon,
             RequestListener listener) {
         WeiboParameters params = buildUpdateParams(status, lat, lon);
         params.put("url", imageUrl);
         params.put("pic_id", pic_id);
-        requestAsync(sAPIList.get(WRITE_API_UPLOAD_URL_TEXT), params, HTTPMETHOD_POST, listener);
+        return requestAsync(sAPIList.get(WRITE_API_UPLOAD_URL_TEXT), params, HTTPMETHOD_POST, listener);
     }
     
     /**
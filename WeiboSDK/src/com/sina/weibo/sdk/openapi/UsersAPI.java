@@ -34,6 +34,7 @@ public class UsersAPI extends AbsOpenAPI {
     private static final int READ_USER           = 0;
     private static final int READ_USER_BY_DOMAIN = 1;
     private static final int READ_USER_COUNT     = 2;
+    private static final int READ_USER_BATCH     = 3;
 
     private static final String API_BASE_URL = API_SERVER + "/users";
 
@@ -42,6 +43,7 @@ public class UsersAPI extends AbsOpenAPI {
         sAPIList.put(READ_USER,           API_BASE_URL + "/show.json");
         sAPIList.put(READ_USER_BY_DOMAIN, API_BASE_URL + "/domain_show.json");
         sAPIList.put(READ_USER_COUNT,     API_BASE_URL + "/counts.json");
+        sAPIList.put(READ_USER_BATCH,     API_BASE_URL + "/show_batch.json");
     }
 
     public UsersAPI(Oauth2AccessToken accessToken) {
@@ -53,11 +55,13 @@ public class UsersAPI extends AbsOpenAPI {
      * 
      * @param uid      需要查询的用户ID
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void show(long uid, RequestListener listener) {
+    public RequestHandle show(long uid, RequestListener listener) {
         WeiboParameters params = new WeiboParameters();
         params.put("uid", uid);
-        requestAsync(sAPIList.get(READ_USER), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_USER), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -65,11 +69,13 @@ public class UsersAPI extends AbsOpenAPI {
      * 
      * @param screen_name 需要查询的用户昵称
      * @param listener    异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void show(String screen_name, RequestListener listener) {
+    public RequestHandle show(String screen_name, RequestListener listener) {
         WeiboParameters params = new WeiboParameters();
         params.put("screen_name", screen_name);
-        requestAsync(sAPIList.get(READ_USER), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_USER), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -77,11 +83,13 @@ public class UsersAPI extends AbsOpenAPI {
      * 
      * @param domain   需要查询的个性化域名（请注意：是http://weibo.com/xxx后面的xxx部分）
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void domainShow(String domain, RequestListener listener) {
+    public RequestHandle domainShow(String domain, RequestListener listener) {
         WeiboParameters params = new WeiboParameters();
         params.put("domain", domain);
-        requestAsync(sAPIList.get(READ_USER_BY_DOMAIN), params, HTTPMETHOD_GET, listener);
+        return requestAsync(sAPIList.get(READ_USER_BY_DOMAIN), params, HTTPMETHOD_GET, listener);
     }
     
     /**
@@ -89,10 +97,26 @@ public class UsersAPI extends AbsOpenAPI {
      * 
      * @param uids     需要获取数据的用户UID，多个之间用逗号分隔，最多不超过100个
      * @param listener 异步请求回调接口
+     * 
+     * @return 请求的句柄，可用于取消请求
+     */
+    public RequestHandle counts(long[] uids, RequestListener listener) {
+        WeiboParameters params = buildCountsParams(uids);
+        return requestAsync(sAPIList.get(READ_USER_COUNT), params, HTTPMETHOD_GET, listener);
+    }
+
+    /**
+     * 批量获取用户信息，不返回用户的最新一条微博。
+     * 
+     * @param uids     需要查询的用户ID，最多不超过50个
+     * @param listener 异步请求回调接口，返回形如 {"users":[...]}
+     * 
+     * @return 请求的句柄，可用于取消请求
      */
-    public void counts(long[] uids, RequestListener listener) {
+    public RequestHandle showBatch(long[] uids, RequestListener listener) {
         WeiboParameters params = buildCountsParams(uids);
-        requestAsync(sAPIList.get(READ_USER_COUNT), params, HTTPMETHOD_GET, listener);
+        params.put("trim_status", 1);
+        return requestAsync(sAPIList.get(READ_USER_BATCH), params, HTTPMETHOD_GET, listener);
     }
     
     /**
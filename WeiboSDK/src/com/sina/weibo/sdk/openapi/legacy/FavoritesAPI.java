@@ -123,6 +123,19 @@ public class FavoritesAPI extends AbsOpenAPI {
         requestAsync(SERVER_URL_PRIX + "/create.json", params, HTTPMETHOD_POST, listener);
     }
 
+    /**
+     * 添加一条微博到收藏里（同步请求）。
+     * 
+     * @param id        要收藏的微博ID
+     * 
+     * @return 服务器返回的字符串
+     */
+    public String createSync(long id) {
+        WeiboParameters params = new WeiboParameters();
+        params.put("id", id);
+        return requestSync(SERVER_URL_PRIX + "/create.json", params, HTTPMETHOD_POST);
+    }
+
     /**
      * 取消收藏一条微博。
      * 
@@ -590,6 +590,21 @@ public class StatusesAPI extends AbsOpenAPI {
         requestAsync(SERVER_URL_PRIX + "/repost.json", params, HTTPMETHOD_POST, listener);
     }
 
+    /**
+     * 转发一条微博（同步请求）。
+     * 
+     * @see #repost(long, String, int, RequestListener)
+     * 
+     * @return 服务器返回的字符串
+     */
+    public String repostSync(long id, String status, int commentType) {
+        WeiboParameters params = new WeiboParameters();
+        params.put("id", id);
+        params.put("status", status);
+        params.put("is_comment", commentType);
+        return requestSync(SERVER_URL_PRIX + "/repost.json", params, HTTPMETHOD_POST);
+    }
+
     /**
      * 根据微博ID删除指定微博。
      * 
@@ -16,10 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
-import org.json.JSONException;
+import java.io.IOException;
+
 import org.json.JSONObject;
 
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 该类用于解析Object类型数据。
@@ -36,9 +38,10 @@ public class AbsDataObject implements IParseable {
         }
         
         try {
-            JSONObject object = new JSONObject(parseString);
-            return parse(object);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(parseString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
         
@@ -53,4 +56,13 @@ public class AbsDataObject implements IParseable {
         
         return null;
     }
+
+    /**
+     * 流式解析，子类按字段读取；默认跳过整个值。
+     */
+    @Override
+    public Object parse(JsonReader reader) throws IOException {
+        reader.skipValue();
+        return null;
+    }
 }
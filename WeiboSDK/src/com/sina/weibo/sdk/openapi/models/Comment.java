@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 评论结构体。
  * 
@@ -63,4 +67,51 @@ public class Comment {
         
         return comment;
     }
+    
+    /**
+     * 从流中解析评论结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 评论结构体，值不是 JSON 对象时返回 null
+     */
+    public static Comment parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Comment comment = new Comment();
+        comment.created_at = "";
+        comment.id         = "";
+        comment.text       = "";
+        comment.source     = "";
+        comment.mid        = "";
+        comment.idstr      = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("created_at".equals(name)) {
+                comment.created_at = JsonReaders.optString(reader, "");
+            } else if ("id".equals(name)) {
+                comment.id = JsonReaders.optString(reader, "");
+            } else if ("text".equals(name)) {
+                comment.text = JsonReaders.optString(reader, "");
+            } else if ("source".equals(name)) {
+                comment.source = JsonReaders.optString(reader, "");
+            } else if ("user".equals(name)) {
+                comment.user = User.parse(reader);
+            } else if ("mid".equals(name)) {
+                comment.mid = JsonReaders.optString(reader, "");
+            } else if ("idstr".equals(name)) {
+                comment.idstr = JsonReaders.optString(reader, "");
+            } else if ("status".equals(name)) {
+                comment.status = Status.parse(reader);
+            } else if ("reply_comment".equals(name)) {
+                comment.reply_comment = Comment.parse(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return comment;
+    }
 }
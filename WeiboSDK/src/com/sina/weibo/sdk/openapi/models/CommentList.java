@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 评论列表结构体。
@@ -43,24 +41,54 @@ public class CommentList {
             return null;
         }
         
-        CommentList comments = new CommentList();
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            comments.previous_cursor = jsonObject.optString("previous_cursor", "0");
-            comments.next_cursor     = jsonObject.optString("next_cursor", "0");
-            comments.total_number    = jsonObject.optInt("total_number", 0);
-            
-            JSONArray jsonArray      = jsonObject.optJSONArray("comments");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                comments.commentList = new ArrayList<Comment>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    comments.commentList.add(Comment.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析评论列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 评论列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static CommentList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        CommentList comments = new CommentList();
+        comments.previous_cursor = "0";
+        comments.next_cursor     = "0";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("previous_cursor".equals(name)) {
+                comments.previous_cursor = JsonReaders.optString(reader, "0");
+            } else if ("next_cursor".equals(name)) {
+                comments.next_cursor = JsonReaders.optString(reader, "0");
+            } else if ("total_number".equals(name)) {
+                comments.total_number = JsonReaders.optInt(reader, 0);
+            } else if ("comments".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (comments.commentList == null) {
+                            comments.commentList = new ArrayList<Comment>();
+                        }
+                        comments.commentList.add(Comment.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
+        reader.endObject();
         
         return comments;
     }
@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 该类用于解析JSONObject类型数据。
  * 
@@ -39,4 +43,33 @@ public class Coordinate {
 
         return coordinate;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 从流中解析坐标结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 坐标结构体，值不是 JSON 对象时返回 null
+     */
+    public static Coordinate parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Coordinate coordinate = new Coordinate();
+        coordinate.Longtitude = Double.NaN;
+        coordinate.Latitude   = Double.NaN;
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("longitude".equals(name)) {
+                coordinate.Longtitude = JsonReaders.optDouble(reader, Double.NaN);
+            } else if ("latitude".equals(name)) {
+                coordinate.Latitude = JsonReaders.optDouble(reader, Double.NaN);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return coordinate;
+    }
+}
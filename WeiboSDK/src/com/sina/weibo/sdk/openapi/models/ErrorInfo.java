@@ -16,10 +16,10 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.IOException;
 
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 错误信息结构体。
@@ -36,17 +36,16 @@ public class ErrorInfo {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        ErrorInfo errorInfo = new ErrorInfo();
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            errorInfo.error      = jsonObject.optString("error");
-            errorInfo.error_code = jsonObject.optString("error_code");
-            errorInfo.request    = jsonObject.optString("request");
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
-        return errorInfo;
+        
+        return null;
     }
     
     /* (non-Javadoc)
@@ -58,4 +57,36 @@ public class ErrorInfo {
                ", error_code: " + error_code + 
                ", request: " + request;
     }
+    
+    /**
+     * 从流中解析错误信息结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 错误信息结构体，值不是 JSON 对象时返回 null
+     */
+    public static ErrorInfo parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        ErrorInfo errorInfo = new ErrorInfo();
+        errorInfo.error      = "";
+        errorInfo.error_code = "";
+        errorInfo.request    = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("error".equals(name)) {
+                errorInfo.error = JsonReaders.optString(reader, "");
+            } else if ("error_code".equals(name)) {
+                errorInfo.error_code = JsonReaders.optString(reader, "");
+            } else if ("request".equals(name)) {
+                errorInfo.request = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return errorInfo;
+    }
 }
@@ -16,12 +16,15 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import android.text.TextUtils;
+import android.util.JsonReader;
+
 /**
  * 我喜欢的微博信息结构体。
  * 
@@ -38,10 +41,15 @@ public class Favorite {
     public String favorited_time;
     
     public static Favorite parse(String jsonString) {
+        if (TextUtils.isEmpty(jsonString)) {
+            return null;
+        }
+        
         try {
-            JSONObject object = new JSONObject(jsonString);
-            return Favorite.parse(object);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
         
@@ -68,4 +76,42 @@ public class Favorite {
 
         return favorite;
     }
+    
+    /**
+     * 从流中解析收藏结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 收藏结构体，值不是 JSON 对象时返回 null
+     */
+    public static Favorite parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Favorite favorite = new Favorite();
+        favorite.favorited_time = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("status".equals(name)) {
+                favorite.status = Status.parse(reader);
+            } else if ("favorited_time".equals(name)) {
+                favorite.favorited_time = JsonReaders.optString(reader, "");
+            } else if ("tags".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (favorite.tags == null) {
+                            favorite.tags = new ArrayList<Tag>();
+                        }
+                        favorite.tags.add(Tag.parse(reader));
+                    }
+                    reader.endArray();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return favorite;
+    }
 }
@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 我喜欢的微博信息列表结构体。
@@ -41,22 +39,48 @@ public class FavoriteList {
             return null;
         }
         
-        FavoriteList favorites = new FavoriteList();
         try {
-            JSONObject jsonObject  = new JSONObject(jsonString);
-            favorites.total_number = jsonObject.optInt("total_number", 0);
-            
-            JSONArray jsonArray    = jsonObject.optJSONArray("favorites");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                favorites.favoriteList = new ArrayList<Favorite>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    favorites.favoriteList.add(Favorite.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析收藏列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 收藏列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static FavoriteList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        FavoriteList favorites = new FavoriteList();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("total_number".equals(name)) {
+                favorites.total_number = JsonReaders.optInt(reader, 0);
+            } else if ("favorites".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (favorites.favoriteList == null) {
+                            favorites.favoriteList = new ArrayList<Favorite>();
+                        }
+                        favorites.favoriteList.add(Favorite.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
+        reader.endObject();
         
         return favorites;
     }
@@ -16,10 +16,13 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
-import org.json.JSONException;
+import java.io.IOException;
+
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 地理信息结构体。
@@ -52,16 +55,16 @@ public class Geo {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        Geo geo = null;
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            geo = parse(jsonObject);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
-
-        return geo;
+        
+        return null;
     }
 
     public static Geo parse(JSONObject jsonObject) {
@@ -79,7 +82,87 @@ public class Geo {
         geo.address         = jsonObject.optString("address");
         geo.pinyin          = jsonObject.optString("pinyin");
         geo.more            = jsonObject.optString("more");
+
+        // 微博中的地理信息为 {"type": "Point", "coordinates": [纬度, 经度]}
+        JSONArray coordinates = jsonObject.optJSONArray("coordinates");
+        if (coordinates != null && coordinates.length() >= 2) {
+            geo.latitude    = coordinates.optString(0);
+            geo.longitude   = coordinates.optString(1);
+        }
         
         return geo;
     }
+    
+    /**
+     * 从流中解析地理信息结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 地理信息结构体，值不是 JSON 对象时返回 null
+     */
+    public static Geo parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Geo geo = new Geo();
+        geo.longitude     = "";
+        geo.latitude      = "";
+        geo.city          = "";
+        geo.province      = "";
+        geo.city_name     = "";
+        geo.province_name = "";
+        geo.address       = "";
+        geo.pinyin        = "";
+        geo.more          = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("longitude".equals(name)) {
+                geo.longitude = JsonReaders.optString(reader, "");
+            } else if ("latitude".equals(name)) {
+                geo.latitude = JsonReaders.optString(reader, "");
+            } else if ("city".equals(name)) {
+                geo.city = JsonReaders.optString(reader, "");
+            } else if ("province".equals(name)) {
+                geo.province = JsonReaders.optString(reader, "");
+            } else if ("city_name".equals(name)) {
+                geo.city_name = JsonReaders.optString(reader, "");
+            } else if ("province_name".equals(name)) {
+                geo.province_name = JsonReaders.optString(reader, "");
+            } else if ("address".equals(name)) {
+                geo.address = JsonReaders.optString(reader, "");
+            } else if ("pinyin".equals(name)) {
+                geo.pinyin = JsonReaders.optString(reader, "");
+            } else if ("more".equals(name)) {
+                geo.more = JsonReaders.optString(reader, "");
+            } else if ("coordinates".equals(name)) {
+                parseCoordinates(reader, geo);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return geo;
+    }
+
+    /**
+     * 读取微博中地理信息的坐标 [纬度, 经度]。
+     */
+    private static void parseCoordinates(JsonReader reader, Geo geo) throws IOException {
+        if (!JsonReaders.beginArray(reader)) {
+            return;
+        }
+
+        String latitude = reader.hasNext() ? JsonReaders.optString(reader, "") : "";
+        String longitude = reader.hasNext() ? JsonReaders.optString(reader, "") : "";
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+
+        if (latitude.length() > 0 && longitude.length() > 0) {
+            geo.latitude = latitude;
+            geo.longitude = longitude;
+        }
+    }
 }
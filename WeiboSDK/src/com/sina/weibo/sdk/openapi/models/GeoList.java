@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 地理信息结构体。
@@ -37,24 +35,48 @@ public class GeoList {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        GeoList geoList = new GeoList();
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-
-            JSONArray jsonArray = jsonObject.optJSONArray("geos");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                geoList.Geos = new ArrayList<Geo>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    geoList.Geos.add(Geo.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析地理信息列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 地理信息列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static GeoList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        GeoList geoList = new GeoList();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("geos".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (geoList.Geos == null) {
+                            geoList.Geos = new ArrayList<Geo>();
+                        }
+                        geoList.Geos.add(Geo.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
-
+        reader.endObject();
+        
         return geoList;
     }
 }
@@ -16,11 +16,14 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 好友分组信息。
  * 
@@ -84,4 +87,66 @@ public class Group {
 
         return group;
     }
+    
+    /**
+     * 从流中解析分组结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 分组结构体，值不是 JSON 对象时返回 null
+     */
+    public static Group parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Group group = new Group();
+        group.id                = "";
+        group.idStr             = "";
+        group.name              = "";
+        group.mode              = "";
+        group.description       = "";
+        group.profile_image_url = "";
+        group.createAtTime      = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("user".equals(name)) {
+                group.user = User.parse(reader);
+            } else if ("id".equals(name)) {
+                group.id = JsonReaders.optString(reader, "");
+            } else if ("idstr".equals(name)) {
+                group.idStr = JsonReaders.optString(reader, "");
+            } else if ("name".equals(name)) {
+                group.name = JsonReaders.optString(reader, "");
+            } else if ("mode".equals(name)) {
+                group.mode = JsonReaders.optString(reader, "");
+            } else if ("visible".equals(name)) {
+                group.visible = JsonReaders.optInt(reader, 0);
+            } else if ("like_count".equals(name)) {
+                group.like_count = JsonReaders.optInt(reader, 0);
+            } else if ("member_count".equals(name)) {
+                group.member_count = JsonReaders.optInt(reader, 0);
+            } else if ("description".equals(name)) {
+                group.description = JsonReaders.optString(reader, "");
+            } else if ("profile_image_url".equals(name)) {
+                group.profile_image_url = JsonReaders.optString(reader, "");
+            } else if ("create_time".equals(name)) {
+                group.createAtTime = JsonReaders.optString(reader, "");
+            } else if ("tags".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (group.tags == null) {
+                            group.tags = new ArrayList<Tag>();
+                        }
+                        group.tags.add(Tag.parse(reader));
+                    }
+                    reader.endArray();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return group;
+    }
 }
@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 好友分组列表。
@@ -40,24 +38,50 @@ public class GroupList {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        GroupList groupList = new GroupList();
+        
         try {
-            JSONObject jsonObject  = new JSONObject(jsonString);
-            groupList.total_number = jsonObject.optInt("total_number");
-
-            JSONArray jsonArray = jsonObject.optJSONArray("lists");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                groupList.groupList = new ArrayList<Group>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    groupList.groupList.add(Group.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析分组列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 分组列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static GroupList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        GroupList groupList = new GroupList();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("total_number".equals(name)) {
+                groupList.total_number = JsonReaders.optInt(reader, 0);
+            } else if ("lists".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (groupList.groupList == null) {
+                            groupList.groupList = new ArrayList<Group>();
+                        }
+                        groupList.groupList.add(Group.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
-
+        reader.endObject();
+        
         return groupList;
     }
 }
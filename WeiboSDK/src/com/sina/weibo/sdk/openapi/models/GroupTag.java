@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 分组标签结构体。
  * 
@@ -38,4 +42,25 @@ public class GroupTag {
         //tag.tag = jsonObject.optString("", "");
         return tag;
     }
+    
+    /**
+     * 从流中解析分组标签结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 分组标签结构体，值不是 JSON 对象时返回 null
+     */
+    public static GroupTag parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        GroupTag tag = new GroupTag();
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.skipValue();
+        }
+        reader.endObject();
+        
+        return tag;
+    }
 }
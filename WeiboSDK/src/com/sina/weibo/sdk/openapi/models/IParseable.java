@@ -16,9 +16,14 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 public interface IParseable {
     Object parse(String parseString);
     Object parse(JSONObject jsonObject);
+    Object parse(JsonReader reader) throws IOException;
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2010-2013 The SINA WEIBO Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sina.weibo.sdk.openapi.models;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+/**
+ * 流式解析各结构体时使用的工具方法。
+ * 
+ * 取值规则与 {@link org.json.JSONObject} 的 optXxx 系列方法一致：字段缺失、为 null
+ * 或类型不符时返回默认值，数字和布尔值允许以字符串形式给出。
+ */
+final class JsonReaders {
+
+    private JsonReaders() {
+    }
+
+    /**
+     * @param jsonString JSON 字符串
+     * @return 宽松模式的 {@link JsonReader}
+     */
+    static JsonReader newReader(String jsonString) {
+        JsonReader reader = new JsonReader(new StringReader(jsonString));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * 如果下一个值是对象，则进入该对象；否则跳过该值。
+     * 
+     * @return 是否已进入对象
+     */
+    static boolean beginObject(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginObject();
+        return true;
+    }
+
+    /**
+     * 如果下一个值是数组，则进入该数组；否则跳过该值。
+     * 
+     * @return 是否已进入数组
+     */
+    static boolean beginArray(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginArray();
+        return true;
+    }
+
+    static String optString(JsonReader reader, String fallback) throws IOException {
+        switch (reader.peek()) {
+        case STRING:
+        case NUMBER:
+            return reader.nextString();
+        case BOOLEAN:
+            return String.valueOf(reader.nextBoolean());
+        default:
+            reader.skipValue();
+            return fallback;
+        }
+    }
+
+    static int optInt(JsonReader reader, int fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return fallback;
+        }
+
+        String value = reader.nextString();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(value);
+            } catch (NumberFormatException ignored) {
+                return fallback;
+            }
+        }
+    }
+
+    static double optDouble(JsonReader reader, double fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return fallback;
+        }
+
+        try {
+            return Double.parseDouble(reader.nextString());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    static boolean optBoolean(JsonReader reader, boolean fallback) throws IOException {
+        switch (reader.peek()) {
+        case BOOLEAN:
+            return reader.nextBoolean();
+        case STRING:
+            String value = reader.nextString();
+            if ("true".equalsIgnoreCase(value)) {
+                return true;
+            } else if ("false".equalsIgnoreCase(value)) {
+                return false;
+            }
+            return fallback;
+        default:
+            reader.skipValue();
+            return fallback;
+        }
+    }
+}
@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 音乐结构体。
  * 
@@ -49,4 +53,39 @@ public class MusicInfo {
         
         return music;
     }
+    
+    /**
+     * 从流中解析音乐信息结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 音乐信息结构体，值不是 JSON 对象时返回 null
+     */
+    public static MusicInfo parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        MusicInfo music = new MusicInfo();
+        music.author  = "";
+        music.title   = "";
+        music.album   = "";
+        music.playUrl = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("author".equals(name)) {
+                music.author = JsonReaders.optString(reader, "");
+            } else if ("title".equals(name)) {
+                music.title = JsonReaders.optString(reader, "");
+            } else if ("album".equals(name)) {
+                music.album = JsonReaders.optString(reader, "");
+            } else if ("playUrl".equals(name)) {
+                music.playUrl = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return music;
+    }
 }
@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 地理位置纠正信息.
@@ -38,25 +36,48 @@ public class OffsetGeo {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        OffsetGeo offsetGeo = new OffsetGeo();
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-
-            JSONArray jsonArray = jsonObject.optJSONArray("geos");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                offsetGeo.Geos = new ArrayList<Coordinate>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    offsetGeo.Geos.add(Coordinate.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析偏移坐标列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 偏移坐标列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static OffsetGeo parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        OffsetGeo offsetGeo = new OffsetGeo();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("geos".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (offsetGeo.Geos == null) {
+                            offsetGeo.Geos = new ArrayList<Coordinate>();
+                        }
+                        offsetGeo.Geos.add(Coordinate.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
-
+        reader.endObject();
+        
         return offsetGeo;
     }
 }
-
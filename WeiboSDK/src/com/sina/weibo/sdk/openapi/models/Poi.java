@@ -16,10 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
-import org.json.JSONException;
+import java.io.IOException;
+
 import org.json.JSONObject;
 
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 位置信息结构体。
@@ -78,16 +80,16 @@ public class Poi {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        Poi poi = null;
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            poi = parse(jsonObject);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
-
-        return poi;
+        
+        return null;
     }
 
     public static Poi parse(JSONObject jsonObject) {
@@ -121,4 +123,93 @@ public class Poi {
         
         return poi;
     }
+    
+    /**
+     * 从流中解析位置结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 位置结构体，值不是 JSON 对象时返回 null
+     */
+    public static Poi parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Poi poi = new Poi();
+        poi.poiid            = "";
+        poi.title            = "";
+        poi.address          = "";
+        poi.lon              = "";
+        poi.lat              = "";
+        poi.category         = "";
+        poi.city             = "";
+        poi.province         = "";
+        poi.country          = "";
+        poi.url              = "";
+        poi.phone            = "";
+        poi.postcode         = "";
+        poi.weibo_id         = "";
+        poi.categorys        = "";
+        poi.category_name    = "";
+        poi.icon             = "";
+        poi.checkin_num      = "";
+        poi.checkin_user_num = "";
+        poi.tip_num          = "";
+        poi.photo_num        = "";
+        poi.todo_num         = "";
+        poi.distance         = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("poiid".equals(name)) {
+                poi.poiid = JsonReaders.optString(reader, "");
+            } else if ("title".equals(name)) {
+                poi.title = JsonReaders.optString(reader, "");
+            } else if ("address".equals(name)) {
+                poi.address = JsonReaders.optString(reader, "");
+            } else if ("lon".equals(name)) {
+                poi.lon = JsonReaders.optString(reader, "");
+            } else if ("lat".equals(name)) {
+                poi.lat = JsonReaders.optString(reader, "");
+            } else if ("category".equals(name)) {
+                poi.category = JsonReaders.optString(reader, "");
+            } else if ("city".equals(name)) {
+                poi.city = JsonReaders.optString(reader, "");
+            } else if ("province".equals(name)) {
+                poi.province = JsonReaders.optString(reader, "");
+            } else if ("country".equals(name)) {
+                poi.country = JsonReaders.optString(reader, "");
+            } else if ("url".equals(name)) {
+                poi.url = JsonReaders.optString(reader, "");
+            } else if ("phone".equals(name)) {
+                poi.phone = JsonReaders.optString(reader, "");
+            } else if ("postcode".equals(name)) {
+                poi.postcode = JsonReaders.optString(reader, "");
+            } else if ("weibo_id".equals(name)) {
+                poi.weibo_id = JsonReaders.optString(reader, "");
+            } else if ("categorys".equals(name)) {
+                poi.categorys = JsonReaders.optString(reader, "");
+            } else if ("category_name".equals(name)) {
+                poi.category_name = JsonReaders.optString(reader, "");
+            } else if ("icon".equals(name)) {
+                poi.icon = JsonReaders.optString(reader, "");
+            } else if ("checkin_num".equals(name)) {
+                poi.checkin_num = JsonReaders.optString(reader, "");
+            } else if ("checkin_user_num".equals(name)) {
+                poi.checkin_user_num = JsonReaders.optString(reader, "");
+            } else if ("tip_num".equals(name)) {
+                poi.tip_num = JsonReaders.optString(reader, "");
+            } else if ("photo_num".equals(name)) {
+                poi.photo_num = JsonReaders.optString(reader, "");
+            } else if ("todo_num".equals(name)) {
+                poi.todo_num = JsonReaders.optString(reader, "");
+            } else if ("distance".equals(name)) {
+                poi.distance = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return poi;
+    }
 }
@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 地理列表结构体。
@@ -38,24 +36,51 @@ public class PoiList {
         if (TextUtils.isEmpty(jsonString)) {
             return null;
         }
-
-        PoiList poiList = new PoiList();
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-
-            poiList.totalNumber = jsonObject.optString("total_number");
-            JSONArray jsonArray = jsonObject.optJSONArray("geos");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                poiList.pois = new ArrayList<Poi>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    poiList.pois.add(Poi.parse(jsonArray.optJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析位置列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 位置列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static PoiList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        PoiList poiList = new PoiList();
+        poiList.totalNumber = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("total_number".equals(name)) {
+                poiList.totalNumber = JsonReaders.optString(reader, "");
+            } else if ("geos".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (poiList.pois == null) {
+                            poiList.pois = new ArrayList<Poi>();
+                        }
+                        poiList.pois.add(Poi.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
+        reader.endObject();
+        
         return poiList;
     }
 }
@@ -16,12 +16,15 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import android.text.TextUtils;
+import android.util.JsonReader;
+
 /**
  * 微博结构体。
  * 
@@ -84,10 +87,15 @@ public class Status {
     //public Ad ad;
     
     public static Status parse(String jsonString) {
+        if (TextUtils.isEmpty(jsonString)) {
+            return null;
+        }
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            return Status.parse(jsonObject);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
         
@@ -143,4 +151,118 @@ public class Status {
         
         return status;
     }
+    
+    /**
+     * 从流中解析微博结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 微博结构体，值不是 JSON 对象时返回 null
+     */
+    public static Status parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Status status = new Status();
+        status.created_at              = "";
+        status.id                      = "";
+        status.mid                     = "";
+        status.idstr                   = "";
+        status.text                    = "";
+        status.source                  = "";
+        status.in_reply_to_status_id   = "";
+        status.in_reply_to_user_id     = "";
+        status.in_reply_to_screen_name = "";
+        status.thumbnail_pic           = "";
+        status.bmiddle_pic             = "";
+        status.original_pic            = "";
+        status.mlevel                  = -1;
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("created_at".equals(name)) {
+                status.created_at = JsonReaders.optString(reader, "");
+            } else if ("id".equals(name)) {
+                status.id = JsonReaders.optString(reader, "");
+            } else if ("mid".equals(name)) {
+                status.mid = JsonReaders.optString(reader, "");
+            } else if ("idstr".equals(name)) {
+                status.idstr = JsonReaders.optString(reader, "");
+            } else if ("text".equals(name)) {
+                status.text = JsonReaders.optString(reader, "");
+            } else if ("source".equals(name)) {
+                status.source = JsonReaders.optString(reader, "");
+            } else if ("favorited".equals(name)) {
+                status.favorited = JsonReaders.optBoolean(reader, false);
+            } else if ("truncated".equals(name)) {
+                status.truncated = JsonReaders.optBoolean(reader, false);
+            } else if ("in_reply_to_status_id".equals(name)) {
+                status.in_reply_to_status_id = JsonReaders.optString(reader, "");
+            } else if ("in_reply_to_user_id".equals(name)) {
+                status.in_reply_to_user_id = JsonReaders.optString(reader, "");
+            } else if ("in_reply_to_screen_name".equals(name)) {
+                status.in_reply_to_screen_name = JsonReaders.optString(reader, "");
+            } else if ("thumbnail_pic".equals(name)) {
+                status.thumbnail_pic = JsonReaders.optString(reader, "");
+            } else if ("bmiddle_pic".equals(name)) {
+                status.bmiddle_pic = JsonReaders.optString(reader, "");
+            } else if ("original_pic".equals(name)) {
+                status.original_pic = JsonReaders.optString(reader, "");
+            } else if ("geo".equals(name)) {
+                status.geo = Geo.parse(reader);
+            } else if ("user".equals(name)) {
+                status.user = User.parse(reader);
+            } else if ("retweeted_status".equals(name)) {
+                status.retweeted_status = Status.parse(reader);
+            } else if ("reposts_count".equals(name)) {
+                status.reposts_count = JsonReaders.optInt(reader, 0);
+            } else if ("comments_count".equals(name)) {
+                status.comments_count = JsonReaders.optInt(reader, 0);
+            } else if ("attitudes_count".equals(name)) {
+                status.attitudes_count = JsonReaders.optInt(reader, 0);
+            } else if ("mlevel".equals(name)) {
+                status.mlevel = JsonReaders.optInt(reader, -1);
+            } else if ("visible".equals(name)) {
+                status.visible = Visible.parse(reader);
+            } else if ("pic_urls".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (status.pic_urls == null) {
+                            status.pic_urls = new ArrayList<String>();
+                        }
+                        String thumbnail = parsePicUrl(reader);
+                        if (thumbnail != null) {
+                            status.pic_urls.add(thumbnail);
+                        }
+                    }
+                    reader.endArray();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return status;
+    }
+    
+    /**
+     * 解析 pic_urls 中的一项，如：{"thumbnail_pic": "http://..."}。
+     */
+    private static String parsePicUrl(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        String thumbnail = "";
+        while (reader.hasNext()) {
+            if ("thumbnail_pic".equals(reader.nextName())) {
+                thumbnail = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return thumbnail;
+    }
 }
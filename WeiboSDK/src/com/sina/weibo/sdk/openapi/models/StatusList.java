@@ -16,13 +16,11 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import android.text.TextUtils;
+import android.util.JsonReader;
 
 /**
  * 微博列表结构。
@@ -47,25 +45,56 @@ public class StatusList {
             return null;
         }
         
-        StatusList statuses = new StatusList();
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            statuses.hasvisible      = jsonObject.optBoolean("hasvisible", false);
-            statuses.previous_cursor = jsonObject.optString("previous_cursor", "0");
-            statuses.next_cursor     = jsonObject.optString("next_cursor", "0");
-            statuses.total_number    = jsonObject.optInt("total_number", 0);
-            
-            JSONArray jsonArray      = jsonObject.optJSONArray("statuses");
-            if (jsonArray != null && jsonArray.length() > 0) {
-                int length = jsonArray.length();
-                statuses.statusList = new ArrayList<Status>(length);
-                for (int ix = 0; ix < length; ix++) {
-                    statuses.statusList.add(Status.parse(jsonArray.getJSONObject(ix)));
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 从流中解析微博列表结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 微博列表结构体，值不是 JSON 对象时返回 null
+     */
+    public static StatusList parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        StatusList statuses = new StatusList();
+        statuses.previous_cursor = "0";
+        statuses.next_cursor     = "0";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("hasvisible".equals(name)) {
+                statuses.hasvisible = JsonReaders.optBoolean(reader, false);
+            } else if ("previous_cursor".equals(name)) {
+                statuses.previous_cursor = JsonReaders.optString(reader, "0");
+            } else if ("next_cursor".equals(name)) {
+                statuses.next_cursor = JsonReaders.optString(reader, "0");
+            } else if ("total_number".equals(name)) {
+                statuses.total_number = JsonReaders.optInt(reader, 0);
+            } else if ("statuses".equals(name)) {
+                if (JsonReaders.beginArray(reader)) {
+                    while (reader.hasNext()) {
+                        if (statuses.statusList == null) {
+                            statuses.statusList = new ArrayList<Status>();
+                        }
+                        statuses.statusList.add(Status.parse(reader));
+                    }
+                    reader.endArray();
                 }
+            } else {
+                reader.skipValue();
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
         }
+        reader.endObject();
         
         return statuses;
     }
@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 我喜欢的微博标签（Tag）结构体。
  * 
@@ -42,4 +46,32 @@ public class Tag {
         
         return tag;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 从流中解析标签结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 标签结构体，值不是 JSON 对象时返回 null
+     */
+    public static Tag parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Tag tag = new Tag();
+        tag.tag = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                tag.id = JsonReaders.optInt(reader, 0);
+            } else if ("tag".equals(name)) {
+                tag.tag = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return tag;
+    }
+}
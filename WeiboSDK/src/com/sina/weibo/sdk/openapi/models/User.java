@@ -16,9 +16,13 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
-import org.json.JSONException;
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.text.TextUtils;
+import android.util.JsonReader;
+
 /**
  * 用户信息结构体。
  * 
@@ -103,10 +107,15 @@ public class User {
     public String block_word;
     
     public static User parse(String jsonString) {
+        if (TextUtils.isEmpty(jsonString)) {
+            return null;
+        }
+        
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            return User.parse(jsonObject);
-        } catch (JSONException e) {
+            return parse(JsonReaders.newReader(jsonString));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalStateException e) {
             e.printStackTrace();
         }
         
@@ -162,4 +171,127 @@ public class User {
         
         return user;
     }
+    
+    /**
+     * 从流中解析用户信息结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 用户信息结构体，值不是 JSON 对象时返回 null
+     */
+    public static User parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        User user = new User();
+        user.id                = "";
+        user.idstr             = "";
+        user.screen_name       = "";
+        user.name              = "";
+        user.province          = -1;
+        user.city              = -1;
+        user.location          = "";
+        user.description       = "";
+        user.url               = "";
+        user.profile_image_url = "";
+        user.profile_url       = "";
+        user.domain            = "";
+        user.weihao            = "";
+        user.gender            = "";
+        user.created_at        = "";
+        user.verified_type     = -1;
+        user.remark            = "";
+        user.allow_all_comment = true;
+        user.avatar_large      = "";
+        user.avatar_hd         = "";
+        user.verified_reason   = "";
+        user.lang              = "";
+        user.star              = "";
+        user.mbtype            = "";
+        user.mbrank            = "";
+        user.block_word        = "";
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                user.id = JsonReaders.optString(reader, "");
+            } else if ("idstr".equals(name)) {
+                user.idstr = JsonReaders.optString(reader, "");
+            } else if ("screen_name".equals(name)) {
+                user.screen_name = JsonReaders.optString(reader, "");
+            } else if ("name".equals(name)) {
+                user.name = JsonReaders.optString(reader, "");
+            } else if ("province".equals(name)) {
+                user.province = JsonReaders.optInt(reader, -1);
+            } else if ("city".equals(name)) {
+                user.city = JsonReaders.optInt(reader, -1);
+            } else if ("location".equals(name)) {
+                user.location = JsonReaders.optString(reader, "");
+            } else if ("description".equals(name)) {
+                user.description = JsonReaders.optString(reader, "");
+            } else if ("url".equals(name)) {
+                user.url = JsonReaders.optString(reader, "");
+            } else if ("profile_image_url".equals(name)) {
+                user.profile_image_url = JsonReaders.optString(reader, "");
+            } else if ("profile_url".equals(name)) {
+                user.profile_url = JsonReaders.optString(reader, "");
+            } else if ("domain".equals(name)) {
+                user.domain = JsonReaders.optString(reader, "");
+            } else if ("weihao".equals(name)) {
+                user.weihao = JsonReaders.optString(reader, "");
+            } else if ("gender".equals(name)) {
+                user.gender = JsonReaders.optString(reader, "");
+            } else if ("followers_count".equals(name)) {
+                user.followers_count = JsonReaders.optInt(reader, 0);
+            } else if ("friends_count".equals(name)) {
+                user.friends_count = JsonReaders.optInt(reader, 0);
+            } else if ("statuses_count".equals(name)) {
+                user.statuses_count = JsonReaders.optInt(reader, 0);
+            } else if ("favourites_count".equals(name)) {
+                user.favourites_count = JsonReaders.optInt(reader, 0);
+            } else if ("created_at".equals(name)) {
+                user.created_at = JsonReaders.optString(reader, "");
+            } else if ("following".equals(name)) {
+                user.following = JsonReaders.optBoolean(reader, false);
+            } else if ("allow_all_act_msg".equals(name)) {
+                user.allow_all_act_msg = JsonReaders.optBoolean(reader, false);
+            } else if ("geo_enabled".equals(name)) {
+                user.geo_enabled = JsonReaders.optBoolean(reader, false);
+            } else if ("verified".equals(name)) {
+                user.verified = JsonReaders.optBoolean(reader, false);
+            } else if ("verified_type".equals(name)) {
+                user.verified_type = JsonReaders.optInt(reader, -1);
+            } else if ("remark".equals(name)) {
+                user.remark = JsonReaders.optString(reader, "");
+            } else if ("allow_all_comment".equals(name)) {
+                user.allow_all_comment = JsonReaders.optBoolean(reader, true);
+            } else if ("avatar_large".equals(name)) {
+                user.avatar_large = JsonReaders.optString(reader, "");
+            } else if ("avatar_hd".equals(name)) {
+                user.avatar_hd = JsonReaders.optString(reader, "");
+            } else if ("verified_reason".equals(name)) {
+                user.verified_reason = JsonReaders.optString(reader, "");
+            } else if ("follow_me".equals(name)) {
+                user.follow_me = JsonReaders.optBoolean(reader, false);
+            } else if ("online_status".equals(name)) {
+                user.online_status = JsonReaders.optInt(reader, 0);
+            } else if ("bi_followers_count".equals(name)) {
+                user.bi_followers_count = JsonReaders.optInt(reader, 0);
+            } else if ("lang".equals(name)) {
+                user.lang = JsonReaders.optString(reader, "");
+            } else if ("star".equals(name)) {
+                user.star = JsonReaders.optString(reader, "");
+            } else if ("mbtype".equals(name)) {
+                user.mbtype = JsonReaders.optString(reader, "");
+            } else if ("mbrank".equals(name)) {
+                user.mbrank = JsonReaders.optString(reader, "");
+            } else if ("block_word".equals(name)) {
+                user.block_word = JsonReaders.optString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return user;
+    }
 }
@@ -16,8 +16,12 @@
 
 package com.sina.weibo.sdk.openapi.models;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 
+import android.util.JsonReader;
+
 /**
  * 微博可见性结构体。
  * 
@@ -47,4 +51,31 @@ public class Visible {
         
         return visible;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 从流中解析微博可见性结构体，无需先构建 JSONObject。
+     * 
+     * @param reader 位于该结构体之前的 {@link JsonReader}
+     * @return 微博可见性结构体，值不是 JSON 对象时返回 null
+     */
+    public static Visible parse(JsonReader reader) throws IOException {
+        if (!JsonReaders.beginObject(reader)) {
+            return null;
+        }
+        
+        Visible visible = new Visible();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("type".equals(name)) {
+                visible.type = JsonReaders.optInt(reader, 0);
+            } else if ("list_id".equals(name)) {
+                visible.list_id = JsonReaders.optInt(reader, 0);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return visible;
+    }
+}
@@ -24,7 +24,7 @@ public interface Consts {
 
     String ACTION_SHOW_IMAGE_VIWVER = "org.lytsing.android.weibo.action.showimagevieweractivity";
 
-    String STATUSES_KEY = "statuses";
+    String STATUS_ID_KEY = "status_id";
 
     String MIDDLE_IMAGE_URL_KEY = "middle_image_url";
 
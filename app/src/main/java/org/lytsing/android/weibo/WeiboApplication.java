@@ -20,21 +20,35 @@ import android.app.Application;
 import android.app.ActivityManager;
 import android.content.Context;
 import android.text.TextUtils;
+import android.widget.Toast;
 
 import com.android.volley.Request;
 import com.android.volley.RequestQueue;
 import com.android.volley.VolleyLog;
+import com.android.volley.toolbox.ClearCacheRequest;
+import com.android.volley.toolbox.DiskBasedCache;
 import com.android.volley.toolbox.ImageLoader;
-import com.android.volley.toolbox.Volley;
 import com.androidquery.callback.AjaxCallback;
 import com.androidquery.callback.BitmapAjaxCallback;
 import com.orhanobut.logger.AndroidLogAdapter;
 import com.orhanobut.logger.Logger;
 import com.sina.weibo.sdk.auth.Oauth2AccessToken;
+import com.sina.weibo.sdk.openapi.AsyncRequestExecutor;
 
+import org.lytsing.android.weibo.core.GsonFactory;
+import org.lytsing.android.weibo.core.Outbox;
+import org.lytsing.android.weibo.core.OutboxEntry;
 import org.lytsing.android.weibo.core.Session;
+import org.lytsing.android.weibo.core.UserCache;
+import org.lytsing.android.weibo.toolbox.BandwidthEstimator;
 import org.lytsing.android.weibo.toolbox.BitmapLruCache;
+import org.lytsing.android.weibo.toolbox.NetworkTelemetry;
 import org.lytsing.android.weibo.toolbox.OkHttpStack;
+import org.lytsing.android.weibo.toolbox.PriorityImageLoader;
+import org.lytsing.android.weibo.toolbox.ResilientNetwork;
+import org.lytsing.android.weibo.toolbox.RequestCoalescer;
+
+import java.io.File;
 
 /**
  * WeiboApplication.
@@ -47,10 +61,19 @@ public class WeiboApplication extends Application {
      */
     public static final String TAG = "Weibo";
 
+    /**
+     * Directory name and size of the on-disk response and image cache.
+     */
+    private static final String DISK_CACHE_DIR = "volley";
+
+    private static final int DISK_CACHE_SIZE = 10 * 1024 * 1024;
+
     private static WeiboApplication sWeiboApplication;
 
     private Oauth2AccessToken mOauth2AccessToken;
 
+    private Outbox mOutbox;
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -60,11 +83,38 @@ public class WeiboApplication extends Application {
 
         mOauth2AccessToken = Session.restore(sWeiboApplication);
 
+        AsyncRequestExecutor.getDefault().setRequestObserver(NetworkTelemetry.getInstance());
+        BandwidthEstimator.getInstance().attach(this);
+        UserCache.getInstance().attach(this);
+
+        // Sends whatever was left queued by the last run.
+        mOutbox = new Outbox(this);
+        mOutbox.addListener(new Outbox.Listener() {
+            @Override
+            public void onSent(OutboxEntry entry) {
+            }
+
+            @Override
+            public void onConflict(OutboxEntry entry, String reason) {
+                Toast.makeText(WeiboApplication.this,
+                        getString(R.string.outbox_conflict, reason), Toast.LENGTH_LONG).show();
+            }
+        });
+        mOutbox.flush();
+
+        // Resolve the timeline adapters before the first page arrives.
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                GsonFactory.warmUp();
+            }
+        }, "gson-warmup").start();
+
         int memClass = ((ActivityManager) sWeiboApplication.getSystemService(
                 Context.ACTIVITY_SERVICE)).getMemoryClass();
         // Use 1/8th of the available memory for this memory cache.
         int cacheSize = 1024 * 1024 * memClass / 8;
-        mImageLoader = new ImageLoader(getRequestQueue(), new BitmapLruCache(cacheSize));
+        mImageLoader = new PriorityImageLoader(getRequestQueue(), new BitmapLruCache(cacheSize));
 
         // set the max number of concurrent network connections, default is 4
         AjaxCallback.setNetworkLimit(8);
@@ -111,11 +161,20 @@ public class WeiboApplication extends Application {
         this.mOauth2AccessToken = token;
     }
 
+    /**
+     * @return the queue every post, comment, repost and favorite goes through
+     */
+    public Outbox getOutbox() {
+        return mOutbox;
+    }
+
     /**
      * Global request queue for Volley.
      */
     private RequestQueue mRequestQueue;
 
+    private final RequestCoalescer mRequestCoalescer = new RequestCoalescer();
+
     /**
      * @return The Volley Request queue, the queue will be created if it is null
      */
@@ -123,12 +182,24 @@ public class WeiboApplication extends Application {
         // lazy initialize the request queue, the queue instance will be
         // created when it is accessed for the first time
         if (mRequestQueue == null) {
-            mRequestQueue = Volley.newRequestQueue(getApplicationContext(), new OkHttpStack());
+            File cacheDir = new File(getCacheDir(), DISK_CACHE_DIR);
+            mRequestQueue = new RequestQueue(new DiskBasedCache(cacheDir, DISK_CACHE_SIZE),
+                    new ResilientNetwork(new OkHttpStack()));
+            mRequestQueue.start();
         }
 
         return mRequestQueue;
     }
 
+    /**
+     * Drops every cached response, e.g. when another account logs in. Requests queued
+     * after this one are served from the cache only once it is cleared.
+     */
+    public void clearResponseCache() {
+        RequestQueue queue = getRequestQueue();
+        queue.add(new ClearCacheRequest(queue.getCache(), null));
+    }
+
     private ImageLoader mImageLoader;
 
     public ImageLoader getImageLoader() {
@@ -148,7 +219,20 @@ public class WeiboApplication extends Application {
 
         VolleyLog.d("Adding request to queue: %s", req.getUrl());
 
-        getRequestQueue().add(req);
+        enqueue(req);
+    }
+
+    /**
+     * Adds the specified request to the global queue, tagged with the object which owns it,
+     * usually an Activity, so that {@link #cancelPendingRequests(Object)} can drop it.
+     *
+     * @param req request
+     * @param tag owner of the request
+     */
+    public <T> void addToRequestQueue(Request<T> req, Object tag) {
+        req.setTag(tag == null ? TAG : tag);
+
+        enqueue(req);
     }
 
     /**
@@ -160,6 +244,20 @@ public class WeiboApplication extends Application {
         // set the default tag if tag is empty
         req.setTag(TAG);
 
+        enqueue(req);
+    }
+
+    /**
+     * Queues the request unless an identical GET is already in flight, in which
+     * case the request shares its response.
+     */
+    private <T> void enqueue(Request<T> req) {
+        if (mRequestCoalescer.coalesce(req)) {
+            VolleyLog.d("Coalesced with in-flight request: %s", req.getUrl());
+            return;
+        }
+
+        NetworkTelemetry.getInstance().onQueued(req);
         getRequestQueue().add(req);
     }
 
@@ -170,6 +268,8 @@ public class WeiboApplication extends Application {
      * @param tag tag of request
      */
     public void cancelPendingRequests(Object tag) {
+        mRequestCoalescer.cancelAll(tag);
+
         if (mRequestQueue != null) {
             mRequestQueue.cancelAll(tag);
         }
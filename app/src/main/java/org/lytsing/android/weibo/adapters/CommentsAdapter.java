@@ -114,6 +114,10 @@ public class CommentsAdapter extends BaseAdapter {
         mComments.add(comment);
     }
 
+    public void removeComment(Comment comment) {
+        mComments.remove(comment);
+    }
+
     public void refresh() {
         if (!hasComments()) {
             mNoComments.setText(R.string.nocomments);
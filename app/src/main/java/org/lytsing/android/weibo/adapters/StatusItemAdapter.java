@@ -18,14 +18,18 @@ package org.lytsing.android.weibo.adapters;
 
 import com.android.volley.toolbox.ImageLoader;
 import com.android.volley.toolbox.NetworkImageView;
-import com.androidquery.AQuery;
-import com.orhanobut.logger.Logger;
-import com.sina.weibo.sdk.exception.WeiboException;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 
 import org.lytsing.android.weibo.Consts;
 import org.lytsing.android.weibo.R;
+import org.lytsing.android.weibo.core.Timeline;
 import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
 import org.lytsing.android.weibo.toolbox.FadeInImageListener;
+import org.lytsing.android.weibo.toolbox.FetchProfile;
+import org.lytsing.android.weibo.toolbox.ImageTier;
 import org.lytsing.android.weibo.util.DateTimeUtils;
 import org.lytsing.android.weibo.util.Utils;
 
@@ -38,43 +42,118 @@ import android.widget.BaseAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Statuses item adapter.
+ * <p>
+ * Rows are recycled by view type, so a row is only inflated while the list fills up,
+ * and its views are looked up once.
  */
 public class StatusItemAdapter extends BaseAdapter {
 
+    private static final int TYPE_TEXT = 0;
+
+    private static final int TYPE_PICTURE = 1;
+
+    private static final int TYPE_RETWEET = 2;
+
+    private static final int TYPE_RETWEET_PICTURE = 3;
+
+    private static final int TYPE_GAP = 4;
+
+    private static final int VIEW_TYPE_COUNT = 5;
+
+    /** Rows above and below a row whose texts are measured again after a reset. */
+    private static final int PRECOMPUTE_AROUND = 20;
+
     private Context mContext;
 
-    private List<Statuses> mStatuses;
+    private final Timeline mTimeline = new Timeline();
+
+    /** Bumped to bind every row again, e.g. after authors were filled in. */
+    private int mGeneration;
 
     private final ImageLoader mImageLoader;
 
+    private final StatusTextCache mTextCache = new StatusTextCache();
+
+    /** The gap being filled, its row shows progress. */
+    private Timeline.Gap mLoadingGap;
+
     public StatusItemAdapter(Context context, ImageLoader imageLoader) {
         mContext = context;
-        mStatuses = new ArrayList<Statuses>();
         mImageLoader = imageLoader;
     }
 
+    /**
+     * The statuses, plus a row below the top of each {@link Timeline.Gap}.
+     */
     @Override
     public int getCount() {
-        return mStatuses.size();
+        return mTimeline.size() + mTimeline.getGaps().size();
     }
 
+    /**
+     * @return the {@link Statuses} or the {@link Timeline.Gap} of a row
+     */
     @Override
     public Object getItem(int position) {
-        return mStatuses.get(position);
+        List<Timeline.Gap> gaps = mTimeline.getGaps();
+        for (int i = 0; i < gaps.size(); i++) {
+            Timeline.Gap gap = gaps.get(i);
+            int gapPosition = mTimeline.positionAbove(gap) + 1 + i;
+            if (position == gapPosition) {
+                return gap;
+            } else if (position < gapPosition) {
+                return mTimeline.get(position - i);
+            }
+        }
+        return mTimeline.get(position - gaps.size());
     }
 
     @Override
     public long getItemId(int position) {
-        return position;
+        Object item = getItem(position);
+        if (item instanceof Timeline.Gap) {
+            // Status ids are positive.
+            return -((Timeline.Gap) item).newerId;
+        }
+        return ((Statuses) item).id;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return VIEW_TYPE_COUNT;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Object item = getItem(position);
+        if (item instanceof Timeline.Gap) {
+            return TYPE_GAP;
+        }
+
+        Statuses statuses = (Statuses) item;
+        if (statuses.retweeted_status == null) {
+            return statuses.thumbnail_pic == null ? TYPE_TEXT : TYPE_PICTURE;
+        }
+        return statuses.retweeted_status.thumbnail_pic == null
+                ? TYPE_RETWEET : TYPE_RETWEET_PICTURE;
     }
 
     static class ViewHolder {
+        int viewType;
+        /** The status bound last, null once the row was scrapped. */
+        Statuses status;
+        int revision;
+        int generation;
         ImageView userImage;
         TextView userName;
         ImageView gps;
@@ -91,168 +170,348 @@ public class StatusItemAdapter extends BaseAdapter {
         TextView tweetAttitude;
         TextView retweetedText;
         View subLayout;
-        ImageView tweetUploadPic2;
+        NetworkImageView tweetUploadPic2;
+        ImageLoader.ImageContainer userImageRequest;
+    }
+
+    static class GapHolder {
+        View progress;
+        TextView text;
     }
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
+        Object item = getItem(position);
+        if (item instanceof Timeline.Gap) {
+            if (convertView == null) {
+                convertView = newGapView(parent);
+            }
+            bindGap((GapHolder) convertView.getTag(), (Timeline.Gap) item);
+            return convertView;
+        }
 
-        Statuses statuses = null;
-        ViewHolder holder;
-
-        if (position < mStatuses.size()) {
-            statuses = mStatuses.get(position);
+        // The list only hands back rows of the same view type.
+        if (convertView == null) {
+            convertView = newView(getItemViewType(position), parent);
         }
 
-        //if (convertView == null) {
-        convertView = Utils.inflateView(R.layout.list_item_status, mContext);
-        holder = new ViewHolder();
-        holder.userImage = (ImageView) convertView.findViewById(R.id.ivItemPortrait);
-        holder.userName = (TextView) convertView.findViewById(R.id.tvItemName);
-        holder.gps = (ImageView) convertView.findViewById(R.id.ivItemGps);
-        holder.pic = (ImageView) convertView.findViewById(R.id.ivItemPic);
-        holder.time = (TextView) convertView.findViewById(R.id.tvItemDate);
-        holder.content = (TextView) convertView.findViewById(R.id.tvItemContent);
-        holder.thumbnailPic = (NetworkImageView) convertView.findViewById(R.id.tweet_upload_pic1);
-        holder.tweetForm = (TextView) convertView.findViewById(R.id.tweet_form);
-        holder.tweetRedirectPic = (ImageView) convertView.findViewById(R.id.tweet_redirect_pic);
-        holder.tweetRedirect = (TextView) convertView.findViewById(R.id.tweet_redirect);
-        holder.tweetCommentPic = (ImageView) convertView.findViewById(R.id.tweet_comment_pic);
-        holder.tweetComment = (TextView) convertView.findViewById(R.id.tweet_comment);
-        holder.tweetAttitudePic = (ImageView) convertView.findViewById(R.id.tweet_attitude_pic);
-        holder.tweetAttitude = (TextView) convertView.findViewById(R.id.tweet_attitude);
-        holder.subLayout = convertView.findViewById(R.id.subLayout);
-        holder.retweetedText = (TextView) convertView.findViewById(R.id.tvItemSubContent);
-        holder.tweetUploadPic2 = (ImageView) convertView.findViewById(R.id.tweet_upload_pic2);
-
-            /*
-            convertView.setTag(holder);
+        ViewHolder holder = (ViewHolder) convertView.getTag();
+        Statuses statuses = (Statuses) item;
+        int revision = mTimeline.revision(statuses.id);
+        if (holder.status == statuses && holder.revision == revision
+                && holder.generation == mGeneration) {
+            // Unchanged since it was bound, only the relative time moves on.
+            bindTime(holder, statuses);
         } else {
-            holder = (ViewHolder) convertView.getTag();
+            bindView(holder, statuses);
+            holder.revision = revision;
+            holder.generation = mGeneration;
         }
+        return convertView;
+    }
 
-        */
-        AQuery aq = new AQuery(convertView);
+    /**
+     * Inflates a row and sets up what is the same for every status of its view type:
+     * which parts are shown, and the click listeners, which read the status bound last.
+     */
+    private View newView(int viewType, ViewGroup parent) {
+        View view = Utils.inflateView(R.layout.list_item_status, mContext, parent);
+
+        final ViewHolder holder = new ViewHolder();
+        holder.viewType = viewType;
+        holder.userImage = (ImageView) view.findViewById(R.id.ivItemPortrait);
+        holder.userName = (TextView) view.findViewById(R.id.tvItemName);
+        holder.gps = (ImageView) view.findViewById(R.id.ivItemGps);
+        holder.pic = (ImageView) view.findViewById(R.id.ivItemPic);
+        holder.time = (TextView) view.findViewById(R.id.tvItemDate);
+        holder.content = (TextView) view.findViewById(R.id.tvItemContent);
+        holder.thumbnailPic = (NetworkImageView) view.findViewById(R.id.tweet_upload_pic1);
+        holder.tweetForm = (TextView) view.findViewById(R.id.tweet_form);
+        holder.tweetRedirectPic = (ImageView) view.findViewById(R.id.tweet_redirect_pic);
+        holder.tweetRedirect = (TextView) view.findViewById(R.id.tweet_redirect);
+        holder.tweetCommentPic = (ImageView) view.findViewById(R.id.tweet_comment_pic);
+        holder.tweetComment = (TextView) view.findViewById(R.id.tweet_comment);
+        holder.tweetAttitudePic = (ImageView) view.findViewById(R.id.tweet_attitude_pic);
+        holder.tweetAttitude = (TextView) view.findViewById(R.id.tweet_attitude);
+        holder.subLayout = view.findViewById(R.id.subLayout);
+        holder.retweetedText = (TextView) view.findViewById(R.id.tvItemSubContent);
+        holder.tweetUploadPic2 = (NetworkImageView) view.findViewById(R.id.tweet_upload_pic2);
+
+        // Weibo never sends pictures with a repost, only with its original.
+        if (viewType == TYPE_PICTURE) {
+            holder.pic.setVisibility(View.VISIBLE);
+            holder.thumbnailPic.setVisibility(View.VISIBLE);
+            // On a poor link only a placeholder is shown, the viewer loads on tap.
+            holder.thumbnailPic.setDefaultImageResId(R.drawable.chat_pic_loading);
+            holder.thumbnailPic.setOnClickListener(new View.OnClickListener() {
 
-        //Enable hardware acceleration if the device has API 11 or above
-        aq.hardwareAccelerated11();
+                @Override
+                public void onClick(View v) {
+                    showImage(holder.status);
+                }
+            });
+        } else if (viewType == TYPE_RETWEET || viewType == TYPE_RETWEET_PICTURE) {
+            holder.subLayout.setVisibility(View.VISIBLE);
+        }
 
-        mImageLoader.get(statuses.user.profile_image_url, new FadeInImageListener(holder.userImage,
-                mContext));
+        if (viewType == TYPE_RETWEET_PICTURE) {
+            // The row has a picture too, if only in the original.
+            holder.pic.setVisibility(View.VISIBLE);
+            holder.tweetUploadPic2.setVisibility(View.VISIBLE);
+            holder.tweetUploadPic2.setDefaultImageResId(R.drawable.chat_pic_loading);
+            holder.tweetUploadPic2.setOnClickListener(new View.OnClickListener() {
 
-        holder.userName.setText(statuses.user.name);
+                @Override
+                public void onClick(View v) {
+                    showImage(holder.status.retweeted_status);
+                }
+            });
+        }
 
-        if (statuses.geo != null) {
-            holder.gps.setVisibility(View.VISIBLE);
-            Logger.d(statuses.geo.toString());
+        if (!mTextCache.hasParams()) {
+            mTextCache.setParams(holder.content, holder.retweetedText);
+            mTextCache.precompute(mTimeline.toList());
         }
 
-        String time = "";
+        view.setTag(holder);
+        return view;
+    }
 
-        try {
-            Date date = Utils.parseDate(statuses.created_at);
-            if (date != null) {
-                time = DateTimeUtils.getInstance(mContext).getTimeDiffString(
-                        date.getTime());
-            }
-        } catch (WeiboException e) {
-            Logger.e("WeiboException:" + e.getMessage());
+    private void bindView(ViewHolder holder, Statuses statuses) {
+        holder.status = statuses;
+
+        // Under trim_user the author may still be a stub waiting for UserCache.
+        User user = statuses.user;
+        if (holder.userImageRequest != null) {
+            holder.userImageRequest.cancelRequest();
+            holder.userImageRequest = null;
+        }
+        if (user != null && user.profile_image_url != null) {
+            holder.userImageRequest = mImageLoader.get(user.profile_image_url,
+                    new FadeInImageListener(holder.userImage, mContext));
+        } else {
+            holder.userImage.setImageResource(R.drawable.portrait_image_empty);
         }
 
-        holder.time.setText(time);
+        holder.userName.setText(user != null && user.name != null ? user.name : "");
+
+        holder.gps.setVisibility(statuses.hasGeo() ? View.VISIBLE : View.GONE);
 
-        holder.content.setText(statuses.text, TextView.BufferType.SPANNABLE);
-        Utils.textHighlight(holder.content, "#", "#");
-        //Util.textHighlight(holder.content, "@",":");
-        Utils.textHighlight(holder.content, "http://", " ");
+        bindTime(holder, statuses);
+
+        // Built in the background when the page arrived, unless it was too quick.
+        StatusTextCache.Entry text = mTextCache.get(statuses.id);
+        if (text == null || !setPrecomputedText(holder, holder.content, text.content)) {
+            text = null;
+            holder.content.setText(StatusTextCache.style(statuses),
+                    TextView.BufferType.SPANNABLE);
+        }
 
         holder.tweetForm.setText(Html.fromHtml(String.format(
                 mContext.getResources().getString(R.string.from), statuses.source)));
 
-        if (statuses.reposts_count > 0) {
-            aq.id(R.id.tweet_redirect_pic).visible();
-            holder.tweetRedirectPic.setVisibility(View.VISIBLE);
-            holder.tweetRedirect.setText(String.valueOf(statuses.reposts_count));
-            holder.tweetRedirect.setVisibility(View.VISIBLE);
+        bindCount(holder.tweetRedirectPic, holder.tweetRedirect, statuses.reposts_count);
+        bindCount(holder.tweetCommentPic, holder.tweetComment, statuses.comments_count);
+        bindCount(holder.tweetAttitudePic, holder.tweetAttitude, statuses.attitudes_count);
+
+        ImageTier listImageTier = FetchProfile.current().getListImageTier();
+        if (holder.viewType == TYPE_PICTURE) {
+            holder.thumbnailPic.setImageUrl(
+                    listImageTier.pick(statuses.thumbnail_pic, null, null), mImageLoader);
         }
 
-        if (statuses.comments_count > 0) {
-            holder.tweetCommentPic.setVisibility(View.VISIBLE);
-            holder.tweetComment.setText(String.valueOf(statuses.comments_count));
-            holder.tweetComment.setVisibility(View.VISIBLE);
+        Statuses retweeted = statuses.retweeted_status;
+        if (retweeted != null) {
+            String retweetedText = StatusTextCache.retweetedText(retweeted);
+            if (text == null || !retweetedText.equals(text.retweetedText)
+                    || !setPrecomputedText(holder, holder.retweetedText, text.retweeted)) {
+                holder.retweetedText.setText(
+                        StatusTextCache.styleRetweeted(retweeted, retweetedText),
+                        TextView.BufferType.SPANNABLE);
+            }
+
+            if (holder.viewType == TYPE_RETWEET_PICTURE) {
+                holder.tweetUploadPic2.setImageUrl(
+                        listImageTier.pick(retweeted.thumbnail_pic, null, null), mImageLoader);
+            }
         }
+    }
 
-        if (statuses.attitudes_count > 0) {
-            holder.tweetAttitudePic.setVisibility(View.VISIBLE);
-            holder.tweetAttitude.setText(String.valueOf(statuses.attitudes_count));
-            holder.tweetAttitude.setVisibility(View.VISIBLE);
+    /**
+     * Attaches a text measured in the background. Fails if the metrics of the view are
+     * no longer the ones it was measured with, e.g. once the first rows were attached and
+     * resolved their text direction. The texts around this row are then measured again
+     * with its metrics, the others when they are bound.
+     *
+     * @return false if the text has to be set as usual
+     */
+    private boolean setPrecomputedText(ViewHolder holder, TextView view,
+            PrecomputedTextCompat text) {
+        try {
+            TextViewCompat.setPrecomputedText(view, text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            mTextCache.reset(holder.content, holder.retweetedText);
+            mTextCache.precompute(around(holder.status));
+            return false;
         }
+    }
 
-        if (statuses.thumbnail_pic != null) {
-            holder.pic.setVisibility(View.VISIBLE);
+    /**
+     * @return the statuses within {@link #PRECOMPUTE_AROUND} rows of {@code status}, which
+     *         cover the screen it is on
+     */
+    private List<Statuses> around(Statuses status) {
+        List<Statuses> statuses = mTimeline.toList();
+        int position = statuses.indexOf(status);
+        if (position < 0) {
+            return Collections.emptyList();
+        }
+        return statuses.subList(Math.max(0, position - PRECOMPUTE_AROUND),
+                Math.min(statuses.size(), position + PRECOMPUTE_AROUND + 1));
+    }
 
-            final String middleImageUrl = statuses.bmiddle_pic;
-            final String originalPicUrl = statuses.original_pic;
+    private View newGapView(ViewGroup parent) {
+        View view = Utils.inflateView(R.layout.list_item_gap, mContext, parent);
 
-            holder.thumbnailPic.setImageUrl(statuses.thumbnail_pic, mImageLoader);
-            aq.id(holder.thumbnailPic).visible();
-            aq.id(holder.thumbnailPic).clicked(new View.OnClickListener() {
+        GapHolder holder = new GapHolder();
+        holder.progress = view.findViewById(R.id.gap_progress);
+        holder.text = (TextView) view.findViewById(R.id.gap_text);
+        view.setTag(holder);
+        return view;
+    }
 
-                @Override
-                public void onClick(View v) {
-                    Intent intent = new Intent(Consts.ACTION_SHOW_IMAGE_VIWVER);
-                    intent.putExtra(Consts.MIDDLE_IMAGE_URL_KEY, middleImageUrl);
-                    intent.putExtra(Consts.ORIGINAL_PIC_URL_KEY, originalPicUrl);
+    private void bindGap(GapHolder holder, Timeline.Gap gap) {
+        boolean loading = gap == mLoadingGap;
+        holder.progress.setVisibility(loading ? View.VISIBLE : View.GONE);
+        holder.text.setText(loading ? R.string.loading : R.string.load_missing);
+    }
 
-                    mContext.startActivity(intent);
-                }
-            });
+    private void bindTime(ViewHolder holder, Statuses statuses) {
+        String time = "";
+        if (statuses.created_at != 0) {
+            time = DateTimeUtils.getInstance(mContext).getTimeDiffString(statuses.created_at);
+        }
+
+        holder.time.setText(time);
+    }
+
+    private static void bindCount(ImageView icon, TextView text, int count) {
+        if (count > 0) {
+            icon.setVisibility(View.VISIBLE);
+            text.setText(String.valueOf(count));
+            text.setVisibility(View.VISIBLE);
+        } else {
+            icon.setVisibility(View.GONE);
+            text.setVisibility(View.GONE);
         }
+    }
 
+    /**
+     * Opens the image viewer. The larger urls are details of the status, so they are
+     * only decoded here, on tap.
+     */
+    private void showImage(Statuses status) {
+        Statuses.Details details = status.getDetails();
+        Intent intent = new Intent(Consts.ACTION_SHOW_IMAGE_VIWVER);
+        intent.putExtra(Consts.MIDDLE_IMAGE_URL_KEY, details.bmiddle_pic);
+        intent.putExtra(Consts.ORIGINAL_PIC_URL_KEY, details.original_pic);
+        mContext.startActivity(intent);
+    }
 
-        if (statuses.retweeted_status != null) {
-            holder.subLayout.setVisibility(View.VISIBLE);
+    /**
+     * Cancels the image loads of a row which scrolled off-screen, should be called from
+     * {@link android.widget.AbsListView.RecyclerListener#onMovedToScrapHeap(View)}.
+     *
+     * @param view the row view
+     */
+    public void onViewRecycled(View view) {
+        if (!(view.getTag() instanceof ViewHolder)) {
+            return;
+        }
 
-            String text = "";
-            if (statuses.retweeted_status.user != null) {
-                text = "@" + statuses.retweeted_status.user.name + ":";
-            }
+        ViewHolder holder = (ViewHolder) view.getTag();
+        // Its images are gone, so it has to be bound in full next time.
+        holder.status = null;
+        if (holder.userImageRequest != null) {
+            holder.userImageRequest.cancelRequest();
+            holder.userImageRequest = null;
+        }
+        // An empty url makes NetworkImageView cancel its pending request.
+        holder.thumbnailPic.setImageUrl(null, mImageLoader);
+        holder.tweetUploadPic2.setImageUrl(null, mImageLoader);
+    }
 
-            text += statuses.retweeted_status.text;
-
-            holder.retweetedText.setText(text, TextView.BufferType.SPANNABLE);
-            Utils.textHighlight(holder.retweetedText, "#", "#");
-            //Util.textHighlight(holder.retweetedText, "@",":");
-            Utils.textHighlight(holder.retweetedText, "http://", " ");
-
-            if (statuses.retweeted_status.thumbnail_pic != null) {
-                final String bmiddlePicUrl = statuses.retweeted_status.bmiddle_pic;
-                final String originalPicUrl = statuses.retweeted_status.original_pic;
-
-                aq.id(holder.tweetUploadPic2)
-                        .image(statuses.retweeted_status.thumbnail_pic)
-                        .visible().clicked(new View.OnClickListener() {
-
-                            @Override
-                            public void onClick(View v) {
-                                Intent intent = new Intent(Consts.ACTION_SHOW_IMAGE_VIWVER);
-                                intent.putExtra(Consts.MIDDLE_IMAGE_URL_KEY, bmiddlePicUrl);
-                                intent.putExtra(Consts.ORIGINAL_PIC_URL_KEY, originalPicUrl);
-                                mContext.startActivity(intent);
-                            }
-                        });
-            }
+    /**
+     * Merges a page into the timeline, see {@link Timeline#merge(List)}. The caller
+     * notifies the list.
+     */
+    public Timeline.Merge merge(List<Statuses> statuses) {
+        Timeline.Merge merge = mTimeline.merge(statuses);
+        if (merge.inserted > 0) {
+            mTextCache.precompute(statuses);
         }
+        return merge;
+    }
 
-        return convertView;
+    /**
+     * Merges a page of newer statuses, see {@link Timeline#mergeNewer(List, int)}.
+     */
+    public Timeline.Merge mergeNewer(List<Statuses> statuses, int pageSize) {
+        Timeline.Merge merge = mTimeline.mergeNewer(statuses, pageSize);
+        if (merge.inserted > 0) {
+            mTextCache.precompute(statuses);
+        }
+        return merge;
+    }
+
+    /**
+     * Merges a page loaded into a gap, see {@link Timeline#fillGap(Timeline.Gap, List, int)}.
+     */
+    public Timeline.Gap fillGap(Timeline.Gap gap, List<Statuses> statuses, int pageSize) {
+        mTextCache.precompute(statuses);
+        return mTimeline.fillGap(gap, statuses, pageSize);
+    }
+
+    public Timeline.Gap getLoadingGap() {
+        return mLoadingGap;
+    }
+
+    /**
+     * @param gap the gap being filled, or null when done
+     */
+    public void setLoadingGap(Timeline.Gap gap) {
+        mLoadingGap = gap;
+    }
+
+    /**
+     * Replaces the timeline with a first page, e.g. the network copy of a cached one.
+     */
+    public Timeline.Merge replace(List<Statuses> statuses) {
+        mTimeline.clear();
+        return merge(statuses);
+    }
+
+    /**
+     * @return the status with {@code id} as it is shown now, or null if it is not
+     */
+    public Statuses getStatus(long id) {
+        return mTimeline.find(id);
     }
 
-    public void addStatuses(Statuses status) {
-        mStatuses.add(status);
+    /**
+     * Replaces a status by a changed copy, see {@link Timeline#replace(Statuses)}. Its row
+     * is bound again on the next notify.
+     */
+    public boolean replace(Statuses status) {
+        return mTimeline.replace(status);
     }
 
-    public void addNewestStatuses(List<Statuses> statuses) {
-        mStatuses.addAll(0, statuses);
+    /**
+     * Binds every row again, on the next notify.
+     */
+    public void invalidateRows() {
+        mGeneration++;
     }
 }
 
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2012 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.lytsing.android.weibo.adapters;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.util.Utils;
+
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The styled and measured texts of timeline rows, by status id.
+ * <p>
+ * Highlighting a status and measuring its glyphs is the costliest part of a bind for
+ * long posts, so it is done on a background thread as soon as a page arrives. A bind
+ * then only attaches the result. The measurements depend on the font metrics of the
+ * row's text views, not on their width, which is why the entries are only valid for
+ * the {@link PrecomputedTextCompat.Params} taken from one inflated row. Each entry keeps
+ * the params it was built with, and one built with others is neither returned nor
+ * stored, so work queued before a {@link #reset(TextView, TextView)} can't refill the
+ * cache with texts which no longer fit.
+ */
+final class StatusTextCache {
+
+    private static final int MAX_ENTRIES = 300;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    static final class Entry {
+        final PrecomputedTextCompat content;
+
+        /** The plain text {@link #retweeted} was built from, null if not a repost. */
+        final String retweetedText;
+
+        final PrecomputedTextCompat retweeted;
+
+        /** The params {@link #content} was measured with. */
+        final PrecomputedTextCompat.Params params;
+
+        Entry(PrecomputedTextCompat content, String retweetedText,
+                PrecomputedTextCompat retweeted, PrecomputedTextCompat.Params params) {
+            this.content = content;
+            this.retweetedText = retweetedText;
+            this.retweeted = retweeted;
+            this.params = params;
+        }
+    }
+
+    private final LruCache<Long, Entry> mEntries = new LruCache<Long, Entry>(MAX_ENTRIES);
+
+    private volatile PrecomputedTextCompat.Params mContentParams;
+
+    private volatile PrecomputedTextCompat.Params mRetweetedParams;
+
+    /**
+     * Takes the text metrics from the views of an inflated row. Must be called on the
+     * main thread.
+     */
+    void setParams(TextView content, TextView retweeted) {
+        mContentParams = TextViewCompat.getTextMetricsParams(content);
+        mRetweetedParams = TextViewCompat.getTextMetricsParams(retweeted);
+    }
+
+    /**
+     * Drops every entry and takes new metrics, see {@link #setParams(TextView, TextView)}.
+     */
+    void reset(TextView content, TextView retweeted) {
+        setParams(content, retweeted);
+        mEntries.evictAll();
+    }
+
+    boolean hasParams() {
+        return mContentParams != null;
+    }
+
+    /**
+     * Builds the entries of {@code statuses} which are not cached yet, in the background.
+     * Does nothing before {@link #setParams(TextView, TextView)}.
+     */
+    void precompute(List<Statuses> statuses) {
+        final PrecomputedTextCompat.Params contentParams = mContentParams;
+        final PrecomputedTextCompat.Params retweetedParams = mRetweetedParams;
+        if (contentParams == null || statuses.isEmpty()) {
+            return;
+        }
+
+        final List<Statuses> pending = new ArrayList<Statuses>(statuses);
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Statuses status : pending) {
+                    if (mContentParams != contentParams) {
+                        // Reset since, what is left would be built for nothing.
+                        return;
+                    }
+                    if (get(status.id) == null) {
+                        mEntries.put(status.id, build(status, contentParams, retweetedParams));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the entry of the status, or null if it is not built yet or was built with
+     *         other params
+     */
+    Entry get(long id) {
+        Entry entry = mEntries.get(id);
+        return entry != null && entry.params == mContentParams ? entry : null;
+    }
+
+    private static Entry build(Statuses status, PrecomputedTextCompat.Params contentParams,
+            PrecomputedTextCompat.Params retweetedParams) {
+        PrecomputedTextCompat content = PrecomputedTextCompat.create(
+                style(status), contentParams);
+
+        String retweetedText = null;
+        PrecomputedTextCompat retweeted = null;
+        if (status.retweeted_status != null) {
+            retweetedText = retweetedText(status.retweeted_status);
+            retweeted = PrecomputedTextCompat.create(
+                    styleRetweeted(status.retweeted_status, retweetedText), retweetedParams);
+        }
+
+        return new Entry(content, retweetedText, retweeted, contentParams);
+    }
+
+    /**
+     * @return the text shown for a repost's original, which changes once a trimmed
+     *         author is filled in
+     */
+    static String retweetedText(Statuses retweeted) {
+        String text = "";
+        String name = null;
+        if (retweeted.user != null) {
+            // Called off the main thread too, where users are filled in.
+            synchronized (retweeted.user) {
+                name = retweeted.user.name;
+            }
+        }
+        if (name != null) {
+            text = "@" + name + ":";
+        }
+        return retweeted.text == null ? text : text + retweeted.text;
+    }
+
+    /**
+     * @return the text of {@code status}, with the entities found when it was decoded
+     *         highlighted
+     */
+    static Spannable style(Statuses status) {
+        Spannable sp = new SpannableString(status.text == null ? "" : status.text);
+        Utils.highlightEntities(sp, status.getTextEntities(), 0);
+        return sp;
+    }
+
+    /**
+     * @param text the text returned by {@link #retweetedText(Statuses)}
+     * @return {@code text} with the author and the entities of the original highlighted
+     */
+    static Spannable styleRetweeted(Statuses retweeted, String text) {
+        Spannable sp = new SpannableString(text);
+        int prefix = text.length() - (retweeted.text == null ? 0 : retweeted.text.length());
+        if (prefix > 1) {
+            // "@name:", without the colon.
+            Utils.highlight(sp, 0, prefix - 1);
+        }
+        Utils.highlightEntities(sp, retweeted.getTextEntities(), prefix);
+        return sp;
+    }
+}
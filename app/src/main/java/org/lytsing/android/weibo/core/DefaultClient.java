@@ -18,6 +18,8 @@ package org.lytsing.android.weibo.core;
 
 import com.android.volley.VolleyLog;
 
+import org.lytsing.android.weibo.toolbox.OkHttpStack;
+
 import retrofit.client.Client;
 import retrofit.client.OkClient;
 import retrofit.client.Request;
@@ -42,7 +44,8 @@ public class DefaultClient implements Client {
     public DefaultClient(SSLSocketFactory sslSocketFactory) {
         this.sslSocketFactory = sslSocketFactory;
         if (hasOkHttpOnClasspath()) {
-            this.wrappedClient = new OkClient() {
+            // Share the connection pool of the Volley stack.
+            this.wrappedClient = new OkClient(OkHttpStack.getSharedClient()) {
                 protected HttpURLConnection openConnection(Request request) throws IOException {
                     return DefaultClient.this.openSslConnection(super.openConnection(request));
                 }
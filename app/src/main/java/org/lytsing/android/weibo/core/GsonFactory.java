@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
+import org.lytsing.android.weibo.core.models.WeiboObject;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the one {@link Gson} instance shared by the whole app, together with a
+ * cache of the {@link TypeAdapter}s resolved from it.
+ * <p>
+ * Gson is thread safe, but building it and reflecting over a model class for
+ * the first time are both expensive, so neither should happen per request.
+ * <p>
+ * The timeline models are decoded without reflection by {@link ModelTypeAdapterFactory},
+ * and users are interned into {@link UserCache} as they are decoded.
+ */
+public final class GsonFactory {
+
+    /**
+     * Factories registered later are asked first, so the user cache sees the users read
+     * by the streaming model adapters.
+     */
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+            .registerTypeAdapterFactory(new UserTypeAdapterFactory())
+            .create();
+
+    private static final ConcurrentHashMap<Class<?>, TypeAdapter<?>> ADAPTERS =
+            new ConcurrentHashMap<Class<?>, TypeAdapter<?>>();
+
+    private GsonFactory() {
+    }
+
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    /**
+     * @param clazz model class
+     * @return the cached adapter for {@code clazz}, resolved on first use
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TypeAdapter<T> getAdapter(Class<T> clazz) {
+        TypeAdapter<T> adapter = (TypeAdapter<T>) ADAPTERS.get(clazz);
+        if (adapter == null) {
+            adapter = GSON.getAdapter(clazz);
+            ADAPTERS.putIfAbsent(clazz, adapter);
+        }
+        return adapter;
+    }
+
+    /**
+     * Resolves the adapters of the timeline models ahead of the first request.
+     * Should be called off the main thread.
+     */
+    public static void warmUp() {
+        getAdapter(WeiboObject.class);
+        getAdapter(Statuses.class);
+        getAdapter(User.class);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import java.util.HashMap;
+
+/**
+ * Shares one instance of strings which repeat across many decoded objects, such as
+ * the {@code source} anchor of every status sent from the same client.
+ * <p>
+ * The pool is small and simply emptied when full, unlike {@link String#intern()}
+ * nothing is kept for the life of the process.
+ */
+final class Interner {
+
+    private static final int MAX_SIZE = 1024;
+
+    private static final HashMap<String, String> POOL = new HashMap<String, String>();
+
+    private Interner() {
+    }
+
+    static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (POOL) {
+            String canonical = POOL.get(value);
+            if (canonical != null) {
+                return canonical;
+            }
+            if (POOL.size() >= MAX_SIZE) {
+                POOL.clear();
+            }
+            POOL.put(value, value);
+            return value;
+        }
+    }
+}
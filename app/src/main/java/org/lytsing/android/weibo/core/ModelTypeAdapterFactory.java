@@ -0,0 +1,997 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.lytsing.android.weibo.core.models.Comment;
+import org.lytsing.android.weibo.core.models.CommentsObject;
+import org.lytsing.android.weibo.core.models.Geo;
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
+import org.lytsing.android.weibo.core.models.Visible;
+import org.lytsing.android.weibo.core.models.WeiboObject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming {@link TypeAdapter}s for the timeline and comment models, used by {@link GsonFactory}
+ * in place of Gson's reflective ones.
+ * <p>
+ * Fields are matched with a string switch and assigned directly, for statuses to their
+ * {@link Statuses.Builder}: nothing is looked up by reflection, neither when the adapter
+ * is created nor per object. Values are read as leniently as Gson does: numbers and
+ * booleans may come quoted, {@code null} leaves the default and unknown keys are skipped.
+ * <p>
+ * Statuses are compacted as they are read: ids become longs, {@code created_at} is
+ * parsed once into ms since the epoch, repeated strings are {@link Interner interned} and
+ * the text is split into {@link TextEntities} when the status is built.
+ * The fields of {@link Statuses.Details} are not decoded at all but copied, token by
+ * token, into a compact JSON object which the status decodes when they are first used.
+ * <p>
+ * These mirror the models field for field and must be kept in step with them.
+ */
+final class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == WeiboObject.class) {
+            return (TypeAdapter<T>) new WeiboObjectAdapter(gson);
+        } else if (rawType == Statuses.class) {
+            return (TypeAdapter<T>) new StatusesAdapter(gson);
+        } else if (rawType == Statuses.Details.class) {
+            return (TypeAdapter<T>) new DetailsAdapter(gson);
+        } else if (rawType == User.class) {
+            return (TypeAdapter<T>) new UserAdapter();
+        } else if (rawType == Geo.class) {
+            return (TypeAdapter<T>) new GeoAdapter();
+        } else if (rawType == Visible.class) {
+            return (TypeAdapter<T>) new VisibleAdapter();
+        } else if (rawType == CommentsObject.class) {
+            return (TypeAdapter<T>) new CommentsObjectAdapter(gson);
+        } else if (rawType == Comment.class) {
+            return (TypeAdapter<T>) new CommentAdapter(gson);
+        }
+        return null;
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static long nextLong(JsonReader in) throws IOException {
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static int nextInt(JsonReader in) throws IOException {
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static boolean nextBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    /**
+     * Ids may be quoted, and are an empty string when there is none.
+     */
+    private static long nextId(JsonReader in) throws IOException {
+        String value = in.nextString();
+        if (value.length() == 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> adapter)
+            throws IOException {
+        List<E> list = new ArrayList<E>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(adapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static List<Float> readFloats(JsonReader in) throws IOException {
+        List<Float> list = new ArrayList<Float>(2);
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                list.add(null);
+            } else {
+                try {
+                    list.add((float) in.nextDouble());
+                } catch (NumberFormatException e) {
+                    throw new JsonSyntaxException(e);
+                }
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    /**
+     * Reads {@code [{"thumbnail_pic": "http://..."}, ...]}, null when empty.
+     */
+    private static List<String> readPicUrls(JsonReader in) throws IOException {
+        List<String> urls = null;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("thumbnail_pic".equals(in.nextName()) && in.peek() == JsonToken.STRING) {
+                    if (urls == null) {
+                        urls = new ArrayList<String>(9);
+                    }
+                    urls.add(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        in.endArray();
+        return urls;
+    }
+
+    /**
+     * Copies the next value of {@code in} to {@code out} as it is, numbers included.
+     */
+    private static void copyValue(JsonReader in, JsonWriter out) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_ARRAY:
+                in.beginArray();
+                out.beginArray();
+                while (in.hasNext()) {
+                    copyValue(in, out);
+                }
+                in.endArray();
+                out.endArray();
+                break;
+            case BEGIN_OBJECT:
+                in.beginObject();
+                out.beginObject();
+                while (in.hasNext()) {
+                    out.name(in.nextName());
+                    copyValue(in, out);
+                }
+                in.endObject();
+                out.endObject();
+                break;
+            case STRING:
+                out.value(in.nextString());
+                break;
+            case NUMBER:
+                out.jsonValue(in.nextString());
+                break;
+            case BOOLEAN:
+                out.value(in.nextBoolean());
+                break;
+            case NULL:
+                in.nextNull();
+                out.nullValue();
+                break;
+            default:
+                throw new JsonSyntaxException("Unexpected " + in.peek() + " at " + in.getPath());
+        }
+    }
+
+    private static <E> void writeList(JsonWriter out, TypeAdapter<E> adapter, List<E> list)
+            throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (E element : list) {
+            adapter.write(out, element);
+        }
+        out.endArray();
+    }
+
+    private static void writePicUrls(JsonWriter out, List<String> urls) throws IOException {
+        if (urls == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String url : urls) {
+            out.beginObject();
+            out.name("thumbnail_pic").value(url);
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    private static void writeFloats(JsonWriter out, List<Float> list) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (Float value : list) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static final class WeiboObjectAdapter extends TypeAdapter<WeiboObject> {
+        private final TypeAdapter<Statuses> mStatusesAdapter;
+
+        WeiboObjectAdapter(Gson gson) {
+            mStatusesAdapter = gson.getAdapter(Statuses.class);
+        }
+
+        @Override
+        public WeiboObject read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            WeiboObject object = new WeiboObject();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "statuses":
+                        object.statuses = readList(in, mStatusesAdapter);
+                        break;
+                    case "hasvisible":
+                        object.hasvisible = nextBoolean(in);
+                        break;
+                    case "previous_cursor":
+                        object.previous_cursor = nextLong(in);
+                        break;
+                    case "next_cursor":
+                        object.next_cursor = nextLong(in);
+                        break;
+                    case "total_number":
+                        object.total_number = nextInt(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return object;
+        }
+
+        @Override
+        public void write(JsonWriter out, WeiboObject object) throws IOException {
+            if (object == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("statuses");
+            writeList(out, mStatusesAdapter, object.statuses);
+            out.name("hasvisible").value(object.hasvisible);
+            out.name("previous_cursor").value(object.previous_cursor);
+            out.name("next_cursor").value(object.next_cursor);
+            out.name("total_number").value(object.total_number);
+            out.endObject();
+        }
+    }
+
+    private static final class CommentsObjectAdapter extends TypeAdapter<CommentsObject> {
+        private final TypeAdapter<Comment> mCommentAdapter;
+
+        CommentsObjectAdapter(Gson gson) {
+            mCommentAdapter = gson.getAdapter(Comment.class);
+        }
+
+        @Override
+        public CommentsObject read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            CommentsObject object = new CommentsObject();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "comments":
+                        object.comments = readList(in, mCommentAdapter);
+                        break;
+                    case "previous_cursor":
+                        object.previous_cursor = nextLong(in);
+                        break;
+                    case "next_cursor":
+                        object.next_cursor = nextLong(in);
+                        break;
+                    case "total_number":
+                        object.total_number = nextInt(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return object;
+        }
+
+        @Override
+        public void write(JsonWriter out, CommentsObject object) throws IOException {
+            if (object == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("comments");
+            writeList(out, mCommentAdapter, object.comments);
+            out.name("previous_cursor").value(object.previous_cursor);
+            out.name("next_cursor").value(object.next_cursor);
+            out.name("total_number").value(object.total_number);
+            out.endObject();
+        }
+    }
+
+    /**
+     * The time is left as it came: the comment shows it formatted, not ms since the epoch.
+     */
+    private static final class CommentAdapter extends TypeAdapter<Comment> {
+        private final TypeAdapter<User> mUserAdapter;
+
+        CommentAdapter(Gson gson) {
+            mUserAdapter = gson.getAdapter(User.class);
+        }
+
+        @Override
+        public Comment read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Comment comment = new Comment();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "id":
+                        comment.setId(nextLong(in));
+                        break;
+                    case "author":
+                        comment.setAuthor(nextString(in));
+                        break;
+                    case "created_at":
+                        comment.setCreationTime(nextString(in));
+                        break;
+                    case "text":
+                        comment.setBody(nextString(in));
+                        break;
+                    case "source":
+                        comment.setSource(Interner.intern(nextString(in)));
+                        break;
+                    case "isTruncated":
+                        comment.setTruncated(nextBoolean(in));
+                        break;
+                    case "user":
+                        comment.setUser(mUserAdapter.read(in));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return comment;
+        }
+
+        @Override
+        public void write(JsonWriter out, Comment comment) throws IOException {
+            if (comment == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("id").value(comment.getId());
+            out.name("author").value(comment.getAuthor());
+            out.name("created_at").value(comment.getCreationTime());
+            out.name("text").value(comment.getBody());
+            out.name("source").value(comment.getSource());
+            out.name("isTruncated").value(comment.hasTruncated());
+            out.name("user");
+            mUserAdapter.write(out, comment.getUser());
+            out.endObject();
+        }
+    }
+
+    private static final class StatusesAdapter extends TypeAdapter<Statuses> {
+        private final TypeAdapter<User> mUserAdapter;
+
+        private final DetailsAdapter mDetailsAdapter;
+
+        StatusesAdapter(Gson gson) {
+            mUserAdapter = gson.getAdapter(User.class);
+            mDetailsAdapter = new DetailsAdapter(gson);
+        }
+
+        @Override
+        public Statuses read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Statuses.Builder builder = new Statuses.Builder();
+            DetailsBuffer details = null;
+            boolean hasGeo = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "created_at":
+                        builder.created_at = WeiboDate.parse(nextString(in));
+                        break;
+                    case "id":
+                        builder.id = nextId(in);
+                        break;
+                    case "text":
+                        builder.text = nextString(in);
+                        break;
+                    case "source":
+                        builder.source = Interner.intern(nextString(in));
+                        break;
+                    case "favorited":
+                        builder.favorited = nextBoolean(in);
+                        break;
+                    case "truncated":
+                        builder.truncated = nextBoolean(in);
+                        break;
+                    case "thumbnail_pic":
+                        builder.thumbnail_pic = nextString(in);
+                        break;
+                    case "pic_urls":
+                        builder.pic_urls = readPicUrls(in);
+                        break;
+                    case "user":
+                        builder.user = mUserAdapter.read(in);
+                        break;
+                    case "retweeted_status":
+                        builder.retweeted_status = read(in);
+                        break;
+                    case "reposts_count":
+                        builder.reposts_count = nextInt(in);
+                        break;
+                    case "comments_count":
+                        builder.comments_count = nextInt(in);
+                        break;
+                    case "attitudes_count":
+                        builder.attitudes_count = nextInt(in);
+                        break;
+                    case "mid":
+                    case "in_reply_to_status_id":
+                    case "in_reply_to_user_id":
+                    case "in_reply_to_screen_name":
+                    case "bmiddle_pic":
+                    case "original_pic":
+                    case "geo":
+                    case "visible":
+                        if (details == null) {
+                            details = DetailsBuffer.obtain();
+                        }
+                        details.copy(name, in);
+                        hasGeo |= "geo".equals(name);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            if (details != null) {
+                builder.detailsJson(details.finish(), hasGeo);
+            }
+            return builder.build();
+        }
+
+        @Override
+        public void write(JsonWriter out, Statuses status) throws IOException {
+            if (status == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("created_at").value(WeiboDate.format(status.created_at));
+            out.name("id").value(status.id);
+            out.name("text").value(status.text);
+            out.name("source").value(status.source);
+            out.name("favorited").value(status.favorited);
+            out.name("truncated").value(status.truncated);
+            out.name("thumbnail_pic").value(status.thumbnail_pic);
+            out.name("pic_urls");
+            writePicUrls(out, status.pic_urls);
+            out.name("user");
+            mUserAdapter.write(out, status.user);
+            out.name("retweeted_status");
+            write(out, status.retweeted_status);
+            out.name("reposts_count").value(status.reposts_count);
+            out.name("comments_count").value(status.comments_count);
+            out.name("attitudes_count").value(status.attitudes_count);
+            mDetailsAdapter.writeFields(out, status.getDetails());
+            out.endObject();
+        }
+    }
+
+    /**
+     * Collects the detail fields of one status into a JSON object, as UTF-8 bytes.
+     * <p>
+     * Buffers are reused by the statuses a thread decodes after each other, so a page
+     * costs one writer instead of one per status. A retweeted status is decoded while
+     * its parent still holds one, hence a free list rather than a single buffer. A buffer
+     * is only given back once its status was decoded, so a failed read can't leave half
+     * an object behind for the next one.
+     */
+    private static final class DetailsBuffer {
+        private static final ThreadLocal<ArrayList<DetailsBuffer>> sFree =
+                new ThreadLocal<ArrayList<DetailsBuffer>>() {
+                    @Override
+                    protected ArrayList<DetailsBuffer> initialValue() {
+                        return new ArrayList<DetailsBuffer>(2);
+                    }
+                };
+
+        private final StringWriter mChars = new StringWriter(256);
+
+        private final JsonWriter mWriter = new JsonWriter(mChars);
+
+        private DetailsBuffer() {
+            // One object after the other, each taken out and cleared when it is complete.
+            mWriter.setLenient(true);
+        }
+
+        static DetailsBuffer obtain() throws IOException {
+            ArrayList<DetailsBuffer> free = sFree.get();
+            DetailsBuffer buffer = free.isEmpty()
+                    ? new DetailsBuffer() : free.remove(free.size() - 1);
+            buffer.mWriter.beginObject();
+            return buffer;
+        }
+
+        void copy(String name, JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.STRING) {
+                // The API sends "" for no reply or picture, no need to keep it.
+                String value = in.nextString();
+                if (!value.isEmpty()) {
+                    mWriter.name(name).value(value);
+                }
+                return;
+            }
+            mWriter.name(name);
+            copyValue(in, mWriter);
+        }
+
+        /**
+         * Ends the object and gives the buffer back.
+         */
+        byte[] finish() throws IOException {
+            mWriter.endObject();
+            StringBuffer chars = mChars.getBuffer();
+            byte[] json = chars.toString().getBytes("UTF-8");
+            chars.setLength(0);
+            sFree.get().add(this);
+            return json;
+        }
+    }
+
+    private static final class DetailsAdapter extends TypeAdapter<Statuses.Details> {
+        private final TypeAdapter<Geo> mGeoAdapter;
+
+        private final TypeAdapter<Visible> mVisibleAdapter;
+
+        DetailsAdapter(Gson gson) {
+            mGeoAdapter = gson.getAdapter(Geo.class);
+            mVisibleAdapter = gson.getAdapter(Visible.class);
+        }
+
+        @Override
+        public Statuses.Details read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Statuses.Details details = new Statuses.Details();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "mid":
+                        details.mid = nextId(in);
+                        break;
+                    case "in_reply_to_status_id":
+                        details.in_reply_to_status_id = nextId(in);
+                        break;
+                    case "in_reply_to_user_id":
+                        details.in_reply_to_user_id = nextId(in);
+                        break;
+                    case "in_reply_to_screen_name":
+                        details.in_reply_to_screen_name = Interner.intern(nextString(in));
+                        break;
+                    case "bmiddle_pic":
+                        details.bmiddle_pic = nextString(in);
+                        break;
+                    case "original_pic":
+                        details.original_pic = nextString(in);
+                        break;
+                    case "geo":
+                        details.geo = mGeoAdapter.read(in);
+                        break;
+                    case "visible":
+                        details.visible = mVisibleAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return details;
+        }
+
+        @Override
+        public void write(JsonWriter out, Statuses.Details details) throws IOException {
+            if (details == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            writeFields(out, details);
+            out.endObject();
+        }
+
+        /**
+         * Writes the fields without an enclosing object, as they appear in a status.
+         */
+        void writeFields(JsonWriter out, Statuses.Details details) throws IOException {
+            out.name("mid").value(details.mid);
+            out.name("in_reply_to_status_id").value(details.in_reply_to_status_id);
+            out.name("in_reply_to_user_id").value(details.in_reply_to_user_id);
+            out.name("in_reply_to_screen_name").value(details.in_reply_to_screen_name);
+            out.name("bmiddle_pic").value(details.bmiddle_pic);
+            out.name("original_pic").value(details.original_pic);
+            out.name("geo");
+            mGeoAdapter.write(out, details.geo);
+            out.name("visible");
+            mVisibleAdapter.write(out, details.visible);
+        }
+    }
+
+    private static final class UserAdapter extends TypeAdapter<User> {
+        @Override
+        public User read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            User user = new User();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "id":
+                        user.id = nextLong(in);
+                        break;
+                    case "screen_name":
+                        user.screen_name = nextString(in);
+                        break;
+                    case "name":
+                        user.name = nextString(in);
+                        break;
+                    case "domain":
+                        user.domain = nextString(in);
+                        break;
+                    case "province":
+                        user.province = nextString(in);
+                        break;
+                    case "city":
+                        user.city = nextString(in);
+                        break;
+                    case "location":
+                        user.location = nextString(in);
+                        break;
+                    case "description":
+                        user.description = nextString(in);
+                        break;
+                    case "url":
+                        user.url = nextString(in);
+                        break;
+                    case "profile_image_url":
+                        user.profile_image_url = nextString(in);
+                        break;
+                    case "user_domain":
+                        user.user_domain = nextString(in);
+                        break;
+                    case "gender":
+                        user.gender = nextString(in);
+                        break;
+                    case "weihao":
+                        user.weihao = nextString(in);
+                        break;
+                    case "followers_count":
+                        user.followers_count = nextInt(in);
+                        break;
+                    case "friends_count":
+                        user.friends_count = nextInt(in);
+                        break;
+                    case "statuses_count":
+                        user.statuses_count = nextInt(in);
+                        break;
+                    case "favourites_count":
+                        user.favourites_count = nextInt(in);
+                        break;
+                    case "created_at":
+                        user.created_at = nextString(in);
+                        break;
+                    case "following":
+                        user.following = nextBoolean(in);
+                        break;
+                    case "allow_all_act_msg":
+                        user.allow_all_act_msg = nextBoolean(in);
+                        break;
+                    case "remark":
+                        user.remark = nextString(in);
+                        break;
+                    case "geo_enabled":
+                        user.geo_enabled = nextBoolean(in);
+                        break;
+                    case "verified":
+                        user.verified = nextBoolean(in);
+                        break;
+                    case "allow_all_comment":
+                        user.allow_all_comment = nextBoolean(in);
+                        break;
+                    case "avatar_large":
+                        user.avatar_large = nextString(in);
+                        break;
+                    case "verified_reason":
+                        user.verified_reason = nextString(in);
+                        break;
+                    case "follow_me":
+                        user.follow_me = nextBoolean(in);
+                        break;
+                    case "online_status":
+                        user.online_status = nextInt(in);
+                        break;
+                    case "bi_followers_count":
+                        user.bi_followers_count = nextInt(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return user;
+        }
+
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            if (user == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("id").value(user.id);
+            out.name("screen_name").value(user.screen_name);
+            out.name("name").value(user.name);
+            out.name("domain").value(user.domain);
+            out.name("province").value(user.province);
+            out.name("city").value(user.city);
+            out.name("location").value(user.location);
+            out.name("description").value(user.description);
+            out.name("url").value(user.url);
+            out.name("profile_image_url").value(user.profile_image_url);
+            out.name("user_domain").value(user.user_domain);
+            out.name("gender").value(user.gender);
+            out.name("weihao").value(user.weihao);
+            out.name("followers_count").value(user.followers_count);
+            out.name("friends_count").value(user.friends_count);
+            out.name("statuses_count").value(user.statuses_count);
+            out.name("favourites_count").value(user.favourites_count);
+            out.name("created_at").value(user.created_at);
+            out.name("following").value(user.following);
+            out.name("allow_all_act_msg").value(user.allow_all_act_msg);
+            out.name("remark").value(user.remark);
+            out.name("geo_enabled").value(user.geo_enabled);
+            out.name("verified").value(user.verified);
+            out.name("allow_all_comment").value(user.allow_all_comment);
+            out.name("avatar_large").value(user.avatar_large);
+            out.name("verified_reason").value(user.verified_reason);
+            out.name("follow_me").value(user.follow_me);
+            out.name("online_status").value(user.online_status);
+            out.name("bi_followers_count").value(user.bi_followers_count);
+            out.endObject();
+        }
+    }
+
+    private static final class GeoAdapter extends TypeAdapter<Geo> {
+        @Override
+        public Geo read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Geo geo = new Geo();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "type":
+                        geo.type = Interner.intern(nextString(in));
+                        break;
+                    case "coordinates":
+                        geo.coordinates = readFloats(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return geo;
+        }
+
+        @Override
+        public void write(JsonWriter out, Geo geo) throws IOException {
+            if (geo == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("type").value(geo.type);
+            out.name("coordinates");
+            writeFloats(out, geo.coordinates);
+            out.endObject();
+        }
+    }
+
+    private static final class VisibleAdapter extends TypeAdapter<Visible> {
+        @Override
+        public Visible read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Visible visible = new Visible();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+                    case "type":
+                        visible.type = nextInt(in);
+                        break;
+                    case "list_id":
+                        visible.list_id = nextInt(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return visible;
+        }
+
+        @Override
+        public void write(JsonWriter out, Visible visible) throws IOException {
+            if (visible == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("type").value(visible.type);
+            out.name("list_id").value(visible.list_id);
+            out.endObject();
+        }
+    }
+}
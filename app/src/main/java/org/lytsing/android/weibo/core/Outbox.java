@@ -0,0 +1,572 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.gson.JsonParseException;
+import com.orhanobut.logger.Logger;
+import com.sina.weibo.sdk.auth.Oauth2AccessToken;
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.exception.WeiboHttpException;
+import com.sina.weibo.sdk.openapi.CommentsAPI;
+import com.sina.weibo.sdk.openapi.StatusesAPI;
+import com.sina.weibo.sdk.openapi.legacy.FavoritesAPI;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A durable queue of the user's writes: posts, comments, reposts and favorites.
+ * <p>
+ * A write is journaled to disk before anything is sent, so it survives a dropped
+ * connection, a killed process or a reboot. The outbox is flushed as one batch,
+ * back to back on a single thread, whenever the network comes back, so queued
+ * writes share one radio wake-up instead of each paying for its own.
+ * <p>
+ * The Weibo API has no idempotency keys. A write whose outcome is unknown (the
+ * connection dropped after it was sent) is sent again, and the API's "repeated
+ * content" and "already favorited" errors are taken as proof that the first
+ * attempt went through. Transient failures are retried with a jittered
+ * exponential backoff; anything the server rejects for good is reported to the
+ * {@link Listener}s as a conflict and dropped.
+ * <p>
+ * A write whose token the server rejects is not retried on a timer, it would fail
+ * the same way until the user logs in again. It stays queued, and is sent once
+ * there is a different token.
+ */
+public final class Outbox {
+
+    /**
+     * Called on the main thread.
+     */
+    public interface Listener {
+        void onSent(OutboxEntry entry);
+
+        void onConflict(OutboxEntry entry, String reason);
+    }
+
+    private static final String JOURNAL_NAME = "outbox.json";
+
+    private static final String IMAGE_DIR_NAME = "outbox";
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final long BASE_BACKOFF_MS = 5 * 1000;
+
+    private static final long MAX_BACKOFF_MS = 15 * 60 * 1000;
+
+    /** Same text posted twice in a row. */
+    private static final int ERROR_REPEATED_CONTENT = 20019;
+
+    /** Text too similar to a recent post. */
+    private static final int ERROR_SIMILAR_CONTENT = 20017;
+
+    private static final int ERROR_REPEATED_REPOST = 20111;
+
+    private static final int ERROR_ALREADY_FAVORITED = 20704;
+
+    /** 10022, 10023 and 10024: IP, user and API rate limits. */
+    private static final int ERROR_RATE_LIMIT_FIRST = 10022;
+
+    private static final int ERROR_RATE_LIMIT_LAST = 10024;
+
+    /** Expired or revoked token, the write waits for the next login. */
+    private static final int[] ERROR_TOKEN = {21314, 21315, 21316, 21317, 21327, 21332};
+
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private static final Random RANDOM = new Random();
+
+    private final Context mContext;
+
+    private final File mJournal;
+
+    private final File mImageDir;
+
+    /** In journal order. Guarded by itself. */
+    private final List<OutboxEntry> mEntries = new ArrayList<OutboxEntry>();
+
+    private final List<Listener> mListeners = new CopyOnWriteArrayList<Listener>();
+
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Outbox");
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public Outbox(Context context) {
+        mContext = context.getApplicationContext();
+        mJournal = new File(mContext.getFilesDir(), JOURNAL_NAME);
+        mImageDir = new File(mContext.getFilesDir(), IMAGE_DIR_NAME);
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+
+        mContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (isOnline()) {
+                    flush();
+                }
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    public void addListener(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @return a snapshot of the writes not sent yet, oldest first
+     */
+    public List<OutboxEntry> getEntries() {
+        synchronized (mEntries) {
+            return new ArrayList<OutboxEntry>(mEntries);
+        }
+    }
+
+    /**
+     * Journals {@code entry} and sends it as soon as the network allows.
+     * A write identical to one still queued is ignored.
+     *
+     * @return the queued write, {@code entry} or the identical one queued before it,
+     *         the {@link Listener}s are told about that one
+     */
+    public OutboxEntry enqueue(OutboxEntry entry) {
+        OutboxEntry queued = add(entry);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                save();
+                flushNow();
+            }
+        });
+        return queued;
+    }
+
+    /**
+     * Queues a new status. The picture, if any, is copied into the outbox first, the
+     * original may be gone by the time the post is sent.
+     *
+     * @param image content uri of the picture, or null
+     */
+    public void enqueuePost(final String text, final Uri image, final String lat,
+            final String lon) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                OutboxEntry entry = OutboxEntry.post(text, lat, lon);
+                entry.id = UUID.randomUUID().toString();
+                if (image != null) {
+                    entry.imagePath = copyImage(image, entry.id);
+                    if (entry.imagePath == null) {
+                        notifyConflict(entry, "Can't read the picture");
+                        return;
+                    }
+                }
+                add(entry);
+                save();
+                flushNow();
+            }
+        });
+    }
+
+    /**
+     * Sends the due writes now, if online.
+     */
+    public void flush() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                flushNow();
+            }
+        });
+    }
+
+    /**
+     * Adds {@code entry} to the queue, without journaling it yet.
+     *
+     * @return {@code entry}, or the identical write already queued
+     */
+    private OutboxEntry add(OutboxEntry entry) {
+        if (entry.id == null) {
+            entry.id = UUID.randomUUID().toString();
+        }
+
+        synchronized (mEntries) {
+            for (OutboxEntry queued : mEntries) {
+                if (queued.isSameWrite(entry)) {
+                    return queued;
+                }
+            }
+            mEntries.add(entry);
+        }
+        return entry;
+    }
+
+    private void flushNow() {
+        mHandler.removeCallbacks(mFlushRunnable);
+        if (!isOnline()) {
+            // The connectivity receiver flushes once we are back.
+            return;
+        }
+
+        Oauth2AccessToken token = Session.restore(mContext);
+        if (!token.isSessionValid()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long notBefore = 0;
+        for (OutboxEntry entry : getEntries()) {
+            if (entry.nextAttemptAt > now || isRejected(entry, token)) {
+                continue;
+            }
+            if (!send(entry, token)) {
+                // Most likely the network is gone again, keep the rest for the next batch.
+                notBefore = entry.nextAttemptAt;
+                break;
+            }
+        }
+
+        scheduleRetry(notBefore, token);
+    }
+
+    private static boolean isRejected(OutboxEntry entry, Oauth2AccessToken token) {
+        return entry.rejectedToken != null && entry.rejectedToken.equals(token.getToken());
+    }
+
+    /**
+     * @return false if {@code entry} failed transiently and should be retried
+     */
+    private boolean send(OutboxEntry entry, Oauth2AccessToken token) {
+        entry.state = OutboxEntry.State.SENDING;
+        entry.attempts++;
+        save();
+
+        try {
+            execute(entry, token);
+        } catch (WeiboException e) {
+            WeiboApiException apiError = readError(e);
+            int errorCode = apiError == null ? 0 : apiError.getmErrorCode();
+            if (isDuplicate(errorCode)) {
+                Logger.d("Outbox: " + entry.type + " already applied, code " + errorCode);
+            } else if (Arrays.binarySearch(ERROR_TOKEN, errorCode) >= 0) {
+                // The rest of the batch would be rejected too.
+                entry.state = OutboxEntry.State.PENDING;
+                entry.lastError = e.getMessage();
+                entry.rejectedToken = token.getToken();
+                save();
+                return false;
+            } else if (isTransient(e, errorCode)) {
+                entry.state = OutboxEntry.State.PENDING;
+                entry.lastError = e.getMessage();
+                entry.nextAttemptAt = System.currentTimeMillis() + backoff(entry.attempts);
+                save();
+                return false;
+            } else {
+                remove(entry);
+                notifyConflict(entry, apiError == null ? e.getMessage() : apiError.getMessage());
+                return true;
+            }
+        } catch (IOException e) {
+            remove(entry);
+            notifyConflict(entry, e.getMessage());
+            return true;
+        }
+
+        remove(entry);
+        notifySent(entry);
+        return true;
+    }
+
+    private void execute(OutboxEntry entry, Oauth2AccessToken token) throws IOException {
+        switch (entry.type) {
+            case POST:
+                StatusesAPI statusesAPI = new StatusesAPI(token);
+                if (entry.imagePath == null) {
+                    statusesAPI.updateSync(entry.text, entry.lat, entry.lon);
+                } else {
+                    Bitmap bitmap = BitmapFactory.decodeFile(entry.imagePath);
+                    if (bitmap == null) {
+                        throw new IOException("Can't decode " + entry.imagePath);
+                    }
+                    statusesAPI.uploadSync(entry.text, bitmap, entry.lat, entry.lon);
+                }
+                break;
+            case COMMENT:
+                new CommentsAPI(token).createSync(entry.text, entry.statusId,
+                        entry.commentType != 0);
+                break;
+            case REPOST:
+                new com.sina.weibo.sdk.openapi.legacy.StatusesAPI(token).repostSync(
+                        entry.statusId, entry.text, entry.commentType);
+                break;
+            case FAVORITE:
+                new FavoritesAPI(token).createSync(entry.statusId);
+                break;
+            default:
+                throw new IOException("Unknown write " + entry.type);
+        }
+    }
+
+    private static boolean isDuplicate(int errorCode) {
+        return errorCode == ERROR_REPEATED_CONTENT || errorCode == ERROR_SIMILAR_CONTENT
+                || errorCode == ERROR_REPEATED_REPOST || errorCode == ERROR_ALREADY_FAVORITED;
+    }
+
+    private static boolean isTransient(WeiboException e, int errorCode) {
+        if (!(e instanceof WeiboHttpException)) {
+            // No response at all.
+            return true;
+        }
+        if (((WeiboHttpException) e).getStatusCode() >= HTTP_SERVER_ERROR) {
+            return true;
+        }
+        return errorCode >= ERROR_RATE_LIMIT_FIRST && errorCode <= ERROR_RATE_LIMIT_LAST;
+    }
+
+    /**
+     * The SDK puts the response body of a failed request into the message.
+     */
+    private static WeiboApiException readError(WeiboException e) {
+        if (!(e instanceof WeiboHttpException)) {
+            return null;
+        }
+        return ResponseEnvelope.readError(e.getMessage());
+    }
+
+    /**
+     * Full jitter: a random delay up to the exponential backoff, so that writes queued
+     * together don't retry in lock step.
+     */
+    private static long backoff(int attempts) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempts - 1, 10));
+        return ceiling / 2 + (long) (RANDOM.nextDouble() * ceiling / 2);
+    }
+
+    /**
+     * @param notBefore no retry before this time, in ms since the epoch
+     * @param token the writes it was rejected for wait for the next login instead
+     */
+    private void scheduleRetry(long notBefore, Oauth2AccessToken token) {
+        long next = Long.MAX_VALUE;
+        for (OutboxEntry entry : getEntries()) {
+            if (!isRejected(entry, token)) {
+                next = Math.min(next, entry.nextAttemptAt);
+            }
+        }
+        if (next == Long.MAX_VALUE) {
+            return;
+        }
+        next = Math.max(next, notBefore);
+
+        long delay = Math.max(0, next - System.currentTimeMillis());
+        mHandler.postAtTime(mFlushRunnable, SystemClock.uptimeMillis() + delay);
+    }
+
+    private void remove(OutboxEntry entry) {
+        synchronized (mEntries) {
+            mEntries.remove(entry);
+        }
+        save();
+
+        if (entry.imagePath != null) {
+            new File(entry.imagePath).delete();
+        }
+    }
+
+    private void notifySent(final OutboxEntry entry) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Listener listener : mListeners) {
+                    listener.onSent(entry);
+                }
+            }
+        });
+    }
+
+    private void notifyConflict(final OutboxEntry entry, final String reason) {
+        Logger.w("Outbox: dropped " + entry.type + ": " + reason);
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Listener listener : mListeners) {
+                    listener.onConflict(entry, reason);
+                }
+            }
+        });
+    }
+
+    private boolean isOnline() {
+        ConnectivityManager cm = (ConnectivityManager) mContext.getSystemService(
+                Context.CONNECTIVITY_SERVICE);
+        NetworkInfo info = cm.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    private String copyImage(Uri image, String id) {
+        if (!mImageDir.isDirectory() && !mImageDir.mkdirs()) {
+            return null;
+        }
+
+        File file = new File(mImageDir, id);
+        InputStream in = null;
+        OutputStream out = null;
+        try {
+            in = mContext.getContentResolver().openInputStream(image);
+            if (in == null) {
+                return null;
+            }
+            out = new FileOutputStream(file);
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return file.getPath();
+        } catch (IOException e) {
+            Logger.e("Outbox: can't copy " + image, e);
+            file.delete();
+            return null;
+        } finally {
+            closeQuietly(in);
+            closeQuietly(out);
+        }
+    }
+
+    private void load() {
+        if (!mJournal.exists()) {
+            return;
+        }
+
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(mJournal), CHARSET);
+            OutboxEntry[] entries = GsonFactory.getGson().fromJson(reader, OutboxEntry[].class);
+            if (entries == null) {
+                return;
+            }
+            for (OutboxEntry entry : entries) {
+                // Killed while sending: the outcome is unknown, send it again.
+                entry.state = OutboxEntry.State.PENDING;
+            }
+            synchronized (mEntries) {
+                mEntries.addAll(Arrays.asList(entries));
+            }
+        } catch (IOException e) {
+            Logger.e("Outbox: can't read the journal", e);
+        } catch (JsonParseException e) {
+            Logger.e("Outbox: corrupt journal", e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Writes the journal to a temporary file and renames it over the old one, so a
+     * crash half way leaves the previous journal intact.
+     */
+    private void save() {
+        OutboxEntry[] entries;
+        synchronized (mEntries) {
+            entries = mEntries.toArray(new OutboxEntry[mEntries.size()]);
+        }
+
+        File temp = new File(mJournal.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            writer = new OutputStreamWriter(out, CHARSET);
+            GsonFactory.getGson().toJson(entries, writer);
+            writer.flush();
+            out.getFD().sync();
+            writer.close();
+            writer = null;
+
+            if (!temp.renameTo(mJournal)) {
+                Logger.e("Outbox: can't replace the journal");
+            }
+        } catch (IOException e) {
+            Logger.e("Outbox: can't write the journal", e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+/**
+ * A write waiting in the {@link Outbox}, serialized as is into its journal.
+ */
+public class OutboxEntry {
+
+    public enum Type {
+        /** A new status, with {@link #imagePath} when it has a picture. */
+        POST,
+        COMMENT,
+        REPOST,
+        FAVORITE
+    }
+
+    public enum State {
+        PENDING,
+        /** Handed to the network, the outcome is not known yet. */
+        SENDING
+    }
+
+    /** Client generated id, stable across retries. */
+    public String id;
+
+    public Type type;
+
+    public State state = State.PENDING;
+
+    /** Target status of a comment, repost or favorite. */
+    public long statusId;
+
+    public String text;
+
+    /** Private copy of the picture of a post. */
+    public String imagePath;
+
+    public String lat;
+
+    public String lon;
+
+    /** {@code comment_ori} of a comment as 0/1, or {@code is_comment} of a repost. */
+    public int commentType;
+
+    public long createdAt;
+
+    public int attempts;
+
+    /** Not retried before this time, in ms since the epoch. */
+    public long nextAttemptAt;
+
+    /** Message of the last failure, if any. */
+    public String lastError;
+
+    /** Access token the server rejected for this write, it is not sent with it again. */
+    public String rejectedToken;
+
+    public static OutboxEntry post(String text, String lat, String lon) {
+        OutboxEntry entry = new OutboxEntry(Type.POST);
+        entry.text = text;
+        entry.lat = lat;
+        entry.lon = lon;
+        return entry;
+    }
+
+    public static OutboxEntry comment(long statusId, String text, boolean commentOri) {
+        OutboxEntry entry = new OutboxEntry(Type.COMMENT);
+        entry.statusId = statusId;
+        entry.text = text;
+        entry.commentType = commentOri ? 1 : 0;
+        return entry;
+    }
+
+    public static OutboxEntry repost(long statusId, String text, int commentType) {
+        OutboxEntry entry = new OutboxEntry(Type.REPOST);
+        entry.statusId = statusId;
+        entry.text = text;
+        entry.commentType = commentType;
+        return entry;
+    }
+
+    public static OutboxEntry favorite(long statusId) {
+        OutboxEntry entry = new OutboxEntry(Type.FAVORITE);
+        entry.statusId = statusId;
+        return entry;
+    }
+
+    /**
+     * For Gson.
+     */
+    OutboxEntry() {
+    }
+
+    private OutboxEntry(Type type) {
+        this.type = type;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * @return true if {@code other} would write the same thing, e.g. a double tap
+     */
+    boolean isSameWrite(OutboxEntry other) {
+        return type == other.type && statusId == other.statusId
+                && (text == null ? other.text == null : text.equals(other.text));
+    }
+}
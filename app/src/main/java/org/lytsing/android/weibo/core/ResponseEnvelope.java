@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Tells a Weibo error body from a payload in one pass.
+ * <p>
+ * A failed call answers with {@code {"request": ..., "error_code": ..., "error": ...}},
+ * which may even come with HTTP 200. Only the first key of the body is peeked at: for
+ * an error the few fields are read into a {@link WeiboApiException}, anything else is
+ * handed on the same reader to the payload adapter. No body is buffered as a whole,
+ * searched or parsed twice.
+ */
+public final class ResponseEnvelope {
+
+    /** Enough for the whitespace and the first key of any body. */
+    private static final int PEEK_LIMIT = 64;
+
+    private static final String KEY_REQUEST = "request";
+
+    private static final String KEY_ERROR_CODE = "error_code";
+
+    private static final String KEY_ERROR = "error";
+
+    private ResponseEnvelope() {
+    }
+
+    /**
+     * @param reader the body, closed by the caller
+     * @param adapter the payload adapter
+     * @return the payload
+     * @throws WeiboApiException if the body is a Weibo error
+     * @throws IOException if the body is not valid JSON or can't be read
+     */
+    public static <T> T decode(Reader reader, TypeAdapter<T> adapter) throws IOException {
+        if (!reader.markSupported()) {
+            reader = new BufferedReader(reader);
+        }
+
+        if (isError(reader)) {
+            throw readError(newJsonReader(reader));
+        }
+        return adapter.read(newJsonReader(reader));
+    }
+
+    /**
+     * For the {@code String} results of the SDK's {@code RequestListener}s.
+     *
+     * @param body the response body
+     * @param clazz model class
+     * @return the payload
+     * @throws WeiboApiException if the body is empty or a Weibo error
+     * @throws JsonSyntaxException if the body is not valid JSON
+     */
+    public static <T> T decode(String body, Class<T> clazz) {
+        if (body == null || body.length() == 0) {
+            throw new WeiboApiException(0, "Empty response", null);
+        }
+
+        try {
+            return decode(new StringReader(body), GsonFactory.getAdapter(clazz));
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads the error of a failed call, e.g. the message of a
+     * {@code com.sina.weibo.sdk.exception.WeiboHttpException} or an HTTP 4xx body.
+     *
+     * @param reader the body, closed by the caller
+     * @return the error, or null if the body is not a Weibo error
+     */
+    public static WeiboApiException readError(Reader reader) {
+        try {
+            if (!reader.markSupported()) {
+                reader = new BufferedReader(reader);
+            }
+            return isError(reader) ? readError(newJsonReader(reader)) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @see #readError(Reader)
+     */
+    public static WeiboApiException readError(String body) {
+        return body == null ? null : readError(new StringReader(body));
+    }
+
+    /**
+     * Peeks at the first key of the body and puts the reader back where it was.
+     */
+    private static boolean isError(Reader reader) throws IOException {
+        reader.mark(PEEK_LIMIT);
+        try {
+            int c = skipWhitespace(reader);
+            if (c != '{') {
+                return false;
+            }
+            c = skipWhitespace(reader);
+            if (c != '"') {
+                return false;
+            }
+
+            StringBuilder key = new StringBuilder(16);
+            for (int i = 0; i < PEEK_LIMIT / 2; i++) {
+                c = reader.read();
+                if (c == '"') {
+                    String name = key.toString();
+                    return KEY_REQUEST.equals(name) || KEY_ERROR_CODE.equals(name)
+                            || KEY_ERROR.equals(name);
+                }
+                if (c < 0 || c == '\\') {
+                    return false;
+                }
+                key.append((char) c);
+            }
+            return false;
+        } finally {
+            reader.reset();
+        }
+    }
+
+    private static int skipWhitespace(Reader reader) throws IOException {
+        int c;
+        do {
+            c = reader.read();
+        } while (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\uFEFF');
+        return c;
+    }
+
+    private static WeiboApiException readError(JsonReader in) throws IOException {
+        int errorCode = 0;
+        String error = null;
+        String request = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (KEY_ERROR_CODE.equals(name)) {
+                // A number, or a string on some endpoints.
+                errorCode = parseInt(in.nextString());
+            } else if (KEY_ERROR.equals(name)) {
+                error = in.nextString();
+            } else if (KEY_REQUEST.equals(name)) {
+                request = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new WeiboApiException(errorCode, error != null ? error : "error " + errorCode,
+                request);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static JsonReader newJsonReader(Reader reader) {
+        JsonReader in = new JsonReader(reader);
+        in.setLenient(true);
+        return in;
+    }
+}
@@ -43,6 +43,7 @@ public class Session {
         Editor editor = pref.edit();
         editor.putString(Preferences.ACCESS_TOKEN, token.getToken());
         editor.putLong(Preferences.EXPIRES_IN, token.getExpiresTime());
+        editor.putString(Preferences.USER_ID, token.getUid());
         editor.commit();
     }
 
@@ -69,6 +70,7 @@ public class Session {
         SharedPreferences pref = Preferences.get(context);
         token.setToken(pref.getString(Preferences.ACCESS_TOKEN, ""));
         token.setExpiresTime(pref.getLong(Preferences.EXPIRES_IN, 0));
+        token.setUid(pref.getString(Preferences.USER_ID, null));
         return token;
     }
 }
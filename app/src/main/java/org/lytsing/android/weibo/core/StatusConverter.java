@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import org.lytsing.android.weibo.core.models.Geo;
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
+import org.lytsing.android.weibo.core.models.Visible;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Converts the models of the Weibo SDK ({@code com.sina.weibo.sdk.openapi.models}) into
+ * the app's, so that statuses fetched through the SDK are kept in the same compact
+ * form as the ones decoded by {@link GsonFactory}.
+ */
+public final class StatusConverter {
+
+    private StatusConverter() {
+    }
+
+    /**
+     * @param status a status parsed by the SDK, may be null
+     * @return the app's status, with the retweeted status converted as well
+     */
+    public static Statuses convert(com.sina.weibo.sdk.openapi.models.Status status) {
+        if (status == null) {
+            return null;
+        }
+
+        Statuses.Builder builder = new Statuses.Builder();
+        builder.created_at = WeiboDate.parse(status.created_at);
+        builder.id = parseId(status.id);
+        builder.text = status.text;
+        builder.source = Interner.intern(status.source);
+        builder.favorited = status.favorited;
+        builder.truncated = status.truncated;
+        builder.thumbnail_pic = emptyToNull(status.thumbnail_pic);
+        if (status.pic_urls != null && !status.pic_urls.isEmpty()) {
+            builder.pic_urls = new ArrayList<String>(status.pic_urls);
+        }
+        builder.user = convert(status.user);
+        builder.retweeted_status = convert(status.retweeted_status);
+        builder.reposts_count = status.reposts_count;
+        builder.comments_count = status.comments_count;
+        builder.attitudes_count = status.attitudes_count;
+
+        // Already decoded by the SDK, so there is nothing to defer.
+        Statuses.Details details = new Statuses.Details();
+        details.mid = parseId(status.mid);
+        details.in_reply_to_status_id = parseId(status.in_reply_to_status_id);
+        details.in_reply_to_user_id = parseId(status.in_reply_to_user_id);
+        details.in_reply_to_screen_name = Interner.intern(
+                emptyToNull(status.in_reply_to_screen_name));
+        details.bmiddle_pic = emptyToNull(status.bmiddle_pic);
+        details.original_pic = emptyToNull(status.original_pic);
+        details.geo = convert(status.geo);
+        details.visible = convert(status.visible);
+        return builder.details(details).build();
+    }
+
+    /**
+     * @param user a user parsed by the SDK, may be null
+     * @return the canonical instance from {@link UserCache}
+     */
+    public static User convert(com.sina.weibo.sdk.openapi.models.User user) {
+        if (user == null) {
+            return null;
+        }
+
+        User result = new User();
+        result.id = parseId(user.id);
+        result.screen_name = user.screen_name;
+        result.name = user.name;
+        result.domain = emptyToNull(user.domain);
+        result.province = String.valueOf(user.province);
+        result.city = String.valueOf(user.city);
+        result.location = user.location;
+        result.description = user.description;
+        result.url = emptyToNull(user.url);
+        result.profile_image_url = user.profile_image_url;
+        result.gender = user.gender;
+        result.weihao = emptyToNull(user.weihao);
+        result.followers_count = user.followers_count;
+        result.friends_count = user.friends_count;
+        result.statuses_count = user.statuses_count;
+        result.favourites_count = user.favourites_count;
+        result.created_at = user.created_at;
+        result.following = user.following;
+        result.allow_all_act_msg = user.allow_all_act_msg;
+        result.remark = emptyToNull(user.remark);
+        result.geo_enabled = user.geo_enabled;
+        result.verified = user.verified;
+        result.allow_all_comment = user.allow_all_comment;
+        result.avatar_large = user.avatar_large;
+        result.verified_reason = emptyToNull(user.verified_reason);
+        result.follow_me = user.follow_me;
+        result.online_status = user.online_status;
+        result.bi_followers_count = user.bi_followers_count;
+        return UserCache.getInstance().intern(result);
+    }
+
+    /**
+     * The SDK reads the {@code geo} of a status into its location model, the coordinates
+     * as latitude and longitude. Only those carry over, in the order of the API.
+     */
+    private static Geo convert(com.sina.weibo.sdk.openapi.models.Geo geo) {
+        if (geo == null || isEmpty(geo.latitude) || isEmpty(geo.longitude)) {
+            return null;
+        }
+
+        try {
+            Geo result = new Geo();
+            result.type = Interner.intern("Point");
+            result.coordinates = Arrays.asList(Float.parseFloat(geo.latitude),
+                    Float.parseFloat(geo.longitude));
+            return result;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Visible convert(com.sina.weibo.sdk.openapi.models.Visible visible) {
+        if (visible == null) {
+            return null;
+        }
+
+        Visible result = new Visible();
+        result.type = visible.type;
+        result.list_id = visible.list_id;
+        return result;
+    }
+
+    /**
+     * The SDK keeps ids as strings, "" when there is none.
+     */
+    private static long parseId(String id) {
+        if (id == null || id.length() == 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The SDK reads missing strings as "".
+     */
+    private static String emptyToNull(String value) {
+        return isEmpty(value) ? null : value;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+}
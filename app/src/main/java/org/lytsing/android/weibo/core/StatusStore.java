@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.lytsing.android.weibo.core;
+
+import android.util.LruCache;
+
+import com.google.gson.JsonParseException;
+
+import org.lytsing.android.weibo.core.models.Statuses;
+
+import java.io.IOException;
+
+/**
+ * Statuses by id, so that screens pass an id to each other instead of the status.
+ * <p>
+ * A screen opening another puts the status here and sends its id. The receiving screen
+ * takes it from here. If the process died in between, it uses the copy it saved with
+ * {@link #toState(Statuses)}, and after that it loads the status again.
+ */
+public final class StatusStore {
+
+    private static final StatusStore INSTANCE = new StatusStore();
+
+    private static final int MAX_STATUSES = 200;
+
+    private final LruCache<Long, Statuses> mStatuses = new LruCache<Long, Statuses>(MAX_STATUSES);
+
+    private StatusStore() {
+    }
+
+    public static StatusStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param status the status to keep, ignored if null or without an id
+     */
+    public void put(Statuses status) {
+        if (status != null && status.id != 0) {
+            mStatuses.put(status.id, status);
+        }
+    }
+
+    /**
+     * @param id status id
+     * @return the status, or null if it is not kept, e.g. after the process was restarted
+     */
+    public Statuses get(long id) {
+        return id == 0 ? null : mStatuses.get(id);
+    }
+
+    /**
+     * @param status the status to save with an instance state
+     * @return the status as written by its streaming adapter, for {@link #fromState(String)}
+     */
+    public static String toState(Statuses status) {
+        return status == null ? null : GsonFactory.getAdapter(Statuses.class).toJson(status);
+    }
+
+    /**
+     * @param state a string returned by {@link #toState(Statuses)}, may be null
+     * @return the status, also put into the store, or null if there is none
+     */
+    public Statuses fromState(String state) {
+        if (state == null) {
+            return null;
+        }
+
+        try {
+            Statuses status = GsonFactory.getAdapter(Statuses.class).fromJson(state);
+            put(status);
+            return status;
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+}
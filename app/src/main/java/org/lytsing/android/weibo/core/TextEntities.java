@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.lytsing.android.weibo.core;
+
+import java.util.Arrays;
+
+/**
+ * Finds the {@code #topics#}, {@code @mentions}, links and {@code [emoticons]} of a
+ * status text in one pass, when the status is decoded.
+ * <p>
+ * The result is a flat array of {@link #STRIDE} ints per entity: its type, the index of
+ * its first char and the index after its last one, in text order. Highlighting a text
+ * is then a loop over that array.
+ */
+public final class TextEntities {
+
+    public static final int TOPIC = 1;
+
+    public static final int MENTION = 2;
+
+    public static final int URL = 3;
+
+    public static final int EMOTICON = 4;
+
+    /** Ints per entity: type, start, end. */
+    public static final int STRIDE = 3;
+
+    /** Weibo nicknames are at most 30 chars. */
+    private static final int MAX_MENTION_LENGTH = 30;
+
+    /** Between the brackets, e.g. "[哈哈]". */
+    private static final int MAX_EMOTICON_LENGTH = 4;
+
+    private TextEntities() {
+    }
+
+    /**
+     * @param text a status text, may be null
+     * @return the entities of {@code text}, or null if there are none
+     */
+    public static int[] tokenize(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        int[] entities = null;
+        int size = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int type;
+            int end;
+            switch (text.charAt(i)) {
+                case '#':
+                    type = TOPIC;
+                    end = topicEnd(text, i);
+                    break;
+                case '@':
+                    type = MENTION;
+                    end = mentionEnd(text, i);
+                    break;
+                case 'h':
+                    type = URL;
+                    end = urlEnd(text, i);
+                    break;
+                case '[':
+                    type = EMOTICON;
+                    end = emoticonEnd(text, i);
+                    break;
+                default:
+                    type = 0;
+                    end = -1;
+                    break;
+            }
+
+            if (end < 0) {
+                i++;
+                continue;
+            }
+
+            if (entities == null) {
+                entities = new int[4 * STRIDE];
+            } else if (size == entities.length) {
+                entities = Arrays.copyOf(entities, 2 * size);
+            }
+            entities[size++] = type;
+            entities[size++] = i;
+            entities[size++] = end;
+            i = end;
+        }
+
+        return entities == null ? null : Arrays.copyOf(entities, size);
+    }
+
+    /**
+     * A topic is closed by a second '#' on the same line. The scan of an unclosed one
+     * stops at the next '#' or line break, so no char is scanned twice.
+     */
+    private static int topicEnd(String text, int start) {
+        for (int i = start + 1, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                return i > start + 1 ? i + 1 : -1;
+            } else if (c == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A mention runs over the letters, digits, '_' and '-' of a nickname, and must not
+     * follow a letter or digit, as the '@' of an email address does.
+     */
+    private static int mentionEnd(String text, int start) {
+        if (start > 0 && isAsciiLetterOrDigit(text.charAt(start - 1))) {
+            return -1;
+        }
+
+        int end = start + 1;
+        int limit = Math.min(text.length(), end + MAX_MENTION_LENGTH);
+        while (end < limit) {
+            char c = text.charAt(end);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+                break;
+            }
+            end++;
+        }
+        return end > start + 1 ? end : -1;
+    }
+
+    /**
+     * A link runs from "http://" or "https://" over printable ASCII, so it ends at a
+     * space or at the CJK text Weibo puts right after its short links.
+     */
+    private static int urlEnd(String text, int start) {
+        int end;
+        if (text.startsWith("http://", start)) {
+            end = start + 7;
+        } else if (text.startsWith("https://", start)) {
+            end = start + 8;
+        } else {
+            return -1;
+        }
+
+        int hostStart = end;
+        for (int length = text.length(); end < length; end++) {
+            char c = text.charAt(end);
+            if (c <= ' ' || c >= 0x7f) {
+                break;
+            }
+        }
+        return end > hostStart ? end : -1;
+    }
+
+    /**
+     * An emoticon is a short name without digits in brackets, e.g. "[哈哈]".
+     */
+    private static int emoticonEnd(String text, int start) {
+        int limit = Math.min(text.length(), start + MAX_EMOTICON_LENGTH + 2);
+        for (int i = start + 1; i < limit; i++) {
+            char c = text.charAt(i);
+            if (c == ']') {
+                return i > start + 1 ? i + 1 : -1;
+            } else if (c == '[' || (c >= '0' && c <= '9')) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.lytsing.android.weibo.core;
+
+import org.lytsing.android.weibo.core.models.Statuses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The statuses of a timeline, newest first, without duplicates.
+ * <p>
+ * Pages are merged by id: a status already there is replaced by its newer copy if what
+ * its row shows changed, a new one is put where its id belongs. New statuses almost
+ * always go on top or at the bottom, which are both O(1) as the statuses are kept in a
+ * ring. The ids are kept in an open addressing table of primitive longs, so checking a
+ * status for a duplicate is O(1) and boxes nothing.
+ * <p>
+ * Each status has a revision, bumped whenever its row content changes, so a list can
+ * tell which rows need to be bound again.
+ * <p>
+ * A page of newer statuses which was full but did not reach the ones there may have
+ * skipped some in between, so a {@link Gap} is kept below it until it is filled.
+ * Not thread safe, used on the main thread.
+ */
+public final class Timeline {
+
+    /**
+     * What a merge did.
+     */
+    public static final class Merge {
+        /** New statuses put above all the ones there before. */
+        public int insertedAtTop;
+
+        /** New statuses, wherever they went. */
+        public int inserted;
+
+        /** Statuses there before whose row content changed. */
+        public int changed;
+
+        /** Whether a gap was put below the statuses inserted at the top. */
+        public boolean gap;
+
+        public boolean isEmpty() {
+            return inserted == 0 && changed == 0;
+        }
+    }
+
+    /**
+     * Statuses which may be missing between two loaded ones, below {@link #newerId} and
+     * above {@link #olderId}. Replaced by a new gap as it is filled.
+     */
+    public static final class Gap {
+        /** The status just above the gap. */
+        public final long newerId;
+
+        /** The status just below the gap. */
+        public final long olderId;
+
+        Gap(long newerId, long olderId) {
+            this.newerId = newerId;
+            this.olderId = olderId;
+        }
+    }
+
+    private static final Comparator<Statuses> NEWEST_FIRST = new Comparator<Statuses>() {
+        @Override
+        public int compare(Statuses lhs, Statuses rhs) {
+            return lhs.id < rhs.id ? 1 : (lhs.id == rhs.id ? 0 : -1);
+        }
+    };
+
+    /** A ring of {@link #mSize} statuses from {@link #mHead}, capacity a power of two. */
+    private Statuses[] mItems = new Statuses[32];
+
+    private int mHead;
+
+    private int mSize;
+
+    private final IdTable mIds = new IdTable();
+
+    private int mRevision;
+
+    /** Newest first, there are hardly ever more than a few. */
+    private final List<Gap> mGaps = new ArrayList<Gap>();
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @param position 0 for the newest status
+     */
+    public Statuses get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Invalid index " + position + ", size is " + mSize);
+        }
+        return mItems[(mHead + position) & (mItems.length - 1)];
+    }
+
+    /**
+     * @return the oldest status, or null if there are none
+     */
+    public Statuses getLast() {
+        return mSize == 0 ? null : get(mSize - 1);
+    }
+
+    public boolean contains(long id) {
+        return mIds.indexOf(id) >= 0;
+    }
+
+    /**
+     * @return the status with {@code id}, or null if it is not in the timeline
+     */
+    public Statuses find(long id) {
+        return contains(id) ? get(positionOf(id)) : null;
+    }
+
+    /**
+     * @return the revision of the status with {@code id}, changed whenever its row content
+     *         changes, or -1 if it is not in the timeline
+     */
+    public int revision(long id) {
+        int index = mIds.indexOf(id);
+        return index < 0 ? -1 : mIds.mRevisions[index];
+    }
+
+    /**
+     * Replaces the status with the same id by {@code status}, a changed copy of it.
+     *
+     * @return false if there is no such status
+     */
+    public boolean replace(Statuses status) {
+        int index = mIds.indexOf(status.id);
+        if (index < 0) {
+            return false;
+        }
+        set(positionOf(status.id), status);
+        mIds.mRevisions[index] = ++mRevision;
+        return true;
+    }
+
+    public List<Statuses> toList() {
+        List<Statuses> list = new ArrayList<Statuses>(mSize);
+        for (int i = 0; i < mSize; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    public void clear() {
+        Arrays.fill(mItems, null);
+        mHead = 0;
+        mSize = 0;
+        mIds.clear();
+        mGaps.clear();
+    }
+
+    /**
+     * @return the gaps, newest first
+     */
+    public List<Gap> getGaps() {
+        return Collections.unmodifiableList(mGaps);
+    }
+
+    /**
+     * @return the position of the status just above {@code gap}
+     */
+    public int positionAbove(Gap gap) {
+        return positionOf(gap.newerId);
+    }
+
+    /**
+     * Merges a page of the statuses newer than the ones there, i.e. the response to a
+     * {@code since_id} request. If the page was full and none of it was there already,
+     * it may not reach the statuses there, so a gap is put below it.
+     *
+     * @param pageSize the number of statuses asked for
+     * @return what changed
+     */
+    public Merge mergeNewer(List<Statuses> page, int pageSize) {
+        Statuses top = mSize == 0 ? null : get(0);
+        boolean overlaps = false;
+        for (Statuses status : page) {
+            if (status != null && contains(status.id)) {
+                overlaps = true;
+                break;
+            }
+        }
+
+        Merge merge = merge(page);
+        if (top != null && !overlaps && page.size() >= pageSize && merge.insertedAtTop > 0) {
+            mGaps.add(0, new Gap(get(merge.insertedAtTop - 1).id, top.id));
+            merge.gap = true;
+        }
+        return merge;
+    }
+
+    /**
+     * Merges a page loaded into a gap, i.e. the response to a request with the
+     * {@code since_id} and {@code max_id} of the gap. A page which was not full
+     * reached the status below the gap and closes it, otherwise the rest of the gap
+     * is put below the page.
+     *
+     * @param gap the gap the page was asked for, ignored if it is not there any more
+     * @param pageSize the number of statuses asked for
+     * @return the rest of the gap, or null if it was closed
+     */
+    public Gap fillGap(Gap gap, List<Statuses> page, int pageSize) {
+        int index = mGaps.indexOf(gap);
+        if (index < 0) {
+            merge(page);
+            return null;
+        }
+
+        // The oldest status of the page inside the gap, whatever order the page is in.
+        long oldestId = Long.MAX_VALUE;
+        for (Statuses status : page) {
+            if (status != null && status.id > gap.olderId && status.id < oldestId) {
+                oldestId = status.id;
+            }
+        }
+
+        merge(page);
+        if (page.size() < pageSize || oldestId == Long.MAX_VALUE) {
+            mGaps.remove(index);
+            return null;
+        }
+
+        Gap rest = new Gap(oldestId, gap.olderId);
+        mGaps.set(index, rest);
+        return rest;
+    }
+
+    /**
+     * Merges a page of statuses, in any order. Statuses without an id are dropped.
+     *
+     * @return what changed
+     */
+    public Merge merge(List<Statuses> page) {
+        Merge merge = new Merge();
+        List<Statuses> fresh = new ArrayList<Statuses>(page.size());
+        for (Statuses status : page) {
+            if (status == null || status.id == 0) {
+                continue;
+            }
+
+            int index = mIds.indexOf(status.id);
+            if (index < 0) {
+                fresh.add(status);
+            } else {
+                int position = positionOf(status.id);
+                if (isChanged(get(position), status)) {
+                    set(position, status);
+                    mIds.mRevisions[index] = ++mRevision;
+                    merge.changed++;
+                }
+            }
+        }
+
+        // The sort is stable, so of a status repeated within the page the first copy wins.
+        Collections.sort(fresh, NEWEST_FIRST);
+        for (int i = fresh.size() - 1; i > 0; i--) {
+            if (fresh.get(i).id == fresh.get(i - 1).id) {
+                fresh.remove(i);
+            }
+        }
+        for (Statuses status : fresh) {
+            mIds.put(status.id, ++mRevision);
+        }
+
+        // Oldest first, so that each one newer than the top goes on top.
+        int newer = 0;
+        while (newer < fresh.size() && (mSize == 0 || fresh.get(newer).id > get(0).id)) {
+            newer++;
+        }
+        for (int i = newer - 1; i >= 0; i--) {
+            addFirst(fresh.get(i));
+        }
+
+        for (int i = newer; i < fresh.size(); i++) {
+            Statuses status = fresh.get(i);
+            if (status.id < getLast().id) {
+                addLast(status);
+            } else {
+                insert(status);
+            }
+        }
+
+        merge.insertedAtTop = newer;
+        merge.inserted = fresh.size();
+        return merge;
+    }
+
+    /**
+     * @return whether the counters or state a row shows differ in a newer copy of the
+     *         same status
+     */
+    public static boolean isChanged(Statuses status, Statuses newer) {
+        return status != newer
+                && (status.reposts_count != newer.reposts_count
+                || status.comments_count != newer.comments_count
+                || status.attitudes_count != newer.attitudes_count
+                || status.favorited != newer.favorited);
+    }
+
+    /**
+     * @return the position of the status with {@code id}, which must be there
+     */
+    private int positionOf(long id) {
+        // Newest first, so a binary search on descending ids.
+        int low = 0;
+        int high = mSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = get(mid).id;
+            if (midId > id) {
+                low = mid + 1;
+            } else if (midId < id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new IllegalStateException("Status " + id + " is not in the timeline");
+    }
+
+    private void set(int position, Statuses status) {
+        mItems[(mHead + position) & (mItems.length - 1)] = status;
+    }
+
+    private void addFirst(Statuses status) {
+        ensureCapacity();
+        mHead = (mHead - 1) & (mItems.length - 1);
+        mItems[mHead] = status;
+        mSize++;
+    }
+
+    private void addLast(Statuses status) {
+        ensureCapacity();
+        mItems[(mHead + mSize) & (mItems.length - 1)] = status;
+        mSize++;
+    }
+
+    /**
+     * Puts a status between others, where its id belongs. Only happens when a page
+     * overlaps the ones there in an unusual way, so shifting the ones below is fine.
+     */
+    private void insert(Statuses status) {
+        int position = 0;
+        while (position < mSize && get(position).id > status.id) {
+            position++;
+        }
+
+        addLast(status);
+        int mask = mItems.length - 1;
+        for (int i = mSize - 1; i > position; i--) {
+            mItems[(mHead + i) & mask] = mItems[(mHead + i - 1) & mask];
+        }
+        mItems[(mHead + position) & mask] = status;
+    }
+
+    private void ensureCapacity() {
+        if (mSize < mItems.length) {
+            return;
+        }
+
+        Statuses[] items = new Statuses[mItems.length * 2];
+        for (int i = 0; i < mSize; i++) {
+            items[i] = get(i);
+        }
+        mItems = items;
+        mHead = 0;
+    }
+
+    /**
+     * Status ids to revisions, open addressing with linear probing. 0 marks a free slot,
+     * no status has that id.
+     */
+    private static final class IdTable {
+        private long[] mKeys = new long[64];
+
+        private int[] mRevisions = new int[64];
+
+        private int mCount;
+
+        int indexOf(long id) {
+            int mask = mKeys.length - 1;
+            for (int i = hash(id) & mask; ; i = (i + 1) & mask) {
+                if (mKeys[i] == id) {
+                    return i;
+                } else if (mKeys[i] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long id, int revision) {
+            // Kept at most half full, so probes stay short.
+            if (2 * (mCount + 1) > mKeys.length) {
+                resize();
+            }
+
+            int mask = mKeys.length - 1;
+            int i = hash(id) & mask;
+            while (mKeys[i] != 0 && mKeys[i] != id) {
+                i = (i + 1) & mask;
+            }
+            if (mKeys[i] == 0) {
+                mCount++;
+            }
+            mKeys[i] = id;
+            mRevisions[i] = revision;
+        }
+
+        void clear() {
+            Arrays.fill(mKeys, 0);
+            mCount = 0;
+        }
+
+        private void resize() {
+            long[] keys = mKeys;
+            int[] revisions = mRevisions;
+            mKeys = new long[keys.length * 2];
+            mRevisions = new int[keys.length * 2];
+            mCount = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    put(keys[i], revisions[i]);
+                }
+            }
+        }
+
+        private static int hash(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
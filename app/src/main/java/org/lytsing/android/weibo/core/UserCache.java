@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import com.orhanobut.logger.Logger;
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.net.RequestListener;
+import com.sina.weibo.sdk.openapi.BatchDispatcher;
+
+import org.lytsing.android.weibo.core.models.User;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The one place users live: every {@link User} decoded by {@link GsonFactory}, in a
+ * status, a retweeted status or a comment, is replaced by the single instance kept
+ * here for its uid.
+ * <p>
+ * This is what makes {@code trim_user} timelines possible. A trimmed status only
+ * carries the uid of its author; the author is taken from this cache, or fetched with
+ * the other missing ones in one {@code users/show_batch} request, and filled into the
+ * instance the status already holds. Entries older than {@link #STALE_AFTER_MS} are
+ * refreshed the same way in the background. Users are only filled in on the main
+ * thread, see {@link User#update(User)}.
+ * <p>
+ * The cache is kept in memory as an LRU and written to disk after changes.
+ */
+public final class UserCache {
+
+    /**
+     * Called on the main thread after users were filled in or refreshed.
+     */
+    public interface Listener {
+        void onUsersUpdated();
+    }
+
+    private static final UserCache INSTANCE = new UserCache();
+
+    private static final int MAX_USERS = 1000;
+
+    private static final long STALE_AFTER_MS = 24 * 60 * 60 * 1000;
+
+    private static final long SAVE_DELAY_MS = 5 * 1000;
+
+    private static final String FILE_NAME = "users.json";
+
+    private static final String CHARSET = "UTF-8";
+
+    /** What is written to disk per user. */
+    private static class Entry {
+        User user;
+
+        long fetchedAt;
+    }
+
+    /** Guarded by itself. */
+    private final LruCache<Long, Entry> mEntries = new LruCache<Long, Entry>(MAX_USERS);
+
+    /** Uids asked for and not back yet. Guarded by {@link #mEntries}. */
+    private final Set<Long> mFetching = new HashSet<Long>();
+
+    /** Without the user adapter of {@link GsonFactory}, which would intern what is read. */
+    private final Gson mGson = new Gson();
+
+    private final List<Listener> mListeners = new CopyOnWriteArrayList<Listener>();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final ExecutorService mDiskExecutor = Executors.newSingleThreadExecutor();
+
+    private final Runnable mSaveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDiskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    save();
+                }
+            });
+        }
+    };
+
+    private final Runnable mNotifyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            for (Listener listener : mListeners) {
+                listener.onUsersUpdated();
+            }
+        }
+    };
+
+    private Context mContext;
+
+    private File mFile;
+
+    private BatchDispatcher mDispatcher;
+
+    private UserCache() {
+    }
+
+    public static UserCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the cache from disk and enables fetching. Before this users are only interned.
+     */
+    public void attach(Context context) {
+        mContext = context.getApplicationContext();
+        mFile = new File(mContext.getCacheDir(), FILE_NAME);
+        mDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    public void addListener(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @param uid user id
+     * @return the cached user, or null
+     */
+    public User get(long uid) {
+        synchronized (mEntries) {
+            Entry entry = mEntries.get(uid);
+            return entry == null ? null : entry.user;
+        }
+    }
+
+    /**
+     * Returns the one instance of {@code user}. A full copy updates the cached instance;
+     * a stub is resolved from the cache, or cached as is and filled in later.
+     *
+     * @param user a freshly decoded user
+     * @return the canonical instance, which may be {@code user} itself
+     */
+    public User intern(User user) {
+        if (user == null) {
+            return null;
+        }
+
+        boolean fetch;
+        User canonical;
+        long now = System.currentTimeMillis();
+        synchronized (mEntries) {
+            Entry entry = mEntries.get(user.id);
+            if (entry == null) {
+                entry = new Entry();
+                entry.user = user;
+                mEntries.put(user.id, entry);
+            } else if (!user.isStub() && entry.user != user) {
+                fill(entry.user, user);
+            }
+
+            if (!user.isStub()) {
+                entry.fetchedAt = now;
+            }
+
+            canonical = entry.user;
+            fetch = (canonical.isStub() || now - entry.fetchedAt > STALE_AFTER_MS)
+                    && mFetching.add(user.id);
+        }
+
+        if (!user.isStub()) {
+            scheduleSave();
+        }
+        if (fetch) {
+            fetch(user.id);
+        }
+        return canonical;
+    }
+
+    /**
+     * Copies a fresh copy of a user into its canonical instance, on the main thread, where
+     * rows read users without locking, see {@link User#update(User)}.
+     */
+    private void fill(final User canonical, final User fresh) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            canonical.update(fresh);
+            return;
+        }
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                canonical.update(fresh);
+            }
+        });
+        notifyUpdated();
+    }
+
+    private void fetch(final long uid) {
+        BatchDispatcher dispatcher = getDispatcher();
+        if (dispatcher == null) {
+            synchronized (mEntries) {
+                mFetching.remove(uid);
+            }
+            return;
+        }
+
+        dispatcher.request(uid, new RequestListener() {
+            @Override
+            public void onComplete(String response) {
+                synchronized (mEntries) {
+                    mFetching.remove(uid);
+                }
+                try {
+                    User user = mGson.fromJson(response, User.class);
+                    if (user != null) {
+                        intern(user);
+                        notifyUpdated();
+                    }
+                } catch (JsonParseException e) {
+                    Logger.e("Bad user " + uid, e);
+                }
+            }
+
+            @Override
+            public void onWeiboException(WeiboException e) {
+                synchronized (mEntries) {
+                    mFetching.remove(uid);
+                }
+                Logger.w("Can't fetch user " + uid + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private synchronized BatchDispatcher getDispatcher() {
+        if (mDispatcher == null && mContext != null) {
+            mDispatcher = BatchDispatcher.forUsers(Session.restore(mContext));
+        }
+        return mDispatcher;
+    }
+
+    /**
+     * Forgets the token the users are fetched with, after a new login.
+     */
+    public synchronized void onSessionChanged() {
+        mDispatcher = null;
+    }
+
+    private void notifyUpdated() {
+        // One redraw for a whole batch.
+        mHandler.removeCallbacks(mNotifyRunnable);
+        mHandler.post(mNotifyRunnable);
+    }
+
+    private void scheduleSave() {
+        if (mFile == null) {
+            return;
+        }
+        mHandler.removeCallbacks(mSaveRunnable);
+        mHandler.postDelayed(mSaveRunnable, SAVE_DELAY_MS);
+    }
+
+    private void load() {
+        if (!mFile.exists()) {
+            return;
+        }
+
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(mFile), CHARSET);
+            Entry[] entries = mGson.fromJson(reader, Entry[].class);
+            if (entries == null) {
+                return;
+            }
+            synchronized (mEntries) {
+                for (Entry entry : entries) {
+                    if (entry.user != null && mEntries.get(entry.user.id) == null) {
+                        mEntries.put(entry.user.id, entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Logger.e("Can't read the user cache", e);
+        } catch (JsonParseException e) {
+            Logger.e("Corrupt user cache", e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private void save() {
+        List<Entry> entries = new ArrayList<Entry>();
+        synchronized (mEntries) {
+            for (Map.Entry<Long, Entry> entry : mEntries.snapshot().entrySet()) {
+                if (!entry.getValue().user.isStub()) {
+                    entries.add(entry.getValue());
+                }
+            }
+        }
+
+        File temp = new File(mFile.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(temp), CHARSET);
+            JsonWriter json = new JsonWriter(writer);
+            json.beginArray();
+            for (Entry entry : entries) {
+                // Users are filled in on the main thread, under their lock.
+                synchronized (entry.user) {
+                    mGson.toJson(entry, Entry.class, json);
+                }
+            }
+            json.endArray();
+            json.close();
+            writer = null;
+            if (!temp.renameTo(mFile)) {
+                Logger.e("Can't replace the user cache");
+            }
+        } catch (IOException e) {
+            Logger.e("Can't write the user cache", e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
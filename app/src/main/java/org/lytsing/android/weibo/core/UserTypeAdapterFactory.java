@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.lytsing.android.weibo.core.models.User;
+
+import java.io.IOException;
+
+/**
+ * Reads every {@link User} through {@link UserCache#intern(User)}, and accepts a bare
+ * uid in place of the user object, as sent for {@code trim_user=1}.
+ */
+final class UserTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != User.class) {
+            return null;
+        }
+
+        final TypeAdapter<User> delegate = gson.getDelegateAdapter(this,
+                TypeToken.get(User.class));
+        return (TypeAdapter<T>) new TypeAdapter<User>() {
+            @Override
+            public void write(JsonWriter out, User value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public User read(JsonReader in) throws IOException {
+                JsonToken token = in.peek();
+                if (token == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+
+                User user;
+                if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+                    user = new User();
+                    user.id = in.nextLong();
+                } else {
+                    user = delegate.read(in);
+                }
+                return UserCache.getInstance().intern(user);
+            }
+        };
+    }
+}
@@ -16,9 +16,9 @@
 
 package org.lytsing.android.weibo.core;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.sina.weibo.sdk.auth.Oauth2AccessToken;
 
+import org.lytsing.android.weibo.core.services.CommentsService;
 import org.lytsing.android.weibo.core.services.FavoriteService;
 import org.lytsing.android.weibo.core.services.SearchService;
 import org.lytsing.android.weibo.core.services.StatusesService;
@@ -26,23 +26,49 @@ import org.lytsing.android.weibo.core.services.StatusesService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import javax.net.ssl.SSLSocketFactory;
+
+import retrofit.RequestInterceptor;
 import retrofit.RestAdapter;
+import retrofit.android.MainThreadExecutor;
+import retrofit.converter.GsonConverter;
 
 /**
- * Weibo Api Client.
+ * Weibo Api Client, a typed Retrofit client for {@link Configuration#API_SERVER}.
+ * <p>
+ * Requests run on the shared executor of {@link WeiboCore}, through the pooled OkHttp
+ * client of {@link DefaultClient}, and are decoded with the app-wide Gson of
+ * {@link GsonFactory}. Callbacks are invoked on the main thread.
  * @author Liqing Huang
  */
 public class WeiboApiClient {
-    final ConcurrentHashMap<Class, Object> services;
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+
+    final ConcurrentHashMap<Class<?>, Object> services;
 
     final RestAdapter adapter;
 
-    WeiboApiClient(SSLSocketFactory sslSocketFactory, ExecutorService executorService) {
+    WeiboApiClient(final Oauth2AccessToken token, SSLSocketFactory sslSocketFactory,
+            ExecutorService executorService) {
 
-        this.services = new ConcurrentHashMap();
+        this.services = new ConcurrentHashMap<Class<?>, Object>();
 
-        Gson gson = new GsonBuilder().create();
-        this.adapter = new RestAdapter.Builder().build();
+        this.adapter = new RestAdapter.Builder()
+                .setEndpoint(Configuration.API_SERVER)
+                .setClient(new DefaultClient(sslSocketFactory))
+                .setExecutors(executorService, new MainThreadExecutor())
+                .setConverter(new GsonConverter(GsonFactory.getGson()))
+                .setRequestInterceptor(new RequestInterceptor() {
+                    @Override
+                    public void intercept(RequestFacade request) {
+                        // Keeps the token out of urls, and so out of logs and cache keys.
+                        request.addHeader(HEADER_AUTHORIZATION, "OAuth2 " + token.getToken());
+                    }
+                })
+                .build();
+    }
+
+    public CommentsService getCommentsService() {
+        return getService(CommentsService.class);
     }
 
     public FavoriteService getFavoriteService() {
@@ -57,11 +83,13 @@ public class WeiboApiClient {
         return getService(SearchService.class);
     }
 
+    @SuppressWarnings("unchecked")
     protected <T> T getService(Class<T> cls) {
-        if (!this.services.contains(cls)) {
+        Object service = this.services.get(cls);
+        if (service == null) {
             this.services.putIfAbsent(cls, this.adapter.create(cls));
+            service = this.services.get(cls);
         }
-        return (T) this.services.get(cls);
+        return (T) service;
     }
 }
-
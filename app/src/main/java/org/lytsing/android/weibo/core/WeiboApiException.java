@@ -17,34 +17,45 @@
 package org.lytsing.android.weibo.core;
 
 import com.android.volley.VolleyLog;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonSyntaxException;
-
-import org.lytsing.android.weibo.core.models.ApiError;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import retrofit.RetrofitError;
 import retrofit.mime.TypedByteArray;
 
 /**
- * Weibo Api Exception.
+ * Weibo Api Exception, carrying the {@code error_code} and {@code error} of the response.
  * @author Liqing Huang
  */
 public class WeiboApiException extends WeiboException {
-    private static final String ERROR_CODE = "code";
-
     private static final int DEFAULT_ERROR_CODE = 0;
 
     private final RetrofitError mRetrofitError;
 
     private final int mErrorCode;
 
+    private final String mRequest;
+
     WeiboApiException(int mErrorCode, RetrofitError retrofitError) {
         super(retrofitError.getMessage());
         this.mRetrofitError = retrofitError;
         this.mErrorCode = mErrorCode;
+        this.mRequest = null;
+    }
+
+    /**
+     * An error body decoded by {@link ResponseEnvelope}.
+     *
+     * @param errorCode Weibo {@code error_code}
+     * @param error Weibo {@code error}, the message
+     * @param request the endpoint which failed, may be null
+     */
+    WeiboApiException(int errorCode, String error, String request) {
+        super(error);
+        this.mRetrofitError = null;
+        this.mErrorCode = errorCode;
+        this.mRequest = request;
     }
 
     WeiboApiException(RetrofitError retrofitError) {
@@ -53,6 +64,7 @@ public class WeiboApiException extends WeiboException {
 
         this.mRetrofitError = retrofitError;
         this.mErrorCode = readErrorCode(retrofitError);
+        this.mRequest = null;
     }
 
     private static String createExceptionMessage(RetrofitError retrofitError) {
@@ -69,7 +81,25 @@ public class WeiboApiException extends WeiboException {
         return this.mErrorCode;
     }
 
+    /**
+     * @return the endpoint named in the error body, or null
+     */
+    public String getRequest() {
+        return this.mRequest;
+    }
+
+    /**
+     * @return true if the request failed before getting a response, or with a 5xx
+     */
     public boolean canRetry() {
+        if (this.mRetrofitError == null) {
+            // The API answered, with an error.
+            return false;
+        }
+        if (this.mRetrofitError.getResponse() == null) {
+            return true;
+        }
+
         int status = this.mRetrofitError.getResponse().getStatus();
         return (status < 400) || (status > 499);
     }
@@ -94,29 +124,17 @@ public class WeiboApiException extends WeiboException {
         }
 
         try {
-            String response = new String(responseBytes, "UTF-8");
-            return parseErrorCode(response);
+            WeiboApiException error = ResponseEnvelope.readError(
+                    new InputStreamReader(new ByteArrayInputStream(responseBytes), "UTF-8"));
+            return error == null ? DEFAULT_ERROR_CODE : error.getmErrorCode();
         } catch (UnsupportedEncodingException e) {
-            VolleyLog.e("Twitter", "Failed to convert to string", e);
+            VolleyLog.e("Weibo", "Failed to convert to string", e);
         }
-        return 0;
+        return DEFAULT_ERROR_CODE;
     }
 
     static int parseErrorCode(String response) {
-        Gson gson = new Gson();
-        try {
-            JsonObject responseObj = new JsonParser().parse(response).getAsJsonObject();
-            ApiError[] apiErrors = gson.fromJson(responseObj.get("errors"),
-                    ApiError[].class);
-
-            if (apiErrors.length == 0) {
-                return 0;
-            }
-
-            return apiErrors[0].getCode();
-        } catch (JsonSyntaxException e) {
-            VolleyLog.e("Twitter", "Invalid json: " + response, e);
-        }
-        return 0;
+        WeiboApiException error = ResponseEnvelope.readError(response);
+        return error == null ? DEFAULT_ERROR_CODE : error.getmErrorCode();
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.sina.weibo.sdk.auth.Oauth2AccessToken;
+
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Entry point of the typed Weibo API, holds what every {@link WeiboApiClient} shares.
+ * @author Liqing Huang
+ */
+public final class WeiboCore {
+    private static final int POOL_SIZE = 4;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final WeiboCore INSTANCE = new WeiboCore();
+
+    private final ExecutorService mExecutorService;
+
+    private SSLSocketFactory mSslSocketFactory;
+
+    private WeiboApiClient mApiClient;
+
+    private String mApiClientToken;
+
+    private WeiboCore() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                r.run();
+                            }
+                        }, "WeiboApi #" + mCount.getAndIncrement());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        mExecutorService = executor;
+    }
+
+    public static WeiboCore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the executor all API calls run on
+     */
+    public ExecutorService getExecutorService() {
+        return mExecutorService;
+    }
+
+    /**
+     * @param sslSocketFactory socket factory for api.weibo.com, e.g. with a pinned certificate;
+     *        null for the platform default
+     */
+    public synchronized void setSSLSocketFactory(SSLSocketFactory sslSocketFactory) {
+        mSslSocketFactory = sslSocketFactory;
+        mApiClient = null;
+    }
+
+    /**
+     * @param token access token of the session
+     * @return the client for {@code token}, created once per token
+     */
+    public synchronized WeiboApiClient getApiClient(Oauth2AccessToken token) {
+        if (mApiClient == null || !token.getToken().equals(mApiClientToken)) {
+            mApiClient = new WeiboApiClient(token, mSslSocketFactory, mExecutorService);
+            mApiClientToken = token.getToken();
+        }
+        return mApiClient;
+    }
+}
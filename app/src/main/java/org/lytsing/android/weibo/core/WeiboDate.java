@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Reads and writes the {@code created_at} timestamps of the API,
+ * e.g. {@code "Tue May 31 17:46:55 +0800 2011"}.
+ * <p>
+ * Every status and comment carries one, so they are read by a parser for exactly that
+ * layout, which neither allocates nor locks. Anything else goes to a
+ * {@link SimpleDateFormat}. Like it, out of range fields roll over into the next
+ * larger one, and the day of the week is not checked.
+ */
+public final class WeiboDate {
+
+    private static final String FORMAT = "EEE MMM dd HH:mm:ss Z yyyy";
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    /** Length of the fixed layout, "Tue May 31 17:46:55 +0800 2011". */
+    private static final int LENGTH = 30;
+
+    private static final long SECOND = 1000;
+
+    private static final long MINUTE = 60 * SECOND;
+
+    private static final long HOUR = 60 * MINUTE;
+
+    private static final long DAY = 24 * HOUR;
+
+    /** SimpleDateFormat is not thread safe, guarded by itself. */
+    private static final SimpleDateFormat DATE_FORMAT = createFormat();
+
+    private WeiboDate() {
+    }
+
+    private static SimpleDateFormat createFormat() {
+        SimpleDateFormat format = new SimpleDateFormat(FORMAT, Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    /**
+     * @param value a {@code created_at} value
+     * @return ms since the epoch, or 0 if {@code value} is empty or malformed
+     */
+    public static long parse(String value) {
+        if (value == null || value.length() == 0) {
+            return 0;
+        }
+
+        long time = parseFixed(value);
+        if (time != Long.MIN_VALUE) {
+            return time;
+        }
+
+        synchronized (DATE_FORMAT) {
+            try {
+                return DATE_FORMAT.parse(value).getTime();
+            } catch (ParseException e) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return ms since the epoch, or {@link Long#MIN_VALUE} if {@code value} is not laid
+     *         out as {@code "EEE MMM dd HH:mm:ss +hhmm yyyy"}
+     */
+    private static long parseFixed(String value) {
+        if (value.length() != LENGTH
+                || value.charAt(3) != ' ' || value.charAt(7) != ' ' || value.charAt(10) != ' '
+                || value.charAt(13) != ':' || value.charAt(16) != ':'
+                || value.charAt(19) != ' ' || value.charAt(25) != ' ') {
+            return Long.MIN_VALUE;
+        }
+
+        int month = -1;
+        for (int i = 0; i < 12; i++) {
+            if (value.regionMatches(4, MONTHS, i * 3, 3)) {
+                month = i + 1;
+                break;
+            }
+        }
+
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        int offsetHours = digits(value, 21, 2);
+        int offsetMinutes = digits(value, 23, 2);
+        int year = digits(value, 26, 4);
+        char sign = value.charAt(20);
+        if (month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0
+                || offsetHours < 0 || offsetMinutes < 0 || year < 0
+                || (sign != '+' && sign != '-')) {
+            return Long.MIN_VALUE;
+        }
+
+        long offset = offsetHours * HOUR + offsetMinutes * MINUTE;
+        return daysFromCivil(year, month, day) * DAY
+                + hour * HOUR + minute * MINUTE + second * SECOND
+                - (sign == '+' ? offset : -offset);
+    }
+
+    /**
+     * @return the decimal value of {@code count} digits at {@code start}, or -1
+     */
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start, end = start + count; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Days from 1970-01-01 to the given day of the proleptic Gregorian calendar, as in
+     * Howard Hinnant's "chrono-Compatible Low-Level Date Algorithms". A day past the end
+     * of its month rolls over into the next.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * @param time ms since the epoch
+     * @return {@code time} in the format of the API, or null for 0
+     */
+    public static String format(long time) {
+        if (time == 0) {
+            return null;
+        }
+
+        synchronized (DATE_FORMAT) {
+            return DATE_FORMAT.format(time);
+        }
+    }
+}
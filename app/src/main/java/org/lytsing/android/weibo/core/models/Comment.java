@@ -16,16 +16,20 @@
 
 package org.lytsing.android.weibo.core.models;
 
+import com.google.gson.annotations.SerializedName;
+
 /**
  * @author Liqing Huang
  */
 public class Comment {
     private long id;
     private String author;
+    @SerializedName("created_at")
     private String createdAt;
     private String text;
     private String source;
     private boolean isTruncated;
+    private User user;
 
     public void setId(long id) {
         this.id = id;
@@ -40,9 +44,20 @@ public class Comment {
     }
 
     public String getAuthor() {
+        if (this.author == null && this.user != null) {
+            return this.user.name;
+        }
         return this.author;
     }
 
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public User getUser() {
+        return this.user;
+    }
+
     public void setCreationTime(String time) {
         this.createdAt = time;
     }
@@ -16,30 +16,23 @@
 
 package org.lytsing.android.weibo.core.models;
 
+import java.util.List;
+
 import com.google.gson.annotations.SerializedName;
 
+
 /**
  * @author Liqing Huang
  */
-public class ApiError {
-
-    @SerializedName("message")
-    private final String message;
+public class CommentsObject {
+    public List<Comment> comments;
 
-    @SerializedName("code")
-    private final int code;
+    @SerializedName("previous_cursor")
+    public long previous_cursor;
 
-    public ApiError(String message, int code) {
-        this.message = message;
-        this.code = code;
-    }
+    @SerializedName("next_cursor")
+    public long next_cursor;
 
-    public String getMessage() {
-        return this.message;
-    }
-
-    public int getCode() {
-        return this.code;
-    }
+    @SerializedName("total_number")
+    public int total_number;
 }
-
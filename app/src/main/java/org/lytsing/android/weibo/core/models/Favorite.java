@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core.models;
+
+import java.io.Serializable;
+
+/**
+ * A favorited status, as listed by {@code favorites.json}.
+ */
+public class Favorite implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 收藏的微博. */
+    public Statuses status;
+
+    /** 收藏时间. */
+    public String favorited_time;
+}
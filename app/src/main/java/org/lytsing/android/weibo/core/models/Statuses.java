@@ -16,78 +16,294 @@
 
 package org.lytsing.android.weibo.core.models;
 
+import com.google.gson.JsonParseException;
 
+import org.lytsing.android.weibo.core.GsonFactory;
+import org.lytsing.android.weibo.core.TextEntities;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.util.List;
 
 /**
+ * The one status model of the app, for timeline entries and the originals of reposts
+ * alike. Ids are primitives, the creation time is parsed once when decoded and
+ * strings repeated across statuses, such as {@link #source}, are interned.
+ * <p>
+ * What a timeline row shows is final: a status is built once by a {@link Builder}, and a
+ * change, such as new counts, makes a copy which replaces it. A status can be shared by
+ * the timeline, the {@link org.lytsing.android.weibo.core.StatusStore} and a background
+ * thread measuring its text without any of them seeing it half updated.
+ * <p>
+ * Only what a timeline row shows is decoded up front. The fields read by the detail
+ * screen alone are kept as the JSON they came in, and decoded by {@link #getDetails()}
+ * the first time they are asked for.
  * @author Liqing Huang
  */
 public class Statuses implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 4L;
 
-    /** 创建时间. */
-    public String created_at;
+    /** 创建时间, ms since the epoch, 0 if unknown. */
+    public final long created_at;
 
     /** 微博ID. */
-    public long id;
-
-    public String mid;
-
-    /** 字符串型的微博ID. */
-    public String idstr;
+    public final long id;
 
     /** 微博信息内容. */
-    public String text;
+    public final String text;
 
     /** 微博来源. */
-    public String source;
+    public final String source;
 
     /** 是否已收藏. */
-    public boolean favorited;
+    public final boolean favorited;
 
     /** 是否被截断. */
-    public boolean truncated;
+    public final boolean truncated;
 
-    /** 回复ID. */
-    public String in_reply_to_status_id;
+    /** 缩略图. */
+    public final String thumbnail_pic;
 
-    /** 回复人UID. */
-    public String  in_reply_to_user_id;
+    /** 多图时的缩略图, null if there are none. */
+    public final List<String> pic_urls;
 
-    /** 回复人昵称. */
-    public String in_reply_to_screen_name;
+    /** 微博作者的用户信息字段, filled in by the user cache if it is still a stub. */
+    public final User user;
 
-    /** 缩略图. */
-    public String thumbnail_pic;
+    /** 转发的博文，如果不是转发，则为 null. */
+    public final Statuses retweeted_status;
 
-    /** 中型图片. */
-    public String bmiddle_pic;
+    /** 转发数. */
+    public final int reposts_count;
 
-    /** 原始图片. */
-    public String original_pic;
+    /** 评论数. */
+    public final int comments_count;
 
-    /** 地理信息字段. */
-    //public List<Geo> geo;
-    public Geo geo;
+    /** 表态数. */
+    public final int attitudes_count;
 
-    /** 微博作者的用户信息字段. */
-    public User user;
+    /** The entities found in {@link #text}, null if there are none. */
+    private final int[] mTextEntities;
 
-    /** 转发的博文，如果不是转发，则没有此字段. */
-    public RetweetedStatus retweeted_status;
+    private final boolean mHasGeo;
 
-    /** 转发数. */
-    public int reposts_count;
+    /** The undecoded details, a UTF-8 JSON object, null once decoded. */
+    private byte[] mDetailsJson;
 
-    /** 评论数. */
-    public int comments_count;
+    private Details mDetails;
 
-    /** 表态数. */
-    public int attitudes_count;
+    private Statuses(Builder builder) {
+        created_at = builder.created_at;
+        id = builder.id;
+        text = builder.text;
+        source = builder.source;
+        favorited = builder.favorited;
+        truncated = builder.truncated;
+        thumbnail_pic = builder.thumbnail_pic;
+        pic_urls = builder.pic_urls;
+        user = builder.user;
+        retweeted_status = builder.retweeted_status;
+        reposts_count = builder.reposts_count;
+        comments_count = builder.comments_count;
+        attitudes_count = builder.attitudes_count;
+        mTextEntities = builder.mEntitiesText == text
+                ? builder.mTextEntities : TextEntities.tokenize(text);
+        mHasGeo = builder.mHasGeo;
+        mDetailsJson = builder.mDetailsJson;
+        mDetails = builder.mDetails;
+    }
 
-    public int melvel;
+    /**
+     * @return a copy with the given counts
+     */
+    public Statuses withCounts(int reposts, int comments, int attitudes) {
+        Builder builder = new Builder(this);
+        builder.reposts_count = reposts;
+        builder.comments_count = comments;
+        builder.attitudes_count = attitudes;
+        return builder.build();
+    }
 
-    public Visible visible;
-}
+    /**
+     * @return a copy, favorited or not
+     */
+    public Statuses withFavorited(boolean favorited) {
+        Builder builder = new Builder(this);
+        builder.favorited = favorited;
+        return builder.build();
+    }
+
+    /**
+     * @return the topics, mentions, links and emoticons of {@link #text} as laid out by
+     *         {@link TextEntities}, or null
+     */
+    public int[] getTextEntities() {
+        return mTextEntities;
+    }
+
+    /**
+     * @return whether the status carries a location, without decoding it
+     */
+    public boolean hasGeo() {
+        return mHasGeo;
+    }
+
+    /**
+     * @return the details, decoded on first use, never null
+     */
+    public synchronized Details getDetails() {
+        if (mDetails == null) {
+            mDetails = Details.decode(mDetailsJson);
+            mDetailsJson = null;
+        }
+        return mDetails;
+    }
+
+    /**
+     * Builds a status field by field, as a decoder reads it, or from a copy of another.
+     * The text is split into its entities when the status is built.
+     */
+    public static final class Builder {
+        public long created_at;
+
+        public long id;
+
+        public String text;
+
+        public String source;
+
+        public boolean favorited;
+
+        public boolean truncated;
+
+        public String thumbnail_pic;
+
+        public List<String> pic_urls;
+
+        public User user;
+
+        public Statuses retweeted_status;
 
+        public int reposts_count;
+
+        public int comments_count;
+
+        public int attitudes_count;
+
+        /** The text {@link #mTextEntities} were found in, they are reused while it stays. */
+        private String mEntitiesText;
+
+        private int[] mTextEntities;
+
+        private boolean mHasGeo;
+
+        private byte[] mDetailsJson;
+
+        private Details mDetails;
+
+        public Builder() {
+        }
+
+        /**
+         * Starts from the fields and details of {@code status}.
+         */
+        public Builder(Statuses status) {
+            created_at = status.created_at;
+            id = status.id;
+            text = status.text;
+            source = status.source;
+            favorited = status.favorited;
+            truncated = status.truncated;
+            thumbnail_pic = status.thumbnail_pic;
+            pic_urls = status.pic_urls;
+            user = status.user;
+            retweeted_status = status.retweeted_status;
+            reposts_count = status.reposts_count;
+            comments_count = status.comments_count;
+            attitudes_count = status.attitudes_count;
+            mEntitiesText = status.text;
+            mTextEntities = status.mTextEntities;
+            mHasGeo = status.mHasGeo;
+            synchronized (status) {
+                mDetailsJson = status.mDetailsJson;
+                mDetails = status.mDetails;
+            }
+        }
+
+        /**
+         * Sets the details as read by a streaming decoder, to be decoded on first use.
+         *
+         * @param json the detail fields as a UTF-8 JSON object
+         * @param hasGeo whether {@code json} holds a {@code geo}
+         */
+        public Builder detailsJson(byte[] json, boolean hasGeo) {
+            mDetails = null;
+            mDetailsJson = json;
+            mHasGeo = hasGeo;
+            return this;
+        }
+
+        /**
+         * Sets details which are already decoded, e.g. converted from another model.
+         */
+        public Builder details(Details details) {
+            mDetails = details;
+            mDetailsJson = null;
+            mHasGeo = details != null && details.geo != null;
+            return this;
+        }
+
+        public Statuses build() {
+            return new Statuses(this);
+        }
+    }
+
+    /**
+     * The fields of a status which no timeline row shows.
+     */
+    public static class Details implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** 微博MID. */
+        public long mid;
+
+        /** 回复ID, 0 if none. */
+        public long in_reply_to_status_id;
+
+        /** 回复人UID, 0 if none. */
+        public long in_reply_to_user_id;
+
+        /** 回复人昵称. */
+        public String in_reply_to_screen_name;
+
+        /** 中型图片. */
+        public String bmiddle_pic;
+
+        /** 原始图片. */
+        public String original_pic;
+
+        /** 地理信息字段. */
+        public Geo geo;
+
+        public Visible visible;
+
+        static Details decode(byte[] json) {
+            if (json != null) {
+                try {
+                    Details details = GsonFactory.getAdapter(Details.class).fromJson(
+                            new InputStreamReader(new ByteArrayInputStream(json), "UTF-8"));
+                    if (details != null) {
+                        return details;
+                    }
+                } catch (IOException | JsonParseException e) {
+                    // Not expected, the bytes were copied from a well-formed response.
+                }
+            }
+            return new Details();
+        }
+    }
+}
@@ -110,5 +110,53 @@ public class User implements Serializable {
 
     /** 用户的互粉数. */
     public int bi_followers_count;
-}
 
+    /**
+     * @return true if only the id is known, as in a status fetched with {@code trim_user}
+     */
+    public synchronized boolean isStub() {
+        return name == null && screen_name == null;
+    }
+
+    /**
+     * Copies the fields of a newer copy of the same user into this one, so everything
+     * holding this instance sees the update.
+     * <p>
+     * Unlike a status, a user is filled in place: the statuses of a {@code trim_user}
+     * timeline hold a stub until the user is fetched. Only the user cache calls this, on
+     * the main thread and holding this user's lock. Rows read a user on the main thread
+     * as it is; other threads lock it first.
+     *
+     * @param other the same user, freshly fetched
+     */
+    public synchronized void update(User other) {
+        screen_name = other.screen_name;
+        name = other.name;
+        domain = other.domain;
+        province = other.province;
+        city = other.city;
+        location = other.location;
+        description = other.description;
+        url = other.url;
+        profile_image_url = other.profile_image_url;
+        user_domain = other.user_domain;
+        gender = other.gender;
+        weihao = other.weihao;
+        followers_count = other.followers_count;
+        friends_count = other.friends_count;
+        statuses_count = other.statuses_count;
+        favourites_count = other.favourites_count;
+        created_at = other.created_at;
+        following = other.following;
+        allow_all_act_msg = other.allow_all_act_msg;
+        remark = other.remark;
+        geo_enabled = other.geo_enabled;
+        verified = other.verified;
+        allow_all_comment = other.allow_all_comment;
+        avatar_large = other.avatar_large;
+        verified_reason = other.verified_reason;
+        follow_me = other.follow_me;
+        online_status = other.online_status;
+        bi_followers_count = other.bi_followers_count;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core.services;
+
+import org.lytsing.android.weibo.core.models.Comment;
+import org.lytsing.android.weibo.core.models.CommentsObject;
+
+import retrofit.Callback;
+import retrofit.http.Field;
+import retrofit.http.FormUrlEncoded;
+import retrofit.http.GET;
+import retrofit.http.POST;
+import retrofit.http.Query;
+
+/**
+ * @author Liqing Huang
+ * @see <a href="http://open.weibo.com/wiki/微博API">微博API</a>
+ */
+public interface CommentsService {
+    /**
+     * 根据微博ID返回某条微博的评论列表。
+     *
+     * @param id 需要查询的微博ID
+     * @param sinceId (optional) 返回ID比since_id大的评论，默认为0
+     * @param maxId (optional) 返回ID小于或等于max_id的评论，默认为0
+     * @param count (optional) 单页返回的记录条数，默认为50
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param filterByAuthor (optional) 作者筛选类型，0：全部、1：我关注的人、2：陌生人
+     * @param cb callback
+     */
+    @GET("/comments/show.json")
+    void show(
+            @Query("id") long id,
+            @Query("since_id") Long sinceId,
+            @Query("max_id") Long maxId,
+            @Query("count") Integer count,
+            @Query("page") Integer page,
+            @Query("filter_by_author") Integer filterByAuthor,
+            Callback<CommentsObject> cb);
+
+    /**
+     * 对一条微博进行评论。
+     *
+     * @param comment 评论内容，内容不超过140个汉字
+     * @param id 需要评论的微博ID
+     * @param commentOri (optional) 当评论转发微博时，是否评论给原微博，0：否、1：是，默认为0
+     * @param cb callback
+     */
+    @FormUrlEncoded
+    @POST("/comments/create.json")
+    void create(
+            @Field("comment") String comment,
+            @Field("id") long id,
+            @Field("comment_ori") Integer commentOri,
+            Callback<Comment> cb);
+
+    /**
+     * 删除一条评论。
+     *
+     * @param cid 要删除的评论ID，只能删除登录用户自己发布的评论
+     * @param cb callback
+     */
+    @FormUrlEncoded
+    @POST("/comments/destroy.json")
+    void destroy(
+            @Field("cid") long cid,
+            Callback<Comment> cb);
+}
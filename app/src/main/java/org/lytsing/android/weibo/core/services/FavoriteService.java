@@ -1,5 +1,70 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
 package org.lytsing.android.weibo.core.services;
 
-public interface  FavoriteService {
+import org.lytsing.android.weibo.core.models.Favorite;
+import org.lytsing.android.weibo.core.models.FavoritesObject;
+
+import retrofit.Callback;
+import retrofit.http.Field;
+import retrofit.http.FormUrlEncoded;
+import retrofit.http.GET;
+import retrofit.http.POST;
+import retrofit.http.Query;
+
+/**
+ * @author Liqing Huang
+ * @see <a href="http://open.weibo.com/wiki/微博API">微博API</a>
+ */
+public interface FavoriteService {
+    /**
+     * 获取当前登录用户的收藏列表。
+     *
+     * @param count (optional) 单页返回的记录条数，默认为50
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param cb callback
+     */
+    @GET("/favorites.json")
+    void favorites(
+            @Query("count") Integer count,
+            @Query("page") Integer page,
+            Callback<FavoritesObject> cb);
+
+    /**
+     * 添加一条微博到收藏里。
+     *
+     * @param id 要收藏的微博ID
+     * @param cb callback
+     */
+    @FormUrlEncoded
+    @POST("/favorites/create.json")
+    void create(
+            @Field("id") long id,
+            Callback<Favorite> cb);
 
+    /**
+     * 取消收藏一条微博。
+     *
+     * @param id 要取消收藏的微博ID
+     * @param cb callback
+     */
+    @FormUrlEncoded
+    @POST("/favorites/destroy.json")
+    void destroy(
+            @Field("id") long id,
+            Callback<Favorite> cb);
 }
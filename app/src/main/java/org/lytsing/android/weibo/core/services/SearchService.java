@@ -1,27 +1,25 @@
 package org.lytsing.android.weibo.core.services;
 
-import org.lytsing.android.weibo.core.models.Geo;
-import org.lytsing.android.weibo.core.models.Search;
+import org.lytsing.android.weibo.core.models.WeiboObject;
 
 import retrofit.Callback;
-import retrofit.http.EncodedQuery;
 import retrofit.http.GET;
 import retrofit.http.Query;
 
 
-@SuppressWarnings("deprecation")
 public interface SearchService {
-    @GET("/1.1/search/tweets.json")
-    void tweets(
+    /**
+     * 搜索某一话题下的微博。
+     *
+     * @param query 搜索的话题关键字
+     * @param count (optional) 单页返回的记录条数，默认为10，最大为50
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param cb callback
+     */
+    @GET("/search/topics.json")
+    void topics(
             @Query("q") String query,
-            @EncodedQuery("geocode") Geo geocode,
-            @Query("lang") String lang,
-            @Query("locale") String locale,
-            @Query("result_type") String resultType,
             @Query("count") Integer count,
-            @Query("until") String until,
-            @Query("since_id") Long sinceId,
-            @Query("max_id") Long maxId,
-            @Query("include_entities") Boolean includeEntities,
-            Callback<Search> cb);
+            @Query("page") Integer page,
+            Callback<WeiboObject> cb);
 }
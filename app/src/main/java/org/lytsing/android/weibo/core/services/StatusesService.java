@@ -16,53 +16,85 @@
 
 package org.lytsing.android.weibo.core.services;
 
-import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.WeiboObject;
 
 import retrofit.Callback;
 import retrofit.http.GET;
 import retrofit.http.Query;
 
-import java.util.List;
-
 /**
  * @author Liqing Huang
+ * @see <a href="http://open.weibo.com/wiki/微博API">微博API</a>
  */
 public interface StatusesService {
     /**
-     * Returns most recent mentions (tweets containing a user's @screen_name) for the
-     * authenticating user, by default returns 20 tweets.
-     * The timeline returned is the equivalent of the one seen when you view your mentions on
-     * twitter.com.
-     * The Twitter REST API goes back up to 800 tweets.
-     * @param count (optional) Specifies the number of tweets to try and retrieve, up to a maximum of 200. The value of count is best thought of as a limit to the number of tweets to return because suspended or deleted content is removed after the count has been applied. We include retweets in the count, even if include_rts is not supplied. It is recommended you always send include_rts=1 when using this API method.
-     * @param sinceId
-     * @param maxId
-     * @param trimUser
-     * @param contributeDetails
-     * @param includeEntities
-     * @param cb
+     * 获取当前登录用户及其所关注用户的最新微博。
+     *
+     * @param sinceId (optional) 返回ID比since_id大的微博，默认为0
+     * @param maxId (optional) 返回ID小于或等于max_id的微博，默认为0
+     * @param count (optional) 单页返回的记录条数，最大不超过100，默认为20
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param baseApp (optional) 是否只获取当前应用的数据，0为否，1为是，默认为0
+     * @param feature (optional) 过滤类型ID，0：全部、1：原创、2：图片、3：视频、4：音乐，默认为0
+     * @param trimUser (optional) 返回值中user字段开关，0：返回完整user字段、1：user字段仅返回user_id
+     * @param cb callback
      */
-    @GET("/1.1/statuses/mentions_timeline.json")
-    void mentionsTimeline(
-            @Query("count") Integer count,
+    @GET("/statuses/friends_timeline.json")
+    void friendsTimeline(
             @Query("since_id") Long sinceId,
             @Query("max_id") Long maxId,
-            @Query("trim_user") Boolean trimUser,
-            @Query("contributor_details") Boolean contributeDetails,
-            @Query("include_entities") Boolean includeEntities,
-            Callback<List<Statuses>> cb);
+            @Query("count") Integer count,
+            @Query("page") Integer page,
+            @Query("base_app") Integer baseApp,
+            @Query("feature") Integer feature,
+            @Query("trim_user") Integer trimUser,
+            Callback<WeiboObject> cb);
 
+    /**
+     * 获取最新的提到登录用户的微博列表，即@我的微博。
+     *
+     * @param sinceId (optional) 返回ID比since_id大的微博，默认为0
+     * @param maxId (optional) 返回ID小于或等于max_id的微博，默认为0
+     * @param count (optional) 单页返回的记录条数，最大不超过200，默认为20
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param filterByAuthor (optional) 作者筛选类型，0：全部、1：我关注的人、2：陌生人
+     * @param filterBySource (optional) 来源筛选类型，0：全部、1：来自微博、2：来自微群
+     * @param filterByType (optional) 原创筛选类型，0：全部微博、1：原创的微博
+     * @param cb callback
+     */
+    @GET("/statuses/mentions.json")
+    void mentions(
+            @Query("since_id") Long sinceId,
+            @Query("max_id") Long maxId,
+            @Query("count") Integer count,
+            @Query("page") Integer page,
+            @Query("filter_by_author") Integer filterByAuthor,
+            @Query("filter_by_source") Integer filterBySource,
+            @Query("filter_by_type") Integer filterByType,
+            Callback<WeiboObject> cb);
 
-    @GET("/1.1/statuses/user_timeline.json")
+    /**
+     * 获取某个用户最新发表的微博列表，uid 与 screen_name 二者选一。
+     *
+     * @param uid (optional) 需要查询的用户ID
+     * @param screenName (optional) 需要查询的用户昵称
+     * @param sinceId (optional) 返回ID比since_id大的微博，默认为0
+     * @param maxId (optional) 返回ID小于或等于max_id的微博，默认为0
+     * @param count (optional) 单页返回的记录条数，最大不超过100，默认为20
+     * @param page (optional) 返回结果的页码，默认为1
+     * @param feature (optional) 过滤类型ID，0：全部、1：原创、2：图片、3：视频、4：音乐
+     * @param trimUser (optional) 返回值中user字段开关，0：返回完整user字段、1：user字段仅返回user_id
+     * @param cb callback
+     */
+    @GET("/statuses/user_timeline.json")
     void userTimeline(
-            @Query("user_id") Long userId,
+            @Query("uid") Long uid,
             @Query("screen_name") String screenName,
-            @Query("count") Integer count,
             @Query("since_id") Long sinceId,
             @Query("max_id") Long maxId,
-            @Query("trim_user") Boolean trimUser,
-            @Query("exclude_replies") Boolean excludeReplies,
-            @Query("contributor_details") Boolean contributeDetails,
-            @Query("include_rts") Boolean includeRetweets,
-            Callback<List<Statuses>> cb);
+            @Query("count") Integer count,
+            @Query("page") Integer page,
+            @Query("feature") Integer feature,
+            @Query("trim_user") Integer trimUser,
+            Callback<WeiboObject> cb);
 }
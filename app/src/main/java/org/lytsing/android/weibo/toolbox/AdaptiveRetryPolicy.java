@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.RetryPolicy;
+import com.android.volley.VolleyError;
+
+import java.util.Random;
+
+/**
+ * A {@link RetryPolicy} which only retries failures that can succeed on a second
+ * attempt (see {@link RequestFailure}), and waits an exponentially growing, jittered
+ * delay before each retry so that clients do not hammer a degraded server in lockstep.
+ * <p>
+ * The delay is slept on the network dispatcher thread which runs the request, it is
+ * therefore capped to a few seconds.
+ */
+public class AdaptiveRetryPolicy implements RetryPolicy {
+
+    public static final int DEFAULT_TIMEOUT_MS = 10 * 1000;
+
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    public static final float DEFAULT_BACKOFF_MULT = 1.5f;
+
+    private static final long BASE_DELAY_MS = 500;
+
+    private static final long MAX_DELAY_MS = 4 * 1000;
+
+    private static final Random RANDOM = new Random();
+
+    private int mCurrentTimeoutMs;
+
+    private int mCurrentRetryCount;
+
+    private final int mMaxNumRetries;
+
+    private final float mBackoffMultiplier;
+
+    public AdaptiveRetryPolicy() {
+        this(DEFAULT_TIMEOUT_MS, DEFAULT_MAX_RETRIES, DEFAULT_BACKOFF_MULT);
+    }
+
+    /**
+     * @param initialTimeoutMs the initial timeout for the policy
+     * @param maxNumRetries the maximum number of retries
+     * @param backoffMultiplier multiplier applied to the timeout of each retry
+     */
+    public AdaptiveRetryPolicy(int initialTimeoutMs, int maxNumRetries, float backoffMultiplier) {
+        mCurrentTimeoutMs = initialTimeoutMs;
+        mMaxNumRetries = maxNumRetries;
+        mBackoffMultiplier = backoffMultiplier;
+    }
+
+    @Override
+    public int getCurrentTimeout() {
+        return mCurrentTimeoutMs;
+    }
+
+    @Override
+    public int getCurrentRetryCount() {
+        return mCurrentRetryCount;
+    }
+
+    @Override
+    public void retry(VolleyError error) throws VolleyError {
+        if (!RequestFailure.classify(error).isRetryable() || mCurrentRetryCount >= mMaxNumRetries) {
+            throw error;
+        }
+
+        long delay = getBackoffDelay(mCurrentRetryCount);
+        mCurrentRetryCount++;
+        mCurrentTimeoutMs += (int) (mCurrentTimeoutMs * mBackoffMultiplier);
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            // The queue is shutting down.
+            Thread.currentThread().interrupt();
+            throw error;
+        }
+    }
+
+    /**
+     * "Full jitter": a random delay between 0 and the exponential backoff ceiling.
+     */
+    static long getBackoffDelay(int retryCount) {
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(retryCount, 16));
+        synchronized (RANDOM) {
+            return (long) (RANDOM.nextDouble() * ceiling);
+        }
+    }
+}
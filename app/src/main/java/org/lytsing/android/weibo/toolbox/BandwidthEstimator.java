@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.telephony.TelephonyManager;
+
+/**
+ * Estimates the quality of the current link from the traffic of the app itself, and
+ * picks the {@link FetchProfile} to use on it.
+ * <p>
+ * Every response body read by {@link OkHttpStack} is a throughput sample, and every
+ * time to first byte a round trip sample. Both are smoothed with an exponentially
+ * weighted moving average. Until there are enough samples, the quality is guessed from
+ * the type of the network. The samples are dropped whenever the network changes.
+ */
+public final class BandwidthEstimator {
+
+    private static final BandwidthEstimator INSTANCE = new BandwidthEstimator();
+
+    /** Weight of a new sample in the averages. */
+    private static final double SMOOTHING = 0.25;
+
+    /** Smaller bodies take one round trip, they tell nothing about the throughput. */
+    private static final long MIN_SAMPLE_BYTES = 8 * 1024;
+
+    private static final int MIN_SAMPLES = 3;
+
+    private static final double POOR_KBPS = 150;
+
+    private static final double MODERATE_KBPS = 550;
+
+    private static final double GOOD_KBPS = 2000;
+
+    private static final long POOR_RTT_MS = 1000;
+
+    private static final long MODERATE_RTT_MS = 400;
+
+    private static final long GOOD_RTT_MS = 150;
+
+    private ConnectivityManager mConnectivityManager;
+
+    /** Guarded by this. */
+    private double mKbps;
+
+    private int mThroughputSamples;
+
+    private double mRttMs;
+
+    private int mRttSamples;
+
+    private BandwidthEstimator() {
+    }
+
+    public static BandwidthEstimator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts following network changes. Until this is called the link is assumed to be
+     * {@link FetchProfile#GOOD} before the first samples.
+     */
+    public void attach(Context context) {
+        Context appContext = context.getApplicationContext();
+        mConnectivityManager = (ConnectivityManager) appContext.getSystemService(
+                Context.CONNECTIVITY_SERVICE);
+        appContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                reset();
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    public synchronized void reset() {
+        mKbps = 0;
+        mThroughputSamples = 0;
+        mRttMs = 0;
+        mRttSamples = 0;
+    }
+
+    /**
+     * @param bytes size of a response body, as read from the wire
+     * @param millis time taken to read it
+     */
+    synchronized void onTransfer(long bytes, long millis) {
+        if (bytes < MIN_SAMPLE_BYTES || millis <= 0) {
+            return;
+        }
+
+        double kbps = bytes * 8.0 / millis;
+        mKbps = mThroughputSamples == 0 ? kbps : mKbps + SMOOTHING * (kbps - mKbps);
+        mThroughputSamples++;
+    }
+
+    /**
+     * @param millis time from sending a request to its response headers
+     */
+    synchronized void onRoundTrip(long millis) {
+        if (millis < 0) {
+            return;
+        }
+
+        mRttMs = mRttSamples == 0 ? millis : mRttMs + SMOOTHING * (millis - mRttMs);
+        mRttSamples++;
+    }
+
+    /**
+     * @return the estimated throughput in kbps, or -1 if unknown yet
+     */
+    public synchronized double getThroughputKbps() {
+        return mThroughputSamples < MIN_SAMPLES ? -1 : mKbps;
+    }
+
+    /**
+     * @return the estimated round trip time in ms, or -1 if unknown yet
+     */
+    public synchronized long getRoundTripMs() {
+        return mRttSamples < MIN_SAMPLES ? -1 : Math.round(mRttMs);
+    }
+
+    /**
+     * @return the profile for the current link, the worse of the throughput and the
+     *         round trip estimates
+     */
+    public FetchProfile getProfile() {
+        double kbps = getThroughputKbps();
+        long rtt = getRoundTripMs();
+        if (kbps < 0 && rtt < 0) {
+            return guessFromNetworkType();
+        }
+
+        FetchProfile byThroughput = kbps < 0 ? FetchProfile.EXCELLENT : forThroughput(kbps);
+        FetchProfile byRtt = rtt < 0 ? FetchProfile.EXCELLENT : forRoundTrip(rtt);
+        return byThroughput.ordinal() < byRtt.ordinal() ? byThroughput : byRtt;
+    }
+
+    private static FetchProfile forThroughput(double kbps) {
+        if (kbps < POOR_KBPS) {
+            return FetchProfile.POOR;
+        } else if (kbps < MODERATE_KBPS) {
+            return FetchProfile.MODERATE;
+        } else if (kbps < GOOD_KBPS) {
+            return FetchProfile.GOOD;
+        }
+        return FetchProfile.EXCELLENT;
+    }
+
+    private static FetchProfile forRoundTrip(long rtt) {
+        if (rtt > POOR_RTT_MS) {
+            return FetchProfile.POOR;
+        } else if (rtt > MODERATE_RTT_MS) {
+            return FetchProfile.MODERATE;
+        } else if (rtt > GOOD_RTT_MS) {
+            return FetchProfile.GOOD;
+        }
+        return FetchProfile.EXCELLENT;
+    }
+
+    private FetchProfile guessFromNetworkType() {
+        NetworkInfo info = mConnectivityManager == null
+                ? null : mConnectivityManager.getActiveNetworkInfo();
+        if (info == null || info.getType() != ConnectivityManager.TYPE_MOBILE) {
+            return FetchProfile.GOOD;
+        }
+
+        switch (info.getSubtype()) {
+            case TelephonyManager.NETWORK_TYPE_GPRS:
+            case TelephonyManager.NETWORK_TYPE_EDGE:
+            case TelephonyManager.NETWORK_TYPE_CDMA:
+            case TelephonyManager.NETWORK_TYPE_1xRTT:
+            case TelephonyManager.NETWORK_TYPE_IDEN:
+                return FetchProfile.POOR;
+            case TelephonyManager.NETWORK_TYPE_LTE:
+            case TelephonyManager.NETWORK_TYPE_HSPAP:
+                return FetchProfile.GOOD;
+            default:
+                return FetchProfile.MODERATE;
+        }
+    }
+}
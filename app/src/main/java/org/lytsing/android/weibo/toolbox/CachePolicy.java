@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client side cache policy for Weibo API endpoints.
+ * <p>
+ * The Weibo API does not send usable cache headers, so the freshness of a cached
+ * response is decided here per endpoint instead:
+ * <ul>
+ * <li>before the soft TTL the cached response is served without touching the network;</li>
+ * <li>between the soft and the hard TTL the cached response is delivered first and
+ *     refreshed from the network right after (Volley's "refresh needed" path);</li>
+ * <li>after the hard TTL the entry is ignored.</li>
+ * </ul>
+ * Cache keys never contain the {@code access_token}, so entries survive a token refresh
+ * and are not written to disk next to a credential. They are not per account either:
+ * the whole cache is cleared when another account logs in, see
+ * {@link org.lytsing.android.weibo.WeiboApplication#clearResponseCache()}.
+ */
+public final class CachePolicy {
+
+    private static final String PARAM_ACCESS_TOKEN = "access_token";
+
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final long MINUTE = 60 * 1000;
+
+    private static final long HOUR = 60 * MINUTE;
+
+    private static final long DAY = 24 * HOUR;
+
+    /**
+     * Endpoint path suffix to policy.
+     */
+    private static final Map<String, CachePolicy> POLICIES =
+            new LinkedHashMap<String, CachePolicy>();
+
+    static {
+        POLICIES.put("/statuses/friends_timeline.json", new CachePolicy(MINUTE, 3 * DAY, true));
+        POLICIES.put("/statuses/show.json", new CachePolicy(5 * MINUTE, DAY, false));
+        POLICIES.put("/comments/show.json", new CachePolicy(MINUTE, DAY, true));
+        POLICIES.put("/users/show.json", new CachePolicy(HOUR, 7 * DAY, false));
+    }
+
+    private final long mSoftTtl;
+
+    private final long mHardTtl;
+
+    private final boolean mFirstPageOnly;
+
+    /**
+     * @param softTtl time in ms after which a cached response is served stale and refreshed
+     * @param hardTtl time in ms after which a cached response is not served any more
+     * @param firstPageOnly only cache the head of a list, not {@code since_id}, {@code max_id}
+     *        or {@code page} requests which are never issued twice
+     */
+    CachePolicy(long softTtl, long hardTtl, boolean firstPageOnly) {
+        mSoftTtl = softTtl;
+        mHardTtl = hardTtl;
+        mFirstPageOnly = firstPageOnly;
+    }
+
+    /**
+     * @param url request url
+     * @return the policy for the endpoint of {@code url}, or null if it must not be cached
+     */
+    public static CachePolicy forUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        int queryStart = url.indexOf('?');
+        String path = queryStart < 0 ? url : url.substring(0, queryStart);
+        String query = queryStart < 0 ? "" : url.substring(queryStart + 1);
+
+        for (Map.Entry<String, CachePolicy> entry : POLICIES.entrySet()) {
+            if (path.endsWith(entry.getKey())) {
+                CachePolicy policy = entry.getValue();
+                if (policy.mFirstPageOnly && isPaged(query)) {
+                    return null;
+                }
+                return policy;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param url request url
+     * @return {@code url} without its {@code access_token} query parameter
+     */
+    public static String cacheKey(String url) {
+        int queryStart = url == null ? -1 : url.indexOf('?');
+        if (queryStart < 0) {
+            return url;
+        }
+
+        StringBuilder key = new StringBuilder(url.length());
+        key.append(url, 0, queryStart);
+
+        char separator = '?';
+        for (String param : url.substring(queryStart + 1).split("&")) {
+            if (param.length() == 0 || PARAM_ACCESS_TOKEN.equals(paramName(param))) {
+                continue;
+            }
+            key.append(separator).append(param);
+            separator = '&';
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Builds the cache entry for a network response according to this policy.
+     *
+     * @param response the network response
+     * @return the entry to store
+     */
+    public Cache.Entry createEntry(NetworkResponse response) {
+        long now = System.currentTimeMillis();
+
+        Cache.Entry entry = new Cache.Entry();
+        entry.data = response.data;
+        entry.etag = response.headers == null ? null : response.headers.get(HEADER_ETAG);
+        entry.serverDate = now;
+        entry.softTtl = now + mSoftTtl;
+        entry.ttl = now + mHardTtl;
+        entry.responseHeaders = response.headers;
+
+        return entry;
+    }
+
+    private static boolean isPaged(String query) {
+        for (String param : query.split("&")) {
+            String name = paramName(param);
+            String value = name.length() < param.length() ? param.substring(name.length() + 1) : "";
+            if ("since_id".equals(name) || "max_id".equals(name)) {
+                if (value.length() > 0 && !"0".equals(value)) {
+                    return true;
+                }
+            } else if ("page".equals(name)) {
+                if (value.length() > 0 && !"0".equals(value) && !"1".equals(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String paramName(String param) {
+        int eq = param.indexOf('=');
+        return eq < 0 ? param : param.substring(0, eq);
+    }
+}
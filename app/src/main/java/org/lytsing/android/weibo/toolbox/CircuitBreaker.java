@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint circuit breaker.
+ * <p>
+ * After {@link #FAILURE_THRESHOLD} consecutive retryable failures of an endpoint, or a
+ * single rate limit error, the circuit opens and requests to that endpoint fail fast
+ * with a {@link CircuitOpenError} instead of waiting on a server which is known to be
+ * down. Once the cool-down has passed a single trial request is let through
+ * ("half-open"): its success closes the circuit, its failure opens it again with a
+ * doubled cool-down.
+ */
+public final class CircuitBreaker {
+
+    private static final String API_HOST = "api.weibo.com";
+
+    static final int FAILURE_THRESHOLD = 3;
+
+    private static final long MIN_COOL_DOWN_MS = 10 * 1000;
+
+    private static final long MAX_COOL_DOWN_MS = 5 * 60 * 1000;
+
+    /**
+     * Weibo resets its rate limits on the hour, but there is no way to know when
+     * the limit was hit, so back off for a while and probe again.
+     */
+    private static final long RATE_LIMIT_COOL_DOWN_MS = 60 * 1000;
+
+    private static final CircuitBreaker INSTANCE = new CircuitBreaker();
+
+    private final Map<String, Circuit> mCircuits = new HashMap<String, Circuit>();
+
+    CircuitBreaker() {
+    }
+
+    public static CircuitBreaker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param url request url
+     * @return true if a request to the endpoint of {@code url} may go to the network
+     */
+    public synchronized boolean allowRequest(String url) {
+        Circuit circuit = mCircuits.get(endpointOf(url));
+        if (circuit == null || circuit.mOpenUntil == 0) {
+            return true;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (now < circuit.mOpenUntil || circuit.mTrialInFlight) {
+            return false;
+        }
+
+        circuit.mTrialInFlight = true;
+        return true;
+    }
+
+    public synchronized void onSuccess(String url) {
+        mCircuits.remove(endpointOf(url));
+    }
+
+    public synchronized void onFailure(String url, RequestFailure failure) {
+        if (failure == RequestFailure.CLIENT) {
+            // The endpoint answered, the request was wrong.
+            onSuccess(url);
+            return;
+        }
+
+        String endpoint = endpointOf(url);
+        Circuit circuit = mCircuits.get(endpoint);
+        if (circuit == null) {
+            circuit = new Circuit();
+            mCircuits.put(endpoint, circuit);
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (failure == RequestFailure.RATE_LIMITED) {
+            circuit.open(now, RATE_LIMIT_COOL_DOWN_MS);
+        } else if (circuit.mTrialInFlight) {
+            circuit.open(now, Math.min(MAX_COOL_DOWN_MS, circuit.mCoolDown * 2));
+        } else if (++circuit.mFailures >= FAILURE_THRESHOLD) {
+            circuit.open(now, MIN_COOL_DOWN_MS);
+        }
+    }
+
+    /**
+     * @return the remaining cool-down of the endpoint of {@code url} in ms, 0 if it is closed
+     */
+    public synchronized long getRemainingCoolDown(String url) {
+        Circuit circuit = mCircuits.get(endpointOf(url));
+        if (circuit == null) {
+            return 0;
+        }
+        return Math.max(0, circuit.mOpenUntil - SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * API calls are tracked per path, everything else (avatars, pictures) per host, so
+     * the map stays bounded by the number of endpoints instead of the number of urls.
+     */
+    static String endpointOf(String url) {
+        if (url == null) {
+            return "";
+        }
+
+        int schemeEnd = url.indexOf("://");
+        int hostStart = schemeEnd < 0 ? 0 : schemeEnd + 3;
+        int pathStart = url.indexOf('/', hostStart);
+        int queryStart = url.indexOf('?', hostStart);
+        if (pathStart < 0 || (queryStart >= 0 && queryStart < pathStart)) {
+            pathStart = queryStart < 0 ? url.length() : queryStart;
+        }
+
+        String host = url.substring(hostStart, pathStart);
+        if (!API_HOST.equals(host)) {
+            return host;
+        }
+
+        int pathEnd = queryStart < 0 ? url.length() : queryStart;
+        return url.substring(hostStart, pathEnd);
+    }
+
+    private static class Circuit {
+        int mFailures;
+
+        long mOpenUntil;
+
+        long mCoolDown;
+
+        boolean mTrialInFlight;
+
+        void open(long now, long coolDown) {
+            mCoolDown = Math.max(MIN_COOL_DOWN_MS, coolDown);
+            mOpenUntil = now + mCoolDown;
+            mTrialInFlight = false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.VolleyError;
+
+/**
+ * Indicates that a request was not sent because the circuit of its endpoint is open.
+ * @see CircuitBreaker
+ */
+@SuppressWarnings("serial")
+public class CircuitOpenError extends VolleyError {
+
+    private final long mRetryAfterMs;
+
+    public CircuitOpenError(long retryAfterMs) {
+        super("Circuit open, retry after " + retryAfterMs + "ms");
+        mRetryAfterMs = retryAfterMs;
+    }
+
+    /**
+     * @return the time in ms until the endpoint accepts requests again
+     */
+    public long getRetryAfterMs() {
+        return mRetryAfterMs;
+    }
+}
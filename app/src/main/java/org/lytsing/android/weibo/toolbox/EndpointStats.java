@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counters and latency histograms of one endpoint.
+ * @see NetworkTelemetry
+ */
+public class EndpointStats {
+
+    /**
+     * The phases a request goes through, in order.
+     */
+    public enum Phase {
+        /** Waiting in the request queue for a dispatcher thread. */
+        QUEUE,
+        /** DNS lookup and TCP connect of a new connection, absent for pooled connections. */
+        CONNECT,
+        /** Request sent (and TLS handshake, if any) until the response headers arrive. */
+        TTFB,
+        /** Reading the response body. */
+        DOWNLOAD,
+        /** Decoding the body into models. */
+        PARSE,
+        /** Whole network exchange, including retries. */
+        TOTAL
+    }
+
+    private final String mEndpoint;
+
+    private final LatencyHistogram[] mPhases = new LatencyHistogram[Phase.values().length];
+
+    private final Map<String, Integer> mErrors = new TreeMap<String, Integer>();
+
+    private long mRequests;
+
+    private long mCacheHits;
+
+    private long mRetries;
+
+    private long mWireBytes;
+
+    private long mDecodedBytes;
+
+    EndpointStats(String endpoint) {
+        mEndpoint = endpoint;
+        for (int i = 0; i < mPhases.length; i++) {
+            mPhases[i] = new LatencyHistogram();
+        }
+    }
+
+    public String getEndpoint() {
+        return mEndpoint;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return mPhases[phase.ordinal()];
+    }
+
+    void addLatency(Phase phase, long millis) {
+        mPhases[phase.ordinal()].add(millis);
+    }
+
+    synchronized void onRequest(int retries) {
+        mRequests++;
+        mRetries += retries;
+    }
+
+    synchronized void onCacheHit() {
+        mCacheHits++;
+    }
+
+    synchronized void onBytes(long wireBytes, long decodedBytes) {
+        mWireBytes += wireBytes;
+        mDecodedBytes += decodedBytes;
+    }
+
+    synchronized void onError(String code) {
+        Integer count = mErrors.get(code);
+        mErrors.put(code, count == null ? 1 : count + 1);
+    }
+
+    public synchronized long getRequestCount() {
+        return mRequests;
+    }
+
+    synchronized void dump(String prefix, PrintWriter writer) {
+        writer.print(prefix);
+        writer.println(mEndpoint);
+
+        String indent = prefix + "  ";
+        writer.print(indent);
+        writer.print("requests=" + mRequests);
+        writer.print(" cacheHits=" + mCacheHits);
+        writer.print(" retries=" + mRetries);
+        writer.print(" wire=" + formatBytes(mWireBytes));
+        writer.print(" decoded=" + formatBytes(mDecodedBytes));
+        if (mWireBytes > 0 && mDecodedBytes > 0) {
+            writer.print(String.format(" (%.1fx)", (double) mDecodedBytes / mWireBytes));
+        }
+        writer.println();
+
+        if (!mErrors.isEmpty()) {
+            writer.print(indent);
+            writer.print("errors:");
+            for (Map.Entry<String, Integer> error : mErrors.entrySet()) {
+                writer.print(" " + error.getKey() + "=" + error.getValue());
+            }
+            writer.println();
+        }
+
+        writer.print(indent);
+        writer.println(String.format("%-9s%7s%7s%7s%7s%7s%7s",
+                "phase(ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = getHistogram(phase);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            writer.print(indent);
+            writer.println(String.format("%-9s%7d%7d%7d%7d%7d%7d",
+                    phase.name().toLowerCase(), histogram.getCount(), histogram.getMean(),
+                    histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax()));
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
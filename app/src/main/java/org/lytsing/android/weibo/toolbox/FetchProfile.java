@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+/**
+ * How much to fetch at once and at which image size, per class of link quality.
+ * <p>
+ * On a slow link the first page must be small to paint quickly, and pictures are only
+ * loaded when asked for. On a fast one pages are bigger and the next page is fetched
+ * before the user reaches the end of the list.
+ */
+public enum FetchProfile {
+    /** 2G/EDGE class, under 150 kbps or over 1s round trips. */
+    POOR(8, ImageTier.NONE, ImageTier.THUMBNAIL, 0),
+    /** 3G class. */
+    MODERATE(15, ImageTier.THUMBNAIL, ImageTier.BMIDDLE, 3),
+    /** LTE or an average WiFi. */
+    GOOD(20, ImageTier.THUMBNAIL, ImageTier.BMIDDLE, 6),
+    /** Over 2 Mbps and under 150ms round trips. */
+    EXCELLENT(30, ImageTier.THUMBNAIL, ImageTier.ORIGINAL, 10);
+
+    private final int mPageSize;
+
+    private final ImageTier mListImageTier;
+
+    private final ImageTier mDetailImageTier;
+
+    private final int mPrefetchDistance;
+
+    FetchProfile(int pageSize, ImageTier listImageTier, ImageTier detailImageTier,
+            int prefetchDistance) {
+        mPageSize = pageSize;
+        mListImageTier = listImageTier;
+        mDetailImageTier = detailImageTier;
+        mPrefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * @return the {@code count} of a timeline request
+     */
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    /**
+     * @return the pictures to load in lists
+     */
+    public ImageTier getListImageTier() {
+        return mListImageTier;
+    }
+
+    /**
+     * @return the picture to load in the detail of a status
+     */
+    public ImageTier getDetailImageTier() {
+        return mDetailImageTier;
+    }
+
+    /**
+     * @return how many rows before the end of a list the next page is requested,
+     *         0 to wait for the end
+     */
+    public int getPrefetchDistance() {
+        return mPrefetchDistance;
+    }
+
+    /**
+     * @return whether timelines should be asked for with {@code trim_user=1}, the
+     *         authors then come from {@link org.lytsing.android.weibo.core.UserCache}
+     */
+    public boolean isTrimUser() {
+        return this == POOR || this == MODERATE;
+    }
+
+    /**
+     * @return the profile of the current link, see {@link BandwidthEstimator}
+     */
+    public static FetchProfile current() {
+        return BandwidthEstimator.getInstance().getProfile();
+    }
+}
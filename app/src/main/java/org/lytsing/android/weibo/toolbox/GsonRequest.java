@@ -18,22 +18,32 @@
 package org.lytsing.android.weibo.toolbox;
 
 import com.android.volley.AuthFailureError;
-import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Cache;
 import com.android.volley.NetworkResponse;
 import com.android.volley.ParseError;
 import com.android.volley.Request;
 import com.android.volley.Response;
 import com.android.volley.Response.ErrorListener;
 import com.android.volley.Response.Listener;
+import com.android.volley.VolleyError;
 import com.android.volley.toolbox.HttpHeaderParser;
-import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+
+import org.lytsing.android.weibo.core.GsonFactory;
+import org.lytsing.android.weibo.core.ResponseEnvelope;
+import org.lytsing.android.weibo.core.WeiboApiException;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
@@ -48,15 +58,40 @@ import java.util.zip.GZIPInputStream;
  * 1. Add retrying failed requests and customizing request Timeout
  *  see http://arnab.ch/blog/2013/08/asynchronous-http-requests-in-android-using-volley/
  * 2. 2014/10/22 support http gzip, see https://github.com/darja/VolleyDemo/
+ * 3. Decode straight from the (gunzipped) body stream with a shared, cached TypeAdapter
+ *  instead of building the whole body as a String first. This saves the copies of the
+ *  body, not decode time, see GsonRequestBenchmark.
+ * 4. Cache responses according to the endpoint's {@link CachePolicy}.
+ * 5. Share one exchange between identical in-flight GETs, see {@link RequestCoalescer}.
+ * 6. Retry with {@link AdaptiveRetryPolicy} instead of a fixed 20s timeout.
+ * 7. Schedule by {@link RequestPriority}.
+ * 8. Report parse time and decoded size to {@link NetworkTelemetry}.
+ * 9. Tell Weibo error bodies from payloads with {@link ResponseEnvelope}, an error is
+ *  delivered as a {@link VolleyError} caused by the {@link WeiboApiException}.
  *
  * @param <T> JSON type of response expected
  */
 public class GsonRequest<T> extends Request<T> {
-    private final Gson mGson;
-    private final Class<T> mClazz;
+    private final TypeAdapter<T> mAdapter;
     private final Listener<T> mListener;
+    private final CachePolicy mCachePolicy;
     private Map<String, String> mParams;
 
+    /**
+     * Identical requests which joined this one while it was in flight, see
+     * {@link RequestCoalescer}. Also guards {@link #mDetached} and {@link #mLeader}.
+     */
+    private final List<GsonRequest<T>> mFollowers = new ArrayList<GsonRequest<T>>(1);
+
+    /**
+     * The caller of this request is gone, but it keeps running for its followers.
+     */
+    private boolean mDetached;
+
+    private GsonRequest<T> mLeader;
+
+    RequestCoalescer mCoalescer;
+
     private static final String HEADER_ENCODING = "Content-Encoding";
     private static final String HEADER_USER_AGENT = "User-Agent";
     private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
@@ -64,7 +99,9 @@ public class GsonRequest<T> extends Request<T> {
 
     private boolean mGzipEnabled = true;
 
-    private static final int SET_SOCKET_TIMEOUT = 20 * 1000;
+    private RequestPriority mPriority = RequestPriority.VISIBLE_CONTENT;
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
 
     public GsonRequest(int method,
                        String url,
@@ -73,49 +110,209 @@ public class GsonRequest<T> extends Request<T> {
                        Listener<T> listener,
                        ErrorListener errorListener) {
         super(method, url, errorListener);
-        this.mClazz = clazz;
+        this.mAdapter = GsonFactory.getAdapter(clazz);
         this.mListener = listener;
         this.mParams = params;
-        mGson = new Gson();
+        this.mCachePolicy = method == Method.GET ? CachePolicy.forUrl(url) : null;
+        setShouldCache(mCachePolicy != null);
+
+        // Only retry timeouts, dropped connections and 5xx, with a jittered backoff.
+        // A write which timed out may still have been applied, so it is never resent.
+        setRetryPolicy(new AdaptiveRetryPolicy(AdaptiveRetryPolicy.DEFAULT_TIMEOUT_MS,
+                method == Method.GET ? AdaptiveRetryPolicy.DEFAULT_MAX_RETRIES : 0,
+                AdaptiveRetryPolicy.DEFAULT_BACKOFF_MULT));
+    }
 
-        //Set a retry policy in case of SocketTimeout & ConnectionTimeout Exceptions.
-        //Volley does retry for you if you have specified the policy.
-        setRetryPolicy(new DefaultRetryPolicy(SET_SOCKET_TIMEOUT,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-                DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+    /**
+     * @param priority the scheduling class, {@link RequestPriority#VISIBLE_CONTENT} by default
+     */
+    public void setPriority(RequestPriority priority) {
+        mPriority = priority;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return mPriority.toVolleyPriority();
     }
 
     @Override
     protected void deliverResponse(T response) {
-        mListener.onResponse(response);
+        List<GsonRequest<T>> followers = onDelivered();
+
+        if (!isDetached()) {
+            mListener.onResponse(response);
+        }
+        for (GsonRequest<T> follower : followers) {
+            if (!follower.isCanceled()) {
+                follower.mListener.onResponse(response);
+            }
+        }
     }
 
     @Override
-    protected Response<T> parseNetworkResponse(NetworkResponse response) {
-        try {
-            String responseString = null;
-            String charset = HttpHeaderParser.parseCharset(response.headers);
+    public void deliverError(VolleyError error) {
+        List<GsonRequest<T>> followers = onDelivered();
+
+        if (!isDetached()) {
+            super.deliverError(error);
+        }
+        for (GsonRequest<T> follower : followers) {
+            if (!follower.isCanceled()) {
+                follower.deliverError(error);
+            }
+        }
+    }
+
+    /**
+     * Cancelling a request which still has live followers only detaches its own
+     * listeners, the exchange keeps running for the followers.
+     */
+    @Override
+    public void cancel() {
+        GsonRequest<T> leader;
+        synchronized (mFollowers) {
+            if (hasLiveFollowers()) {
+                mDetached = true;
+                return;
+            }
+            leader = mLeader;
+        }
+
+        super.cancel();
+
+        if (mCoalescer != null) {
+            mCoalescer.remove(this);
+        }
+        if (leader != null) {
+            leader.cancelIfAbandoned();
+        }
+    }
+
+    /**
+     * Lets {@code follower} share the response of this in-flight request.
+     *
+     * @param follower an identical request
+     * @return false if the requests decode to different types and cannot be shared
+     */
+    @SuppressWarnings("unchecked")
+    boolean attach(GsonRequest<?> follower) {
+        if (follower.mAdapter != mAdapter) {
+            return false;
+        }
+
+        GsonRequest<T> typedFollower = (GsonRequest<T>) follower;
+        synchronized (mFollowers) {
+            typedFollower.mLeader = this;
+            mFollowers.add(typedFollower);
+        }
+        return true;
+    }
+
+    /**
+     * @return the followers waiting for this request
+     */
+    List<GsonRequest<T>> getFollowers() {
+        synchronized (mFollowers) {
+            return new ArrayList<GsonRequest<T>>(mFollowers);
+        }
+    }
+
+    private List<GsonRequest<T>> onDelivered() {
+        if (mCoalescer != null) {
+            mCoalescer.remove(this);
+        }
+        return getFollowers();
+    }
 
-            if (mGzipEnabled && isGzipped(response)) {
-                try {
-                    byte[] data = decompressResponse(response.data);
-                    responseString = new String(data, charset);
-                } catch (IOException e) {
-                    // it seems that result is not GZIP
-                }
+    private boolean isDetached() {
+        synchronized (mFollowers) {
+            return mDetached;
+        }
+    }
+
+    private boolean hasLiveFollowers() {
+        for (GsonRequest<T> follower : mFollowers) {
+            if (!follower.isCanceled()) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            if (responseString == null) {
-                responseString = new String(response.data, charset);
+    private void cancelIfAbandoned() {
+        synchronized (mFollowers) {
+            if (!mDetached || hasLiveFollowers()) {
+                return;
             }
+        }
+
+        super.cancel();
+
+        if (mCoalescer != null) {
+            mCoalescer.remove(this);
+        }
+    }
+
+    @Override
+    protected Response<T> parseNetworkResponse(NetworkResponse response) {
+        Reader reader = null;
+        long parseStart = RequestTrace.now();
+        CountingInputStream body = new CountingInputStream(openBody(response));
+        try {
+            String charset = HttpHeaderParser.parseCharset(response.headers);
+            reader = new InputStreamReader(body, charset);
 
-            return Response.success(mGson.fromJson(responseString, mClazz),
-                                    HttpHeaderParser.parseCacheHeaders(response));
+            T result = ResponseEnvelope.decode(reader, mAdapter);
+            NetworkTelemetry.getInstance().onParsed(this,
+                    RequestTrace.now() - parseStart, body.getCount());
+            return Response.success(result, createCacheEntry(response));
+        } catch (WeiboApiException e) {
+            return Response.error(new VolleyError(e));
         } catch (UnsupportedEncodingException e) {
             return Response.error(new ParseError(e));
         } catch (JsonSyntaxException e) {
             return Response.error(new ParseError(e));
+        } catch (JsonIOException e) {
+            return Response.error(new ParseError(e));
+        } catch (IOException e) {
+            return Response.error(new ParseError(e));
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    @Override
+    public String getCacheKey() {
+        return CachePolicy.cacheKey(getUrl());
+    }
+
+    /**
+     * The Weibo API sends no useful cache headers, so freshness comes from the endpoint's
+     * {@link CachePolicy}. Responses without a policy are not written to the cache at all.
+     */
+    private Cache.Entry createCacheEntry(NetworkResponse response) {
+        if (mCachePolicy == null) {
+            return null;
         }
+        return mCachePolicy.createEntry(response);
+    }
+
+    /**
+     * Opens the response body, transparently gunzipping it when the server compressed it.
+     */
+    private InputStream openBody(NetworkResponse response) {
+        InputStream body = new ByteArrayInputStream(response.data);
+
+        if (mGzipEnabled && isGzipped(response)) {
+            try {
+                return new GZIPInputStream(body, GZIP_BUFFER_SIZE);
+            } catch (IOException e) {
+                // it seems that result is not GZIP
+                body = new ByteArrayInputStream(response.data);
+            }
+        }
+
+        return body;
     }
 
     private boolean isGzipped(NetworkResponse response) {
@@ -124,22 +321,12 @@ public class GsonRequest<T> extends Request<T> {
             headers.get(HEADER_ENCODING).equalsIgnoreCase(ENCODING_GZIP);
     }
 
-    protected byte[] decompressResponse(byte [] compressed) throws IOException {
-        ByteArrayOutputStream baos = null;
-        try {
-            int size;
-            ByteArrayInputStream memstream = new ByteArrayInputStream(compressed);
-            GZIPInputStream gzip = new GZIPInputStream(memstream);
-            final int buffSize = 8192;
-            byte[] tempBuffer = new byte[buffSize];
-            baos = new ByteArrayOutputStream();
-            while ((size = gzip.read(tempBuffer, 0, buffSize)) != -1) {
-                baos.write(tempBuffer, 0, size);
-            }
-            return baos.toByteArray();
-        } finally {
-            if (baos != null) {
-                baos.close();
+    private static void closeQuietly(Reader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
             }
         }
     }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+/**
+ * The size of picture to load, from the three sizes Weibo serves for every picture.
+ */
+public enum ImageTier {
+    /** Nothing is loaded until the user asks for it. */
+    NONE,
+    /** About 120px wide. */
+    THUMBNAIL,
+    /** About 440px wide. */
+    BMIDDLE,
+    ORIGINAL;
+
+    /**
+     * @return the url of this tier, falling back to a smaller one if the status has no
+     *         such size, or null for {@link #NONE}
+     */
+    public String pick(String thumbnail, String bmiddle, String original) {
+        switch (this) {
+            case ORIGINAL:
+                if (original != null) {
+                    return original;
+                }
+                // fall through
+            case BMIDDLE:
+                if (bmiddle != null) {
+                    return bmiddle;
+                }
+                // fall through
+            case THUMBNAIL:
+                return thumbnail;
+            default:
+                return null;
+        }
+    }
+}
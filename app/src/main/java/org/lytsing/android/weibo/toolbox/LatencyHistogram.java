@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+/**
+ * A fixed size latency histogram with power-of-two millisecond buckets,
+ * cheap enough to update on every request.
+ */
+public class LatencyHistogram {
+
+    /** Bucket i counts samples in [2^(i-1), 2^i) ms, the last one everything above. */
+    private static final int BUCKET_COUNT = 18;
+
+    private final long[] mBuckets = new long[BUCKET_COUNT];
+
+    private long mCount;
+
+    private long mSum;
+
+    private long mMax;
+
+    public synchronized void add(long millis) {
+        if (millis < 0) {
+            return;
+        }
+
+        mBuckets[bucketOf(millis)]++;
+        mCount++;
+        mSum += millis;
+        mMax = Math.max(mMax, millis);
+    }
+
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    public synchronized long getMean() {
+        return mCount == 0 ? 0 : mSum / mCount;
+    }
+
+    public synchronized long getMax() {
+        return mMax;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound in ms of the bucket holding {@code percentile}, capped at the max
+     */
+    public synchronized long getPercentile(int percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        long rank = (mCount * percentile + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank) {
+                return Math.min(mMax, (1L << i) - 1);
+            }
+        }
+        return mMax;
+    }
+
+    private static int bucketOf(long millis) {
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+}
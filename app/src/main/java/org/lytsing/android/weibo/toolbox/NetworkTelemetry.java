@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+import com.sina.weibo.sdk.exception.WeiboException;
+import com.sina.weibo.sdk.exception.WeiboHttpException;
+import com.sina.weibo.sdk.openapi.RequestObserver;
+
+import org.lytsing.android.weibo.toolbox.EndpointStats.Phase;
+
+import java.io.PrintWriter;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint network telemetry of the Volley stack and the SDK.
+ * <p>
+ * A Volley request is traced from {@link #onQueued} through {@link ResilientNetwork},
+ * {@link OkHttpStack} and {@link GsonRequest}, which split its time into the
+ * {@link Phase}s of {@link EndpointStats}. The SDK runs its requests inside
+ * {@code AsyncWeiboRunner}, so only its queue wait and total time are known.
+ * <p>
+ * The numbers are shown by {@link org.lytsing.android.weibo.ui.NetworkStatsActivity}
+ * and dumped by {@code adb shell dumpsys activity top}.
+ */
+public final class NetworkTelemetry implements RequestObserver {
+
+    private static final NetworkTelemetry INSTANCE = new NetworkTelemetry();
+
+    private final ConcurrentHashMap<String, EndpointStats> mStats =
+            new ConcurrentHashMap<String, EndpointStats>();
+
+    /** Traces of the requests in flight, weak so that dropped requests don't leak. */
+    private final Map<Request<?>, RequestTrace> mTraces =
+            Collections.synchronizedMap(new WeakHashMap<Request<?>, RequestTrace>());
+
+    /** Trace of the request the current network dispatcher thread is running. */
+    private final ThreadLocal<RequestTrace> mCurrent = new ThreadLocal<RequestTrace>();
+
+    private volatile long mSince = System.currentTimeMillis();
+
+    private NetworkTelemetry() {
+    }
+
+    public static NetworkTelemetry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param url request url
+     * @return the stats of the endpoint of {@code url}
+     */
+    public EndpointStats getStats(String url) {
+        return getStatsFor(CircuitBreaker.endpointOf(url));
+    }
+
+    /**
+     * @return the stats of every endpoint seen so far, busiest first
+     */
+    public List<EndpointStats> getAllStats() {
+        List<EndpointStats> all = new ArrayList<EndpointStats>(mStats.values());
+        Collections.sort(all, new Comparator<EndpointStats>() {
+            @Override
+            public int compare(EndpointStats lhs, EndpointStats rhs) {
+                long l = lhs.getRequestCount();
+                long r = rhs.getRequestCount();
+                return l < r ? 1 : (l > r ? -1 : lhs.getEndpoint().compareTo(rhs.getEndpoint()));
+            }
+        });
+        return all;
+    }
+
+    public void reset() {
+        mStats.clear();
+        mSince = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes all stats as text, in the style of {@code dumpsys}.
+     */
+    public void dump(String prefix, PrintWriter writer) {
+        writer.print(prefix);
+        writer.println("Network telemetry since "
+                + DateFormat.getDateTimeInstance().format(new Date(mSince)) + ":");
+        writer.print(prefix);
+        writer.println("  connection pool hits=" + OkHttpStack.getPoolHitCount()
+                + " misses=" + OkHttpStack.getPoolMissCount());
+        BandwidthEstimator estimator = BandwidthEstimator.getInstance();
+        writer.print(prefix);
+        writer.println("  bandwidth kbps=" + Math.round(estimator.getThroughputKbps())
+                + " rtt=" + estimator.getRoundTripMs() + "ms profile=" + estimator.getProfile());
+
+        for (EndpointStats stats : getAllStats()) {
+            stats.dump(prefix + "  ", writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Called when a request is added to the queue.
+     */
+    public void onQueued(Request<?> request) {
+        RequestTrace trace = new RequestTrace(CircuitBreaker.endpointOf(request.getUrl()));
+        trace.mQueuedAt = RequestTrace.now();
+        mTraces.put(request, trace);
+    }
+
+    RequestTrace onNetworkStart(Request<?> request) {
+        RequestTrace trace = mTraces.get(request);
+        if (trace == null) {
+            // Not queued through the app, e.g. by the ImageLoader.
+            trace = new RequestTrace(CircuitBreaker.endpointOf(request.getUrl()));
+            mTraces.put(request, trace);
+        }
+
+        trace.mNetworkStartedAt = RequestTrace.now();
+        if (trace.mQueuedAt != 0) {
+            getStats(request.getUrl()).addLatency(Phase.QUEUE,
+                    trace.mNetworkStartedAt - trace.mQueuedAt);
+        }
+
+        mCurrent.set(trace);
+        return trace;
+    }
+
+    void onNetworkEnd(Request<?> request, RequestTrace trace, VolleyError error) {
+        mCurrent.remove();
+
+        EndpointStats stats = getStats(request.getUrl());
+        stats.addLatency(Phase.TOTAL, RequestTrace.now() - trace.mNetworkStartedAt);
+        stats.onRequest(request.getRetryPolicy().getCurrentRetryCount());
+        if (error != null) {
+            stats.onError(errorCode(error));
+        }
+    }
+
+    /**
+     * @return the trace of the request running on this thread, or null
+     */
+    RequestTrace current() {
+        return mCurrent.get();
+    }
+
+    void onAttemptStart() {
+        RequestTrace trace = mCurrent.get();
+        if (trace != null) {
+            trace.mAttemptStartedAt = RequestTrace.now();
+            trace.mConnectedAt = 0;
+        }
+    }
+
+    void onSocketConnected() {
+        RequestTrace trace = mCurrent.get();
+        if (trace != null) {
+            trace.mConnectedAt = RequestTrace.now();
+        }
+    }
+
+    void onHeaders() {
+        RequestTrace trace = mCurrent.get();
+        if (trace == null) {
+            return;
+        }
+
+        trace.mHeadersAt = RequestTrace.now();
+        EndpointStats stats = getStatsFor(trace.mEndpoint);
+        long sent = trace.mAttemptStartedAt;
+        if (trace.mConnectedAt != 0) {
+            stats.addLatency(Phase.CONNECT, trace.mConnectedAt - sent);
+            sent = trace.mConnectedAt;
+        }
+        stats.addLatency(Phase.TTFB, trace.mHeadersAt - sent);
+        BandwidthEstimator.getInstance().onRoundTrip(trace.mHeadersAt - sent);
+    }
+
+    void onBodyRead(RequestTrace trace, long wireBytes) {
+        EndpointStats stats = getStatsFor(trace.mEndpoint);
+        long downloadMillis = RequestTrace.now() - trace.mHeadersAt;
+        stats.addLatency(Phase.DOWNLOAD, downloadMillis);
+        stats.onBytes(wireBytes, 0);
+        BandwidthEstimator.getInstance().onTransfer(wireBytes, downloadMillis);
+    }
+
+    /**
+     * Called after a response was decoded, from the network or from the cache.
+     */
+    void onParsed(Request<?> request, long parseMillis, long decodedBytes) {
+        RequestTrace trace = mTraces.get(request);
+        EndpointStats stats = getStats(request.getUrl());
+
+        if (trace == null || trace.mNetworkStartedAt == 0) {
+            stats.onCacheHit();
+            return;
+        }
+
+        stats.addLatency(Phase.PARSE, parseMillis);
+        stats.onBytes(0, decodedBytes);
+    }
+
+    @Override
+    public void onRequestFinished(String url, long queueMillis, long executeMillis,
+            WeiboException error) {
+        EndpointStats stats = getStats(url);
+        stats.addLatency(Phase.QUEUE, queueMillis);
+        stats.addLatency(Phase.TOTAL, executeMillis);
+        stats.onRequest(0);
+        if (error != null) {
+            stats.onError(error instanceof WeiboHttpException
+                    ? "HTTP " + ((WeiboHttpException) error).getStatusCode()
+                    : error.getClass().getSimpleName());
+        }
+    }
+
+    private EndpointStats getStatsFor(String endpoint) {
+        EndpointStats stats = mStats.get(endpoint);
+        if (stats == null) {
+            mStats.putIfAbsent(endpoint, new EndpointStats(endpoint));
+            stats = mStats.get(endpoint);
+        }
+        return stats;
+    }
+
+    private static String errorCode(VolleyError error) {
+        if (error instanceof TimeoutError) {
+            return "timeout";
+        }
+        if (error instanceof CircuitOpenError) {
+            return "circuit-open";
+        }
+
+        NetworkResponse response = error.networkResponse;
+        if (response == null) {
+            return error.getClass().getSimpleName();
+        }
+
+        int errorCode = RequestFailure.readErrorCode(response);
+        return errorCode != 0 ? "weibo " + errorCode : "HTTP " + response.statusCode;
+    }
+}
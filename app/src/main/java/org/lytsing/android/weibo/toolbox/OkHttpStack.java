@@ -16,24 +16,71 @@
 
 package org.lytsing.android.weibo.toolbox;
 
+import com.android.volley.AuthFailureError;
+import com.android.volley.Request;
+import com.android.volley.toolbox.HttpStack;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.android.volley.toolbox.HurlStack;
-import com.squareup.okhttp.OkHttpClient;
-import com.squareup.okhttp.OkUrlFactory;
+import javax.net.SocketFactory;
 
 /**
  * An {@link com.android.volley.toolbox.HttpStack HttpStack} implementation which
  * uses OkHttp as its transport.
+ * <p>
+ * Requests are executed as native OkHttp calls on one app-wide client, so every
+ * request to api.weibo.com shares the same connection pool and, when the server
+ * negotiates it, the same multiplexed SPDY/HTTP2 connection.
  * @author Liqing Huang
  */
-public class OkHttpStack extends HurlStack {
+public class OkHttpStack implements HttpStack {
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+
+    private static final long KEEP_ALIVE_DURATION_MS = 5 * 60 * 1000;
+
+    private static final int MAX_REQUESTS = 16;
+
+    private static final int MAX_REQUESTS_PER_HOST = 6;
+
+    private static final int CONNECT_TIMEOUT_MS = 15 * 1000;
+
+    private static OkHttpClient sSharedClient;
+
+    private static final AtomicLong sRequestCount = new AtomicLong();
+
+    private static final AtomicLong sNewConnectionCount = new AtomicLong();
+
     private final OkHttpClient client;
 
+    /**
+     * Creates a stack backed by the shared, app-wide client.
+     */
     public OkHttpStack() {
-        this(new OkHttpClient());
+        this(getSharedClient());
     }
 
     public OkHttpStack(OkHttpClient client) {
@@ -43,9 +90,235 @@ public class OkHttpStack extends HurlStack {
         this.client = client;
     }
 
+    /**
+     * @return the app-wide client, created with a tuned connection pool on first access
+     */
+    public static synchronized OkHttpClient getSharedClient() {
+        if (sSharedClient == null) {
+            sSharedClient = createClient();
+        }
+
+        return sSharedClient;
+    }
+
+    private static OkHttpClient createClient() {
+        OkHttpClient client = new OkHttpClient();
+        client.setConnectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MS));
+        client.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.SPDY_3, Protocol.HTTP_1_1));
+        client.setConnectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        client.setDispatcher(dispatcher);
+
+        // Every socket OkHttp opens is a pool miss, everything else reused a connection.
+        client.setSocketFactory(new CountingSocketFactory(SocketFactory.getDefault()));
+
+        return client;
+    }
+
+    /**
+     * @return the number of requests which were served by a pooled connection
+     */
+    public static long getPoolHitCount() {
+        return Math.max(0, sRequestCount.get() - sNewConnectionCount.get());
+    }
+
+    /**
+     * @return the number of requests which had to open a new connection
+     */
+    public static long getPoolMissCount() {
+        return sNewConnectionCount.get();
+    }
+
     @Override
-    protected HttpURLConnection createConnection(URL url) throws IOException {
-        return new OkUrlFactory(client).open(url);
+    public HttpResponse performRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws IOException, AuthFailureError {
+        int timeoutMs = request.getTimeoutMs();
+        OkHttpClient callClient = client.clone();
+        callClient.setReadTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        callClient.setWriteTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+
+        com.squareup.okhttp.Request.Builder builder = new com.squareup.okhttp.Request.Builder();
+        builder.url(request.getUrl());
+
+        Map<String, String> headers = request.getHeaders();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getValue() != null) {
+                builder.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        for (Map.Entry<String, String> header : additionalHeaders.entrySet()) {
+            if (header.getValue() != null) {
+                builder.addHeader(header.getKey(), header.getValue());
+            }
+        }
+
+        setConnectionParametersForRequest(builder, request);
+
+        sRequestCount.incrementAndGet();
+        NetworkTelemetry.getInstance().onAttemptStart();
+        Response okResponse = callClient.newCall(builder.build()).execute();
+        NetworkTelemetry.getInstance().onHeaders();
+
+        StatusLine responseStatus = new BasicStatusLine(parseProtocol(okResponse.protocol()),
+                okResponse.code(), okResponse.message());
+        BasicHttpResponse response = new BasicHttpResponse(responseStatus);
+        response.setEntity(entityFromOkHttpResponse(okResponse));
+
+        Headers responseHeaders = okResponse.headers();
+        for (int i = 0, len = responseHeaders.size(); i < len; i++) {
+            final String name = responseHeaders.name(i);
+            final String value = responseHeaders.value(i);
+            if (name != null) {
+                response.addHeader(name, value);
+            }
+        }
+
+        return response;
     }
-}
 
+    private static HttpEntity entityFromOkHttpResponse(Response response) throws IOException {
+        BasicHttpEntity entity = new BasicHttpEntity();
+        ResponseBody body = response.body();
+
+        final RequestTrace trace = NetworkTelemetry.getInstance().current();
+        if (trace == null) {
+            entity.setContent(body.byteStream());
+        } else {
+            // Counts the bytes on the wire, before any gunzipping.
+            entity.setContent(new CountingInputStream(body.byteStream()) {
+                @Override
+                protected void onEnd() {
+                    NetworkTelemetry.getInstance().onBodyRead(trace, getCount());
+                }
+            });
+        }
+        entity.setContentLength(body.contentLength());
+        entity.setContentEncoding(response.header("Content-Encoding"));
+
+        if (body.contentType() != null) {
+            entity.setContentType(body.contentType().toString());
+        }
+        return entity;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void setConnectionParametersForRequest(
+            com.squareup.okhttp.Request.Builder builder, Request<?> request)
+            throws IOException, AuthFailureError {
+        switch (request.getMethod()) {
+            case Request.Method.DEPRECATED_GET_OR_POST:
+                // Ensure backwards compatibility.  Volley assumes a request with a null body is a GET.
+                byte[] postBody = request.getPostBody();
+                if (postBody != null) {
+                    builder.post(RequestBody.create(
+                            MediaType.parse(request.getPostBodyContentType()), postBody));
+                }
+                break;
+            case Request.Method.GET:
+                builder.get();
+                break;
+            case Request.Method.DELETE:
+                builder.delete();
+                break;
+            case Request.Method.POST:
+                builder.post(createRequestBody(request));
+                break;
+            case Request.Method.PUT:
+                builder.put(createRequestBody(request));
+                break;
+            case Request.Method.HEAD:
+                builder.head();
+                break;
+            case Request.Method.OPTIONS:
+                builder.method("OPTIONS", null);
+                break;
+            case Request.Method.TRACE:
+                builder.method("TRACE", null);
+                break;
+            case Request.Method.PATCH:
+                builder.patch(createRequestBody(request));
+                break;
+            default:
+                throw new IllegalStateException("Unknown method type.");
+        }
+    }
+
+    private static RequestBody createRequestBody(Request<?> request) throws AuthFailureError {
+        byte[] body = request.getBody();
+        if (body == null) {
+            body = new byte[0];
+        }
+        return RequestBody.create(MediaType.parse(request.getBodyContentType()), body);
+    }
+
+    private static ProtocolVersion parseProtocol(final Protocol protocol) {
+        switch (protocol) {
+            case HTTP_1_0:
+                return new ProtocolVersion("HTTP", 1, 0);
+            case HTTP_1_1:
+                return new ProtocolVersion("HTTP", 1, 1);
+            case SPDY_3:
+                return new ProtocolVersion("SPDY", 3, 1);
+            case HTTP_2:
+                return new ProtocolVersion("HTTP", 2, 0);
+            default:
+                throw new IllegalStateException("Unknown protocol");
+        }
+    }
+
+    /**
+     * A {@link SocketFactory} which counts the sockets OkHttp opens, i.e. connection pool misses.
+     */
+    private static class CountingSocketFactory extends SocketFactory {
+        private final SocketFactory mDelegate;
+
+        CountingSocketFactory(SocketFactory delegate) {
+            mDelegate = delegate;
+        }
+
+        /**
+         * The only variant OkHttp uses. The socket is connected by OkHttp after the
+         * DNS lookup, so the end of its connect() also ends the request's connect phase.
+         */
+        @Override
+        public Socket createSocket() throws IOException {
+            sNewConnectionCount.incrementAndGet();
+            return new Socket() {
+                @Override
+                public void connect(SocketAddress remoteAddr, int timeout) throws IOException {
+                    super.connect(remoteAddr, timeout);
+                    NetworkTelemetry.getInstance().onSocketConnected();
+                }
+            };
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            sNewConnectionCount.incrementAndGet();
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+                throws IOException {
+            sNewConnectionCount.incrementAndGet();
+            return mDelegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            sNewConnectionCount.incrementAndGet();
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+                int localPort) throws IOException {
+            sNewConnectionCount.incrementAndGet();
+            return mDelegate.createSocket(address, port, localAddress, localPort);
+        }
+    }
+}
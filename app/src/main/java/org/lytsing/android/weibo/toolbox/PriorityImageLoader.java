@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response.ErrorListener;
+import com.android.volley.Response.Listener;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.ImageLoader;
+import com.android.volley.toolbox.ImageRequest;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+
+/**
+ * An {@link ImageLoader} whose requests are scheduled as {@link RequestPriority#VISIBLE_CONTENT}.
+ * <p>
+ * A stock {@link ImageRequest} runs at {@link Request.Priority#LOW}, behind everything
+ * else, which is wrong for the avatar of a row on screen. Rows that scroll away cancel
+ * their image through the {@link ImageLoader.ImageContainer} instead, so what is left
+ * queued is what the user actually sees.
+ */
+public class PriorityImageLoader extends ImageLoader {
+
+    private final RequestPriority mPriority;
+
+    public PriorityImageLoader(RequestQueue queue, ImageCache imageCache) {
+        this(queue, imageCache, RequestPriority.VISIBLE_CONTENT);
+    }
+
+    public PriorityImageLoader(RequestQueue queue, ImageCache imageCache,
+            RequestPriority priority) {
+        super(queue, imageCache);
+        mPriority = priority;
+    }
+
+    @Override
+    protected Request<Bitmap> makeImageRequest(String requestUrl, int maxWidth, int maxHeight,
+            final String cacheKey) {
+        return new ImageRequest(requestUrl, new Listener<Bitmap>() {
+            @Override
+            public void onResponse(Bitmap response) {
+                onGetImageSuccess(cacheKey, response);
+            }
+        }, maxWidth, maxHeight, Config.RGB_565, new ErrorListener() {
+            @Override
+            public void onErrorResponse(VolleyError error) {
+                onGetImageError(cacheKey, error);
+            }
+        }) {
+            @Override
+            public Priority getPriority() {
+                return mPriority.toVolleyPriority();
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.Request;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Coalesces identical GET {@link GsonRequest}s which are in flight at the same time.
+ * <p>
+ * The first request for a cache key goes to the network, later identical requests
+ * are attached to it instead of being queued and receive the same parsed response
+ * through their own listeners. A request leaves the in-flight table as soon as its
+ * response or error is delivered.
+ */
+public class RequestCoalescer {
+
+    private final Map<String, GsonRequest<?>> mInFlight = new HashMap<String, GsonRequest<?>>();
+
+    /**
+     * @param request request about to be queued
+     * @return true if {@code request} joined an identical in-flight request and must
+     *         not be queued itself
+     */
+    public synchronized boolean coalesce(Request<?> request) {
+        if (!(request instanceof GsonRequest) || request.getMethod() != Request.Method.GET) {
+            return false;
+        }
+
+        GsonRequest<?> gsonRequest = (GsonRequest<?>) request;
+        String key = gsonRequest.getCacheKey();
+        GsonRequest<?> leader = mInFlight.get(key);
+
+        if (leader != null && !leader.isCanceled() && leader.attach(gsonRequest)) {
+            return true;
+        }
+
+        gsonRequest.mCoalescer = this;
+        mInFlight.put(key, gsonRequest);
+        return false;
+    }
+
+    /**
+     * Cancels the requests waiting on an in-flight request which carry {@code tag}.
+     *
+     * @param tag tag of request
+     */
+    public void cancelAll(Object tag) {
+        GsonRequest<?>[] leaders;
+        synchronized (this) {
+            leaders = mInFlight.values().toArray(new GsonRequest<?>[mInFlight.size()]);
+        }
+
+        for (GsonRequest<?> leader : leaders) {
+            for (GsonRequest<?> follower : leader.getFollowers()) {
+                if (tag.equals(follower.getTag())) {
+                    follower.cancel();
+                }
+            }
+        }
+    }
+
+    synchronized void remove(GsonRequest<?> request) {
+        String key = request.getCacheKey();
+        if (mInFlight.get(key) == request) {
+            mInFlight.remove(key);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import org.lytsing.android.weibo.core.ResponseEnvelope;
+import org.lytsing.android.weibo.core.WeiboApiException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Classification of a failed request, deciding whether and how it may be retried.
+ */
+public enum RequestFailure {
+    /** Socket or connect timeout. */
+    TIMEOUT(true),
+
+    /** No response at all: no connection, DNS failure, connection reset. */
+    NETWORK(true),
+
+    /** HTTP 5xx. */
+    SERVER(true),
+
+    /** Weibo rate limit error_code, retrying before the limit resets is pointless. */
+    RATE_LIMITED(false),
+
+    /** Any other 4xx, the same request will fail the same way. */
+    CLIENT(false);
+
+    /**
+     * Weibo error codes for "IP/User requests out of rate limit".
+     * @see <a href="http://open.weibo.com/wiki/Error_code">Error code</a>
+     */
+    private static final int[] RATE_LIMIT_ERROR_CODES = {10022, 10023, 10024};
+
+    private static final String HEADER_ENCODING = "Content-Encoding";
+
+    private final boolean mRetryable;
+
+    RequestFailure(boolean retryable) {
+        mRetryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return mRetryable;
+    }
+
+    /**
+     * @param error the error a request failed with
+     * @return the class of the failure
+     */
+    public static RequestFailure classify(VolleyError error) {
+        if (error instanceof TimeoutError) {
+            return TIMEOUT;
+        }
+
+        NetworkResponse response = error.networkResponse;
+        if (response == null) {
+            return NETWORK;
+        }
+
+        int status = response.statusCode;
+        if (status >= 500) {
+            return SERVER;
+        }
+        if (isRateLimited(response)) {
+            return RATE_LIMITED;
+        }
+        if (status >= 400) {
+            return CLIENT;
+        }
+        return NETWORK;
+    }
+
+    private static boolean isRateLimited(NetworkResponse response) {
+        int errorCode = readErrorCode(response);
+        for (int code : RATE_LIMIT_ERROR_CODES) {
+            if (code == errorCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the Weibo {@code error_code} of an error body, or 0 if there is none
+     */
+    static int readErrorCode(NetworkResponse response) {
+        if (response.data == null) {
+            return 0;
+        }
+
+        Reader body = null;
+        try {
+            body = new InputStreamReader(openBody(response), "UTF-8");
+            WeiboApiException error = ResponseEnvelope.readError(body);
+            return error == null ? 0 : error.getmErrorCode();
+        } catch (IOException e) {
+            return 0;
+        } finally {
+            if (body != null) {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static InputStream openBody(NetworkResponse response) throws IOException {
+        InputStream in = new ByteArrayInputStream(response.data);
+        String encoding = response.headers == null ? null : response.headers.get(HEADER_ENCODING);
+        return "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(in) : in;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.Request.Priority;
+
+/**
+ * Scheduling classes of the requests the app sends, from most to least urgent.
+ * <p>
+ * Volley takes waiting requests off its queues by priority first and by arrival
+ * second, so a timeline page the user asked for is sent ahead of the avatars
+ * queued by a fling.
+ */
+public enum RequestPriority {
+    /** The user is waiting on it: pull to refresh, first load, retry. */
+    USER_INITIATED(Priority.IMMEDIATE),
+
+    /** Content of rows currently on screen: avatars, thumbnails, map previews. */
+    VISIBLE_CONTENT(Priority.HIGH),
+
+    /** Content the user is likely to need soon, e.g. the next page. */
+    PREFETCH(Priority.NORMAL),
+
+    /** Anything nobody is looking at. */
+    BACKGROUND(Priority.LOW);
+
+    private final Priority mPriority;
+
+    RequestPriority(Priority priority) {
+        mPriority = priority;
+    }
+
+    /**
+     * @return the Volley priority this class is scheduled with
+     */
+    public Priority toVolleyPriority() {
+        return mPriority;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import android.os.SystemClock;
+
+/**
+ * Timestamps of a single request as it goes through the queue, the network and the parser.
+ * All times are {@link SystemClock#elapsedRealtime()} values, 0 when the event did not happen.
+ * @see NetworkTelemetry
+ */
+class RequestTrace {
+
+    final String mEndpoint;
+
+    /** Added to the request queue. */
+    volatile long mQueuedAt;
+
+    /** Picked up by a network dispatcher. */
+    volatile long mNetworkStartedAt;
+
+    /** Start of the current attempt in the http stack. */
+    volatile long mAttemptStartedAt;
+
+    /** A new socket finished connecting, 0 if a pooled connection was used. */
+    volatile long mConnectedAt;
+
+    /** Response headers received. */
+    volatile long mHeadersAt;
+
+    RequestTrace(String endpoint) {
+        mEndpoint = endpoint;
+    }
+
+    static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.RetryPolicy;
+import com.android.volley.ServerError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.HttpStack;
+
+/**
+ * A {@link BasicNetwork} which consults the {@link CircuitBreaker} before each request
+ * and reports the outcome to it afterwards.
+ * <p>
+ * {@link BasicNetwork} only hands timeouts and auth errors to the request's
+ * {@link RetryPolicy}, a 5xx is thrown straight back. Here those are given to the retry
+ * policy as well, which decides with {@link RequestFailure} whether to try again.
+ * <p>
+ * Every exchange is reported to {@link NetworkTelemetry}.
+ */
+public class ResilientNetwork extends BasicNetwork {
+
+    private final CircuitBreaker mCircuitBreaker;
+
+    public ResilientNetwork(HttpStack httpStack) {
+        this(httpStack, CircuitBreaker.getInstance());
+    }
+
+    public ResilientNetwork(HttpStack httpStack, CircuitBreaker circuitBreaker) {
+        super(httpStack);
+        mCircuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+        String url = request.getUrl();
+        if (!mCircuitBreaker.allowRequest(url)) {
+            throw new CircuitOpenError(mCircuitBreaker.getRemainingCoolDown(url));
+        }
+
+        NetworkTelemetry telemetry = NetworkTelemetry.getInstance();
+        RequestTrace trace = telemetry.onNetworkStart(request);
+        VolleyError failed = null;
+        try {
+            return performWithRetries(request);
+        } catch (VolleyError e) {
+            failed = e;
+            throw e;
+        } finally {
+            telemetry.onNetworkEnd(request, trace, failed);
+        }
+    }
+
+    private NetworkResponse performWithRetries(Request<?> request) throws VolleyError {
+        String url = request.getUrl();
+        while (true) {
+            try {
+                NetworkResponse response = super.performRequest(request);
+                mCircuitBreaker.onSuccess(url);
+                return response;
+            } catch (ServerError e) {
+                RequestFailure failure = RequestFailure.classify(e);
+                if (failure != RequestFailure.SERVER) {
+                    mCircuitBreaker.onFailure(url, failure);
+                    throw e;
+                }
+                try {
+                    request.getRetryPolicy().retry(e);
+                } catch (VolleyError error) {
+                    mCircuitBreaker.onFailure(url, RequestFailure.SERVER);
+                    throw error;
+                }
+                request.addMarker("server-retry");
+            } catch (VolleyError e) {
+                mCircuitBreaker.onFailure(url, RequestFailure.classify(e));
+                throw e;
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.android.volley.VolleyError;
 import android.content.Context;
 
 import org.lytsing.android.weibo.R;
+import org.lytsing.android.weibo.core.WeiboApiException;
 
 /**
  * simple helper to display appropriate message when one of these exceptions occurs.
@@ -43,7 +44,11 @@ public class VolleyErrorHelper {
      * @return
      */
     public static String getMessage(Object error, Context context) {
-        if (error instanceof TimeoutError) {
+        if (error instanceof VolleyError
+                && ((VolleyError) error).getCause() instanceof WeiboApiException) {
+            // The API's own message, see GsonRequest.
+            return ((VolleyError) error).getCause().getMessage();
+        } else if (error instanceof TimeoutError || error instanceof CircuitOpenError) {
             return context.getResources().getString(R.string.general_server_down);
         } else if (isServerProblem(error)) {
             return handleServerError(error, context);
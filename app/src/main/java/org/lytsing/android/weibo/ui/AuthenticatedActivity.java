@@ -24,10 +24,12 @@ import com.sina.weibo.sdk.exception.WeiboException;
 
 import org.lytsing.android.weibo.core.Configuration;
 import org.lytsing.android.weibo.core.Session;
+import org.lytsing.android.weibo.core.UserCache;
 import org.lytsing.android.weibo.util.Preferences;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.TextUtils;
 
 /**
  *
@@ -35,6 +37,9 @@ import android.os.Bundle;
  *
  */
 public class AuthenticatedActivity extends BaseActivity {
+    /** The uid of the account, as sent back with the token. */
+    private static final String KEY_UID = "uid";
+
     private SsoHandler mSsoHandler;
 
     private Oauth2AccessToken mAccessToken;
@@ -69,11 +74,21 @@ public class AuthenticatedActivity extends BaseActivity {
                     String expiresIn = values.getString(Preferences.EXPIRES_IN);
 
                     mAccessToken = new Oauth2AccessToken(token, expiresIn);
+                    mAccessToken.setUid(values.getString(KEY_UID));
                     if (mAccessToken.isSessionValid()) {
+                        String previousUid = Session.restore(AuthenticatedActivity.this).getUid();
+                        if (!TextUtils.equals(previousUid, mAccessToken.getUid())) {
+                            // Cached responses are keyed without the token, they belong to
+                            // the previous account.
+                            getWeiboApplication().clearResponseCache();
+                        }
 
                         Session.save(AuthenticatedActivity.this,
                                 mAccessToken);
                         getWeiboApplication().setOauth2AccessToken(mAccessToken);
+                        UserCache.getInstance().onSessionChanged();
+                        // Writes rejected with the old token can go out now.
+                        getWeiboApplication().getOutbox().flush();
                         enterTimeline();
                     }
                 }
@@ -16,9 +16,11 @@
 
 package org.lytsing.android.weibo.ui;
 
+import com.android.volley.Request;
 import com.sina.weibo.sdk.auth.Oauth2AccessToken;
 import org.lytsing.android.weibo.R;
 import org.lytsing.android.weibo.WeiboApplication;
+import org.lytsing.android.weibo.toolbox.NetworkTelemetry;
 
 import android.os.Bundle;
 import androidx.core.app.NavUtils;
@@ -28,6 +30,9 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.widget.Toast;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 /**
  * A base activity that handles common functionality in the app.
  * @author Liqing Huang
@@ -48,6 +53,14 @@ public abstract class BaseActivity extends FragmentActivity {
         mAccessToken = mApplication.getOauth2AccessToken();
     }
 
+    @Override
+    protected void onDestroy() {
+        // Nobody is left to show the responses.
+        mApplication.cancelPendingRequests(this);
+
+        super.onDestroy();
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.base, menu);
@@ -83,6 +96,24 @@ public abstract class BaseActivity extends FragmentActivity {
         Toast.makeText(this, text, TOAST_DURATION).show();
     }
 
+    /**
+     * Queues a request tagged with this activity, it is cancelled when the activity is destroyed.
+     *
+     * @param req request
+     */
+    public <T> void addToRequestQueue(Request<T> req) {
+        mApplication.addToRequestQueue(req, this);
+    }
+
+    /**
+     * Adds the network telemetry to {@code adb shell dumpsys activity top}.
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        NetworkTelemetry.getInstance().dump(prefix, writer);
+    }
+
     public WeiboApplication getWeiboApplication() {
         return mApplication;
     }
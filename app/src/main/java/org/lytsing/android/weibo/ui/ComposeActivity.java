@@ -19,7 +19,6 @@ package org.lytsing.android.weibo.ui;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.database.Cursor;
-import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.location.Location;
@@ -51,12 +50,7 @@ import com.androidquery.AQuery;
 import com.androidquery.callback.AjaxStatus;
 import com.androidquery.callback.LocationAjaxCallback;
 import com.orhanobut.logger.Logger;
-import com.sina.weibo.sdk.exception.WeiboException;
-import com.sina.weibo.sdk.net.RequestListener;
-import com.sina.weibo.sdk.openapi.StatusesAPI;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import org.lytsing.android.weibo.R;
 import org.lytsing.android.weibo.adapters.GridViewFaceAdapter;
 import org.lytsing.android.weibo.util.AlertUtil;
@@ -65,8 +59,7 @@ import org.lytsing.android.weibo.util.Utils;
 /**
  * @author Liqing Huang
  */
-public class ComposeActivity extends BaseActivity implements OnClickListener,
-        RequestListener {
+public class ComposeActivity extends BaseActivity implements OnClickListener {
 
     private EditText mEdit;
 
@@ -179,42 +172,21 @@ public class ComposeActivity extends BaseActivity implements OnClickListener,
         });
     }
 
-    @Override
-    public void onComplete(String response) {
-        Utils.showToast(this, R.string.send_success);
-        this.finish();
-    }
-
-    @Override
-    public void onWeiboException(final WeiboException e) {
-        String content = String.format(
-                ComposeActivity.this.getString(R.string.send_failed) + ":%s", e.getMessage());
-        Utils.showToast(this, content);
-    }
-
+    /**
+     * Hands the post to the outbox, which sends it in the background and keeps it
+     * across connection losses, so the composer can close right away.
+     */
     private void composeNewPost() {
-        StatusesAPI api = new StatusesAPI(mAccessToken);
         mContent = mEdit.getText().toString();
         if (TextUtils.isEmpty(mContent)) {
             return;
         }
 
-        if (!TextUtils.isEmpty(mPicPath)) {
-            Utils.showToast(this, R.string.sending);
-            Bitmap bitmap = null;
-            try {
-                bitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), mImageUri);
-            } catch (FileNotFoundException e) {
-                Logger.e(e.getMessage());
-            } catch (IOException e) {
-                Logger.e(e.getMessage());
-            }
+        Uri image = TextUtils.isEmpty(mPicPath) ? null : mImageUri;
+        mApplication.getOutbox().enqueuePost(mContent, image, mLatitude, mLongitude);
 
-            api.upload(this.mContent, bitmap, mLatitude, mLongitude, this);
-        } else {
-            // Just update a text weibo!
-            api.update(mContent, mLatitude, mLongitude, this);
-        }
+        Utils.showToast(this, R.string.sending);
+        finish();
     }
 
     @Override
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.ui;
+
+import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.TextView;
+
+import org.lytsing.android.weibo.R;
+import org.lytsing.android.weibo.toolbox.NetworkTelemetry;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Shows the per-endpoint network telemetry, see {@link NetworkTelemetry}.
+ */
+public class NetworkStatsActivity extends BaseActivity {
+
+    private TextView mStatsView;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        setContentView(R.layout.network_stats);
+        mStatsView = (TextView) findViewById(R.id.network_stats);
+        getActionBar().setDisplayHomeAsUpEnabled(true);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showStats();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.network_stats, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.refresh_stats:
+                showStats();
+                return true;
+            case R.id.reset_stats:
+                NetworkTelemetry.getInstance().reset();
+                showStats();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
+    private void showStats() {
+        StringWriter out = new StringWriter();
+        NetworkTelemetry.getInstance().dump("", new PrintWriter(out));
+        mStatsView.setText(out.toString());
+    }
+}
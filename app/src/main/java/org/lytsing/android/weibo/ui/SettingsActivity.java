@@ -18,6 +18,7 @@ package org.lytsing.android.weibo.ui;
 
 import android.app.Activity;
 import android.content.DialogInterface;
+import android.content.Intent;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
@@ -83,6 +84,8 @@ public class SettingsActivity extends Activity {
                 startActivity(WebViewDialog.getIntent(sSettingsActivity,
                         R.string.os_licenses_label,
                         "file:///android_asset/licenses.html"));
+            } else if ("network-stats".equals(preference.getKey())) {
+                startActivity(new Intent(sSettingsActivity, NetworkStatsActivity.class));
             } else if ("clear-cache".equals(preference.getKey())) {
                 DialogInterface.OnClickListener listener = new DialogInterface.OnClickListener() {
                     @Override
@@ -18,8 +18,8 @@ package org.lytsing.android.weibo.ui;
 
 
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.DialogInterface;
-import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.text.format.DateFormat;
@@ -31,41 +31,91 @@ import android.view.View;
 import android.view.Window;
 import android.widget.EditText;
 import android.widget.ListView;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request.Method;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
 import com.android.volley.toolbox.NetworkImageView;
 import com.androidquery.AQuery;
 import com.commonsware.cwac.merge.MergeAdapter;
-import com.orhanobut.logger.Logger;
 import com.sina.weibo.sdk.exception.WeiboException;
 import com.sina.weibo.sdk.net.RequestListener;
-import com.sina.weibo.sdk.openapi.CommentsAPI;
-import com.sina.weibo.sdk.openapi.legacy.FavoritesAPI;
+import com.sina.weibo.sdk.net.WeiboParameters;
 import com.sina.weibo.sdk.openapi.legacy.StatusesAPI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.lytsing.android.weibo.Consts;
 import org.lytsing.android.weibo.R;
 import org.lytsing.android.weibo.adapters.CommentsAdapter;
+import org.lytsing.android.weibo.core.Configuration;
+import org.lytsing.android.weibo.core.Outbox;
+import org.lytsing.android.weibo.core.OutboxEntry;
+import org.lytsing.android.weibo.core.StatusStore;
+import org.lytsing.android.weibo.core.Timeline;
+import org.lytsing.android.weibo.core.UserCache;
+import org.lytsing.android.weibo.core.WeiboDate;
 import org.lytsing.android.weibo.core.models.Comment;
+import org.lytsing.android.weibo.core.models.CommentsObject;
+import org.lytsing.android.weibo.core.models.Geo;
 import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
+import org.lytsing.android.weibo.toolbox.FetchProfile;
+import org.lytsing.android.weibo.toolbox.GsonRequest;
+import org.lytsing.android.weibo.toolbox.RequestPriority;
+import org.lytsing.android.weibo.toolbox.VolleyErrorHelper;
 import org.lytsing.android.weibo.util.Utils;
 
 public class StatusDetailActivity extends BaseActivity implements RequestListener {
 
+    private static final String STATE_STATUS = "status";
+
+    private static final int COMMENTS_PAGE_SIZE = 50;
+
+    private long mStatusId;
+
+    /** Null until the status is loaded, if it was not in the {@link StatusStore}. */
     private Statuses mStatus;
 
     private MergeAdapter mAdapter = null;
 
     private ListView mListView;
 
+    /** The status itself, above the comments. Null until {@link #initView()}. */
+    private View mHeaderView;
+
     private CommentsAdapter mCommentsAdapter;
 
     private Menu mOptionsMenu;
 
     private AQuery aq = null;
 
-    private CommentsAPI api;
+    /** The last page of comments shown, replaced when a fresher one is delivered. */
+    private List<Comment> mLoadedComments = Collections.emptyList();
+
+    /** Comments shown before they are sent, by the id of their outbox entry. */
+    private final Map<String, Comment> mPendingComments = new HashMap<String, Comment>();
+
+    /** Outbox entry id of the favorite shown before it is sent, if any. */
+    private String mPendingFavorite;
+
+    private final Outbox.Listener mOutboxListener = new Outbox.Listener() {
+        @Override
+        public void onSent(OutboxEntry entry) {
+            onWriteSettled(entry.id, true);
+        }
+
+        @Override
+        public void onConflict(OutboxEntry entry, String reason) {
+            // The application tells the user why.
+            onWriteSettled(entry.id, false);
+        }
+    };
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -73,76 +123,210 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
         super.onCreate(savedInstanceState);
 
         setContentView(R.layout.detail);
-        api = new CommentsAPI(mAccessToken);
-        Intent i = this.getIntent();
-        mStatus = (Statuses) i.getSerializableExtra(Consts.STATUSES_KEY);
-        initView();
+        mStatusId = getIntent().getLongExtra(Consts.STATUS_ID_KEY, 0);
+
+        StatusStore store = StatusStore.getInstance();
+        mStatus = store.get(mStatusId);
+        if (mStatus == null && savedInstanceState != null) {
+            mStatus = store.fromState(savedInstanceState.getString(STATE_STATUS));
+        }
+
+        if (mStatus != null) {
+            initView();
+        }
+        // Also brings the counts of a stored or cached copy up to date.
+        loadStatus();
     }
 
-    private String getGeoGoogleMapUrl() {
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        // Only read back if the process died, the store has it otherwise.
+        outState.putString(STATE_STATUS, StatusStore.toState(mStatus));
+    }
+
+    /**
+     * Loads the status, from the HTTP cache when it is fresh enough. If a copy is shown
+     * already, its counts are bound again when they changed.
+     */
+    private void loadStatus() {
+        final boolean shown = mStatus != null;
+        if (!shown) {
+            setProgressBarIndeterminateVisibility(true);
+        }
+
+        WeiboParameters params = new WeiboParameters();
+        params.put("access_token", mAccessToken.getToken());
+        params.put("id", mStatusId);
+        String url = Configuration.API_SERVER + "/statuses/show.json?" + params.encodeUrl();
+
+        GsonRequest<Statuses> request = new GsonRequest<Statuses>(Method.GET, url,
+                null,
+                Statuses.class,
+                new Response.Listener<Statuses>() {
+
+                    @Override
+                    public void onResponse(Statuses response) {
+                        if (!shown) {
+                            setProgressBarIndeterminateVisibility(false);
+                        }
+                        if (response == null) {
+                            return;
+                        }
+
+                        Statuses fresh = response;
+                        if (mPendingFavorite != null && !fresh.favorited) {
+                            // Not sent yet, keep showing what the user did.
+                            fresh = fresh.withFavorited(true);
+                        }
+
+                        // A stale cached copy may be followed by the fresh one.
+                        Statuses bound = mStatus;
+                        StatusStore.getInstance().put(fresh);
+                        mStatus = fresh;
+                        if (bound == null) {
+                            initView();
+                        } else if (Timeline.isChanged(bound, fresh)) {
+                            bindCounts();
+                            if (bound.comments_count == 0 && fresh.comments_count > 0) {
+                                loadCommentData();
+                            }
+                        }
+                    }
+                },
+                new Response.ErrorListener() {
+
+                    @Override
+                    public void onErrorResponse(VolleyError e) {
+                        // Keep a copy on screen if its refresh failed, the counts are
+                        // only a little stale.
+                        if (mStatus == null) {
+                            setProgressBarIndeterminateVisibility(false);
+                            displayToast(VolleyErrorHelper.getMessage(e,
+                                    StatusDetailActivity.this));
+                            finish();
+                        }
+                    }
+                });
+        request.setPriority(shown ? RequestPriority.VISIBLE_CONTENT
+                : RequestPriority.USER_INITIATED);
+
+        addToRequestQueue(request);
+    }
+
+    /** Redraws the authors once the user cache filled them in. */
+    private final UserCache.Listener mUsersListener = new UserCache.Listener() {
+        @Override
+        public void onUsersUpdated() {
+            if (mHeaderView != null) {
+                bindAuthors();
+            }
+        }
+    };
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mApplication.getOutbox().addListener(mOutboxListener);
+        UserCache.getInstance().addListener(mUsersListener);
+        if (mHeaderView != null) {
+            bindAuthors();
+        }
+
+        // Settled while we were paused. Most writes go through, and a conflict has been
+        // toasted by the application already, so take them as sent.
+        Set<String> queued = new HashSet<String>();
+        for (OutboxEntry entry : mApplication.getOutbox().getEntries()) {
+            queued.add(entry.id);
+        }
+        for (String id : new ArrayList<String>(mPendingComments.keySet())) {
+            if (!queued.contains(id)) {
+                onWriteSettled(id, true);
+            }
+        }
+        if (mPendingFavorite != null && !queued.contains(mPendingFavorite)) {
+            onWriteSettled(mPendingFavorite, true);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        mApplication.getOutbox().removeListener(mOutboxListener);
+        UserCache.getInstance().removeListener(mUsersListener);
+        super.onPause();
+    }
+
+    private String getGeoGoogleMapUrl(Geo geo) {
         StringBuilder sb = new StringBuilder()
                 .append("http://maps.google.cn/maps/api/staticmap?center=")
-                .append(mStatus.geo.coordinates.get(0))
+                .append(geo.coordinates.get(0))
                 .append(",")
-                .append(mStatus.geo.coordinates.get(1))
+                .append(geo.coordinates.get(1))
                 .append("&zoom=12&size=")
                 .append(getResources().getDimensionPixelSize(R.dimen.map_width))
                 .append("x")
                 .append(getResources().getDimensionPixelSize(R.dimen.map_height))
                 .append("&maptype=roadmap&markers=markerStyles|color:red|")
-                .append(mStatus.geo.coordinates.get(0))
+                .append(geo.coordinates.get(0))
                 .append(",")
-                .append(mStatus.geo.coordinates.get(1))
+                .append(geo.coordinates.get(1))
                 .append("&sensor=true");
 
         return sb.toString();
     }
 
+    /**
+     * Queues the comment in the outbox and shows it right away, as pending.
+     */
     private void addComment(String content, boolean comment_ori) {
-        api.create(content, mStatus.id, comment_ori, new RequestListener() {
+        OutboxEntry entry = mApplication.getOutbox().enqueue(
+                OutboxEntry.comment(mStatusId, content, comment_ori));
+
+        // A double tap queues it once, show it once.
+        if (!mPendingComments.containsKey(entry.id)) {
+            Comment comment = new Comment();
+            comment.setBody(content);
+            comment.setAuthor(getString(R.string.me));
+            comment.setCreationTime(getString(R.string.sending));
+            mCommentsAdapter.addComment(comment);
+            mCommentsAdapter.refresh();
+            mPendingComments.put(entry.id, comment);
+        }
 
-            @Override
-            public void onComplete(String result) {
-                runOnUiThread(new Runnable() {
+        aq.id(R.id.embedded_text_editor).getEditText().setText("");
+    }
 
-                    @Override
-                    public void run() {
-                        displayToast(R.string.comment_success);
-                        aq.id(R.id.embedded_text_editor).getEditText().setText("");
-                    }
-                });
+    /**
+     * Replaces the pending state of a comment or favorite by the outcome of its write.
+     *
+     * @param id id of the outbox entry
+     * @param sent false if the server rejected the write
+     */
+    private void onWriteSettled(String id, boolean sent) {
+        Comment comment = mPendingComments.remove(id);
+        if (comment != null) {
+            if (sent) {
+                comment.setCreationTime(DateFormat.getDateFormat(this).format(new Date()));
+            } else {
+                mCommentsAdapter.removeComment(comment);
             }
+            mCommentsAdapter.refresh();
+        }
 
-            @Override
-            public void onWeiboException(WeiboException e) {
-                // TODO Auto-generated method stub
-
+        if (id.equals(mPendingFavorite)) {
+            mPendingFavorite = null;
+            if (!sent && mStatus != null) {
+                mStatus = mStatus.withFavorited(false);
+                StatusStore.getInstance().put(mStatus);
             }
-        });
+        }
     }
 
     private void addRepost(String content, boolean comment_ori) {
-        StatusesAPI api = new StatusesAPI(mAccessToken);
-        api.repost(mStatus.id, content, comment_ori ? StatusesAPI.COMMENTS_RIGAL_STATUSES
-                : StatusesAPI.COMMENTS_CUR_STATUSES, new RequestListener() {
-
-                    @Override
-                    public void onComplete(String result) {
-                        runOnUiThread(new Runnable() {
-
-                            @Override
-                            public void run() {
-                                displayToast(R.string.repost_success);
-                            }
-                        });
-                    }
-
-        @Override
-        public void onWeiboException(WeiboException e) {
-            Logger.e(e.getMessage());
-        }
-
-        });
+        mApplication.getOutbox().enqueue(OutboxEntry.repost(mStatusId, content,
+                comment_ori ? StatusesAPI.COMMENTS_RIGAL_STATUSES
+                        : StatusesAPI.COMMENTS_CUR_STATUSES));
+        displayToast(R.string.repost_success);
     }
 
 
@@ -152,6 +336,7 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
         mListView = (ListView) findViewById(R.id.list_view);
 
         View view = Utils.inflateView(R.layout.list_item_stream_activity, this, null);
+        mHeaderView = view;
 
         mAdapter = new MergeAdapter();
         mAdapter.addView(view);
@@ -160,45 +345,32 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
 
         aq = new AQuery(view);
 
-        aq.id(R.id.stream_user_name).text(mStatus.user.name);
         aq.id(R.id.stream_content).text(mStatus.text).visible();
+        bindAuthors();
 
-        ((NetworkImageView) view.findViewById(R.id.stream_user_image)).setImageUrl(
-                mStatus.user.profile_image_url, getWeiboApplication().getImageLoader());
-
-        if (mStatus.bmiddle_pic != null) {
+        Statuses.Details details = mStatus.getDetails();
+        String picUrl = FetchProfile.current().getDetailImageTier().pick(
+                mStatus.thumbnail_pic, details.bmiddle_pic, details.original_pic);
+        if (picUrl != null) {
             NetworkImageView bmiddlePic = ((NetworkImageView) view.findViewById(
                     R.id.stream_media_1_1));
             bmiddlePic.setVisibility(View.VISIBLE);
-            bmiddlePic.setImageUrl(mStatus.bmiddle_pic, getWeiboApplication().getImageLoader());
+            bmiddlePic.setImageUrl(picUrl, getWeiboApplication().getImageLoader());
         }
 
         if (mStatus.retweeted_status != null) {
             aq.id(R.id.stream_reshare_line).visible();
-            String retweetedText = "";
-            if (mStatus.retweeted_status.user != null) {
-                retweetedText = "@" + mStatus.retweeted_status.user.name + ":";
-            }
-            retweetedText += mStatus.retweeted_status.text;
-            aq.id(R.id.stream_detail_text).text(retweetedText).textColor(Color.rgb(51, 181, 229))
-                    .visible();
-        }
-
-
-        if (mStatus.reposts_count > 0) {
-            aq.id(R.id.tweet_redirect_pic).visible();
-            aq.id(R.id.tweet_redirect).text(String.valueOf(mStatus.reposts_count)).visible();
+            aq.id(R.id.stream_detail_text).textColor(Color.rgb(51, 181, 229)).visible();
         }
 
-        if (mStatus.geo != null) {
+        if (details.geo != null) {
             aq.id(R.id.maps_layout).visible();
             NetworkImageView mapView = (NetworkImageView) view.findViewById(R.id.pic_preview_iv);
-            mapView.setImageUrl(getGeoGoogleMapUrl(), getWeiboApplication().getImageLoader());
+            mapView.setImageUrl(getGeoGoogleMapUrl(details.geo), getWeiboApplication().getImageLoader());
         }
 
+        bindCounts();
         if (mStatus.comments_count > 0) {
-            aq.id(R.id.tweet_comment_pic).visible();
-            aq.id(R.id.tweet_comment).text(String.valueOf(mStatus.comments_count)).visible();
             loadCommentData();
         } else {
             mCommentsAdapter.refresh();
@@ -208,6 +380,56 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
         aq.id(R.id.send_button_comment).clicked(this, "buttonClickedQuickPost");
     }
 
+    /**
+     * Shows the repost and comment counts, hidden while there are none.
+     */
+    private void bindCounts() {
+        AQuery header = new AQuery(mHeaderView);
+
+        if (mStatus.reposts_count > 0) {
+            header.id(R.id.tweet_redirect_pic).visible();
+            header.id(R.id.tweet_redirect).text(String.valueOf(mStatus.reposts_count)).visible();
+        } else {
+            header.id(R.id.tweet_redirect_pic).gone();
+            header.id(R.id.tweet_redirect).gone();
+        }
+
+        if (mStatus.comments_count > 0) {
+            header.id(R.id.tweet_comment_pic).visible();
+            header.id(R.id.tweet_comment).text(String.valueOf(mStatus.comments_count)).visible();
+        } else {
+            header.id(R.id.tweet_comment_pic).gone();
+            header.id(R.id.tweet_comment).gone();
+        }
+    }
+
+    /**
+     * Binds the author and the retweeted author, either may still be a stub waiting
+     * for the {@link UserCache} under trim_user.
+     */
+    private void bindAuthors() {
+        AQuery header = new AQuery(mHeaderView);
+
+        User user = mStatus.user;
+        header.id(R.id.stream_user_name).text(user != null && user.name != null ? user.name : "");
+
+        NetworkImageView userImage = (NetworkImageView) mHeaderView.findViewById(
+                R.id.stream_user_image);
+        userImage.setDefaultImageResId(R.drawable.portrait_image_empty);
+        userImage.setImageUrl(user != null ? user.profile_image_url : null,
+                getWeiboApplication().getImageLoader());
+
+        Statuses retweeted = mStatus.retweeted_status;
+        if (retweeted != null) {
+            String retweetedText = "";
+            if (retweeted.user != null && retweeted.user.name != null) {
+                retweetedText = "@" + retweeted.user.name + ":";
+            }
+            retweetedText += retweeted.text;
+            header.id(R.id.stream_detail_text).text(retweetedText);
+        }
+    }
+
     public void buttonClickedQuickPost(View button) {
 
         final String content = aq.id(R.id.embedded_text_editor).getText().toString();
@@ -220,80 +442,83 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
     private void loadCommentData() {
         setProgressBarIndeterminateVisibility(true);
 
-        api.show(mStatus.id, 0, 0, 50, 1, CommentsAPI.AUTHOR_FILTER_ALL,
-                new RequestListener() {
+        WeiboParameters params = new WeiboParameters();
+        params.put("access_token", mAccessToken.getToken());
+        params.put("id", mStatusId);
+        params.put("count", COMMENTS_PAGE_SIZE);
+        params.put("page", 1);
+        String url = Configuration.API_SERVER + "/comments/show.json?" + params.encodeUrl();
 
-                    @Override
-                    public void onComplete(String result) {
-                        try {
-                            JSONObject data = new JSONObject(result);
-                            if (data != null) {
-                                JSONArray c = data.getJSONArray("comments");
-
-                                for (int i = 0; i < c.length(); i++) {
-                                    JSONObject d = c.getJSONObject(i);
-                                    String commentBody = d.getString("text");
-                                    String createdAt = d.getString("created_at");
-                                    Date date = Utils.parseDate(createdAt);
-                                    Comment comment = new Comment();
-                                    comment.setBody(commentBody);
-                                    comment.setCreationTime(DateFormat.getDateFormat(
-                                            getApplicationContext()).format(date));
-
-                                    // Just extract the username, it's enough.
-                                    JSONObject u = d.getJSONObject("user");
-                                    String author = u.getString("name");
-                                    comment.setAuthor(author);
-
-                                    mCommentsAdapter.addComment(comment);
-                                }
+        CommentsRequest request = new CommentsRequest(this, url,
+                new Response.Listener<CommentsObject>() {
 
-                                runOnUiThread(new Runnable() {
-
-                                    @Override
-                                    public void run() {
-                                        //setRefreshActionButtonState(false);
-                                        setProgressBarIndeterminateVisibility(false);
-
-                                        mCommentsAdapter.refresh();
-                                    }
-                                });
-                            }
-                        } catch (JSONException e) {
-                            Logger.e("JSONException", e);
-                        } catch (WeiboException e) {
-                            Logger.e("WeiboException", e);
+                    @Override
+                    public void onResponse(CommentsObject response) {
+                        setProgressBarIndeterminateVisibility(false);
+                        // A cached page may be followed by the network's.
+                        for (Comment comment : mLoadedComments) {
+                            mCommentsAdapter.removeComment(comment);
                         }
-                        // TODO Auto-generated method stub
-
+                        mLoadedComments = response == null || response.comments == null
+                                ? Collections.<Comment>emptyList() : response.comments;
+                        for (Comment comment : mLoadedComments) {
+                            mCommentsAdapter.addComment(comment);
+                        }
+                        mCommentsAdapter.refresh();
                     }
+                },
+                new Response.ErrorListener() {
 
                     @Override
-                    public void onWeiboException(WeiboException e) {
-                        // TODO Auto-generated method stub
-
+                    public void onErrorResponse(VolleyError e) {
+                        setProgressBarIndeterminateVisibility(false);
+                        displayToast(VolleyErrorHelper.getMessage(e, StatusDetailActivity.this));
                     }
                 });
-    }
 
-    private void addFavorites(long id) {
+        addToRequestQueue(request);
+    }
 
-        FavoritesAPI api = new FavoritesAPI(mAccessToken);
-        api.create(id, new RequestListener() {
+    /**
+     * Decodes a page of comments and formats their times on the network thread, so
+     * nothing but binding is left for the main thread.
+     */
+    private static class CommentsRequest extends GsonRequest<CommentsObject> {
+        private final Context mContext;
+
+        CommentsRequest(Context context, String url, Response.Listener<CommentsObject> listener,
+                Response.ErrorListener errorListener) {
+            super(Method.GET, url, null, CommentsObject.class, listener, errorListener);
+            mContext = context.getApplicationContext();
+        }
 
-            @Override
-            public void onComplete(String result) {
-                Utils.showToast(StatusDetailActivity.this, R.string.favorites);
+        @Override
+        protected Response<CommentsObject> parseNetworkResponse(NetworkResponse response) {
+            Response<CommentsObject> parsed = super.parseNetworkResponse(response);
+            if (!parsed.isSuccess() || parsed.result == null || parsed.result.comments == null) {
+                return parsed;
             }
 
-            @Override
-            public void onWeiboException(WeiboException e) {
-                // TODO Auto-generated method stub
-
+            // One format for the page, it follows the user's date settings.
+            java.text.DateFormat format = DateFormat.getDateFormat(mContext);
+            for (Comment comment : parsed.result.comments) {
+                long time = WeiboDate.parse(comment.getCreationTime());
+                comment.setCreationTime(time == 0 ? null : format.format(new Date(time)));
             }
+            return parsed;
+        }
+    }
 
-        });
-
+    private void addFavorites(long id) {
+        OutboxEntry entry = mApplication.getOutbox().enqueue(OutboxEntry.favorite(id));
+        // Only what we set is rolled back on a conflict.
+        if (mStatus != null && !mStatus.favorited) {
+            // The timeline takes the copy back from the store when it is shown again.
+            mStatus = mStatus.withFavorited(true);
+            StatusStore.getInstance().put(mStatus);
+            mPendingFavorite = entry.id;
+        }
+        displayToast(R.string.favorites_success);
     }
 
     @Override
@@ -317,7 +542,7 @@ public class StatusDetailActivity extends BaseActivity implements RequestListene
                 doRePost();
                 break;
             case R.id.favorites_menu_item:
-                addFavorites(mStatus.id);
+                addFavorites(mStatusId);
                 break;
             default:
                 break;
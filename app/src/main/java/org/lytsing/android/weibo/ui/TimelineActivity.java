@@ -19,13 +19,13 @@ package org.lytsing.android.weibo.ui;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Message;
-import android.text.TextUtils;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.widget.AbsListView;
+import android.widget.AbsListView.OnScrollListener;
+import android.widget.AbsListView.RecyclerListener;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemClickListener;
 import com.android.volley.Request.Method;
@@ -33,36 +33,35 @@ import com.android.volley.Response;
 import com.android.volley.VolleyError;
 import com.androidquery.AQuery;
 import com.costum.android.widget.PullAndLoadListView;
-import com.google.gson.Gson;
 import com.orhanobut.logger.Logger;
 import com.sina.weibo.sdk.exception.WeiboException;
 import com.sina.weibo.sdk.net.RequestListener;
 import com.sina.weibo.sdk.net.WeiboParameters;
-import com.sina.weibo.sdk.openapi.StatusesAPI;
+import com.sina.weibo.sdk.openapi.BatchDispatcher;
 import net.simonvt.menudrawer.MenuDrawer;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.lytsing.android.weibo.Consts;
 import org.lytsing.android.weibo.R;
-import org.lytsing.android.weibo.WeiboApplication;
 import org.lytsing.android.weibo.adapters.StatusItemAdapter;
 import org.lytsing.android.weibo.core.Configuration;
+import org.lytsing.android.weibo.core.StatusStore;
+import org.lytsing.android.weibo.core.Timeline;
+import org.lytsing.android.weibo.core.UserCache;
 import org.lytsing.android.weibo.core.models.Statuses;
 import org.lytsing.android.weibo.core.models.WeiboObject;
+import org.lytsing.android.weibo.toolbox.FetchProfile;
 import org.lytsing.android.weibo.toolbox.GsonRequest;
+import org.lytsing.android.weibo.toolbox.RequestPriority;
 import org.lytsing.android.weibo.toolbox.VolleyErrorHelper;
 import org.lytsing.android.weibo.util.Preferences;
 import org.lytsing.android.weibo.util.Utils;
+import java.util.List;
 
 public class TimelineActivity extends BaseActivity {
 
-    private final int ON_SUCC_RESPONSE = 0;
-
-    private final int ON_ERROR_RESPONSE = 1;
-
-    private final int ERROR_CODE_RESPONSE = 2;
-
-    private final int PER_REQUEST_COUNT = 20;
+    /** Pages loaded into a gap per tap, the rest of it stays a gap. */
+    private static final int MAX_GAP_PAGES = 5;
 
     private StatusItemAdapter mAdapter = null;
 
@@ -78,11 +77,31 @@ public class TimelineActivity extends BaseActivity {
 
     private AQuery mAq;
 
+    /** The next page on its way, null when there is none. */
+    private GsonRequest<WeiboObject> mLoadMoreRequest;
+
+    private BatchDispatcher mCountDispatcher;
+
+    /** {@link #mMaxId} of the last page asked for ahead of time. */
+    private long mPrefetchedMaxId = -1;
+
+    /** Redraws the rows whose authors were filled in by the user cache. */
+    private final UserCache.Listener mUsersListener = new UserCache.Listener() {
+        @Override
+        public void onUsersUpdated() {
+            if (mAdapter != null) {
+                mAdapter.invalidateRows();
+                mAdapter.notifyDataSetChanged();
+            }
+        }
+    };
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         if (mAccessToken.isSessionValid()) {
+            UserCache.getInstance().addListener(mUsersListener);
             initView();
         } else {
             Intent intent = new Intent(this, AuthenticatedActivity.class);
@@ -90,6 +109,23 @@ public class TimelineActivity extends BaseActivity {
         }
     }
 
+    @Override
+    protected void onRestart() {
+        super.onRestart();
+
+        // The detail screen puts its changed copies into the store, e.g. when favorited;
+        // counters may also have changed while we were away.
+        takeBackStored();
+        refreshVisibleCounts();
+    }
+
+    @Override
+    protected void onDestroy() {
+        UserCache.getInstance().removeListener(mUsersListener);
+
+        super.onDestroy();
+    }
+
     private Intent createComposeIntent() {
         Intent intent = new Intent(this, ComposeActivity.class);
         return intent;
@@ -163,9 +199,36 @@ public class TimelineActivity extends BaseActivity {
             }
         });
 
+        // Ask for the next page before the end of the list, as early as the link allows.
+        mListView.setOnScrollListener(new OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                    int totalItemCount) {
+                int distance = FetchProfile.current().getPrefetchDistance();
+                if (distance > 0 && mAdapter.getCount() > 0 && mMaxId != mPrefetchedMaxId
+                        && firstVisibleItem + visibleItemCount >= totalItemCount - distance) {
+                    mPrefetchedMaxId = mMaxId;
+                    loadMoreData(mMaxId);
+                }
+            }
+        });
+
         mListView.setLastUpdated(getLastSyncTime(Preferences.PREF_LAST_SYNC_TIME));
 
         mAdapter = new StatusItemAdapter(this, getWeiboApplication().getImageLoader());
+        mCountDispatcher = BatchDispatcher.forStatusCounts(mAccessToken);
+
+        // Rows scrolled off-screen no longer need their images.
+        mListView.setRecyclerListener(new RecyclerListener() {
+            @Override
+            public void onMovedToScrapHeap(View view) {
+                mAdapter.onViewRecycled(view);
+            }
+        });
 
 
         requestFriendsTimeline();
@@ -177,17 +240,20 @@ public class TimelineActivity extends BaseActivity {
 
                 // see: How to determine onItemClick for pulltorefreshlistview
                 // http://stackoverflow.com/questions/10959030/how-to-determine-onitemclick-for-pulltorefreshlistview
-                Statuses status = (Statuses) mListView
-                        .getItemAtPosition(position);
+                Object item = mListView.getItemAtPosition(position);
+                if (item instanceof Timeline.Gap) {
+                    fillGap((Timeline.Gap) item, 0);
+                    return;
+                }
 
+                Statuses status = (Statuses) item;
                 if (status == null) {
                     return;
                 } else {
-                    Bundle bundle = new Bundle();
-                    bundle.putSerializable(Consts.STATUSES_KEY, status);
+                    StatusStore.getInstance().put(status);
 
                     Intent intent = new Intent(TimelineActivity.this, StatusDetailActivity.class);
-                    intent.putExtras(bundle);
+                    intent.putExtra(Consts.STATUS_ID_KEY, status.id);
                     startActivity(intent);
                 }
             }
@@ -217,27 +283,6 @@ public class TimelineActivity extends BaseActivity {
         super.onBackPressed();
     }
 
-    private Handler mHandler = new Handler() {
-        @Override
-        public void handleMessage(Message msg) {
-            super.handleMessage(msg);
-            switch (msg.what) {
-                case ON_SUCC_RESPONSE:
-                    setLastSyncTime(Utils.getNowLocaleTime());
-                    mAdapter.notifyDataSetChanged();
-                    mListView.onLoadMoreComplete();
-                    break;
-                case ERROR_CODE_RESPONSE:
-                case ON_ERROR_RESPONSE:
-                    displayToast("Error:" + msg.obj);
-                    mListView.onLoadMoreComplete();
-                    break;
-                default:
-                    break;
-            }
-        }
-    };
-
     private void showLoadingIndicator() {
         mAq.id(R.id.placeholder_loading).visible();
         setRefreshActionButtonState(true);
@@ -270,16 +315,18 @@ public class TimelineActivity extends BaseActivity {
 
     private void refreshStatuses(long sinceId) {
         setRefreshActionButtonState(true);
+        final int pageSize = FetchProfile.current().getPageSize();
 
         String url = Configuration.API_SERVER + "/statuses/friends_timeline.json";
         WeiboParameters  params = new WeiboParameters();
         params.put("access_token", mAccessToken.getToken());
         params.put("since_id", sinceId);
         params.put("max_id", 0);
-        params.put("count", PER_REQUEST_COUNT);
+        params.put("count", pageSize);
         params.put("page", 1);
         params.put("base_app", 0);
         params.put("feature", 0);
+        params.put("trim_user", FetchProfile.current().isTrimUser() ? 1 : 0);
 
         url = url + "?" + params.encodeUrl();
 
@@ -290,14 +337,12 @@ public class TimelineActivity extends BaseActivity {
 
                     @Override
                     public void onResponse(WeiboObject response) {
-                        final int refreshCount = response.statuses.size();
+                        // Overlaps with what is there are merged away, not counted.
+                        Timeline.Merge merge = mAdapter.mergeNewer(response.statuses, pageSize);
+                        updateCursors(response.statuses);
+                        notifyMerged(merge);
+                        final int refreshCount = merge.inserted;
                         Logger.d("newsMsgLists length == " + refreshCount);
-                        if (refreshCount > 0) {
-                            mSinceId = response.statuses.get(0).id;
-                            mAdapter.addNewestStatuses(response.statuses);
-                        }
-
-                        mAdapter.notifyDataSetChanged();
                         // Call onRefreshComplete when the list has been
                         // refreshed.
                         mListView.onRefreshComplete();
@@ -326,8 +371,9 @@ public class TimelineActivity extends BaseActivity {
                     }
 
                 });
+        refreshRequest.setPriority(RequestPriority.USER_INITIATED);
 
-        WeiboApplication.getWeiboApplication().addToRequestQueue(refreshRequest);
+        addToRequestQueue(refreshRequest);
     }
 
     private void requestFriendsTimeline() {
@@ -338,10 +384,11 @@ public class TimelineActivity extends BaseActivity {
         String url = Configuration.API_SERVER + "/statuses/friends_timeline.json";
         WeiboParameters  params = new WeiboParameters();
         params.put("access_token", mAccessToken.getToken());
-        params.put("count", PER_REQUEST_COUNT);
+        params.put("count", FetchProfile.current().getPageSize());
         params.put("page", 1);
         params.put("base_app", 0);
         params.put("feature", 0);
+        params.put("trim_user", FetchProfile.current().isTrimUser() ? 1 : 0);
 
         url = url + "?" + params.encodeUrl();
 
@@ -350,22 +397,20 @@ public class TimelineActivity extends BaseActivity {
                 WeiboObject.class,
                 createMyReqSuccessListener(),
                 createMyReqErrorListener());
+        timelineRequest.setPriority(RequestPriority.USER_INITIATED);
 
-        WeiboApplication.getWeiboApplication().addToRequestQueue(timelineRequest);
+        addToRequestQueue(timelineRequest);
     }
 
     private Response.Listener<WeiboObject> createMyReqSuccessListener() {
         return new Response.Listener<WeiboObject>() {
             @Override
             public void onResponse(WeiboObject info) {
-                for (Statuses status : info.statuses) {
-                    mAdapter.addStatuses(status);
-                    mMaxId = status.id - 1;
-                }
-
-                if (info.statuses.size() > 0) {
-                    mSinceId = info.statuses.get(0).id;
-                }
+                // The cached page, if any, is delivered first and then replaced
+                // by the network response.
+                mAdapter.replace(info.statuses);
+                mMaxId = 0;
+                updateCursors(info.statuses);
 
                 hideLoadingIndicator();
                 mAq.id(R.id.placeholder_error).gone();
@@ -385,6 +430,13 @@ public class TimelineActivity extends BaseActivity {
                 String errorMsg = VolleyErrorHelper.getMessage(error, getApplicationContext());
 
                 hideLoadingIndicator();
+
+                if (mAdapter.getCount() > 0) {
+                    // Keep showing the cached timeline, the refresh just failed.
+                    displayToast(errorMsg);
+                    return;
+                }
+
                 showErrorIndicator();
                 mAq.id(R.id.error_msg).text(errorMsg);
                 mAq.id(R.id.retry_button).clicked(new OnClickListener() {
@@ -413,50 +465,225 @@ public class TimelineActivity extends BaseActivity {
         }
     }
 
-    private void loadMoreData(final long maxId) {
-        StatusesAPI statusAPI = new StatusesAPI(mAccessToken);
-        statusAPI.friendsTimeline(0, maxId, PER_REQUEST_COUNT, 1, false, StatusesAPI.FEATURE_ALL,
-                false,
-                new RequestListener() {
+    /**
+     * Replaces the visible statuses by the copies in the {@link StatusStore}, if those changed.
+     */
+    private void takeBackStored() {
+        if (mListView == null || mListView.getAdapter() == null) {
+            return;
+        }
 
-                    @Override
-                    public void onComplete(String result) {
-                        try {
-                            Message msg = Message.obtain();
-                            if (TextUtils.isEmpty(result) || result.contains("error_code")) {
-                                msg.what = ERROR_CODE_RESPONSE;
-                                JSONObject obj = new JSONObject(result);
-                                msg.obj = obj.getString("error");
-                            } else {
-                                msg.what = ON_SUCC_RESPONSE;
-                                Gson gson = new Gson();
-                                WeiboObject response = gson.fromJson(result, WeiboObject.class);
-
-                                for (Statuses status : response.statuses) {
-                                    mAdapter.addStatuses(status);
-                                    mMaxId = status.id - 1;
-                                }
-
-                                if (maxId == 0 && response.statuses.size() > 0) {
-                                    mSinceId = response.statuses.get(0).id;
-                                }
-                            }
-
-                            mHandler.sendMessage(msg);
-                        } catch (JSONException e) {
-                            Logger.e(e.getMessage());
+        boolean changed = false;
+        int last = mListView.getLastVisiblePosition();
+        for (int position = mListView.getFirstVisiblePosition(); position <= last; position++) {
+            Object item = mListView.getItemAtPosition(position);
+            if (!(item instanceof Statuses)) {
+                continue;
+            }
+
+            Statuses stored = StatusStore.getInstance().get(((Statuses) item).id);
+            if (stored != null && stored != item) {
+                changed |= mAdapter.replace(stored);
+            }
+        }
+
+        if (changed) {
+            mAdapter.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Refreshes the repost, comment and attitude counts of the statuses on screen,
+     * the lookups are batched into a single statuses/count request.
+     */
+    private void refreshVisibleCounts() {
+        if (mListView == null || mListView.getAdapter() == null) {
+            return;
+        }
+
+        int last = mListView.getLastVisiblePosition();
+        for (int position = mListView.getFirstVisiblePosition(); position <= last; position++) {
+            Object item = mListView.getItemAtPosition(position);
+            if (!(item instanceof Statuses)) {
+                continue;
+            }
+
+            final long id = ((Statuses) item).id;
+            mCountDispatcher.request(id, new RequestListener() {
+                @Override
+                public void onComplete(String result) {
+                    try {
+                        JSONObject counts = new JSONObject(result);
+                        // The status may have been replaced while the counts were on their way.
+                        Statuses status = mAdapter.getStatus(id);
+                        if (status == null) {
+                            return;
+                        }
+
+                        Statuses counted = status.withCounts(counts.optInt("reposts"),
+                                counts.optInt("comments"), counts.optInt("attitudes"));
+                        StatusStore.getInstance().put(counted);
+                        if (mAdapter.replace(counted)) {
+                            mAdapter.notifyDataSetChanged();
                         }
+                    } catch (JSONException e) {
+                        Logger.e(e.getMessage());
+                    }
+                }
+
+                @Override
+                public void onWeiboException(WeiboException e) {
+                    Logger.e(e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void loadMoreData(long maxId) {
+        if (mLoadMoreRequest != null) {
+            // Already on its way, e.g. prefetched.
+            return;
+        }
+
+        String url = Configuration.API_SERVER + "/statuses/friends_timeline.json";
+        WeiboParameters  params = new WeiboParameters();
+        params.put("access_token", mAccessToken.getToken());
+        params.put("max_id", maxId);
+        params.put("count", FetchProfile.current().getPageSize());
+        params.put("page", 1);
+        params.put("base_app", 0);
+        params.put("feature", 0);
+        params.put("trim_user", FetchProfile.current().isTrimUser() ? 1 : 0);
+
+        url = url + "?" + params.encodeUrl();
+
+        // Decoded on the network thread, only merged here.
+        mLoadMoreRequest = new GsonRequest<WeiboObject>(Method.GET, url,
+                null,
+                WeiboObject.class,
+                new Response.Listener<WeiboObject>() {
+
+                    @Override
+                    public void onResponse(WeiboObject response) {
+                        mLoadMoreRequest = null;
+                        setLastSyncTime(Utils.getNowLocaleTime());
+                        Timeline.Merge merge = mAdapter.merge(response.statuses);
+                        updateCursors(response.statuses);
+                        notifyMerged(merge);
+                        mListView.onLoadMoreComplete();
                     }
 
+                },
+                new Response.ErrorListener() {
+
+                    @Override
+                    public void onErrorResponse(VolleyError e) {
+                        mLoadMoreRequest = null;
+                        displayToast(VolleyErrorHelper.getMessage(e, TimelineActivity.this));
+                        mListView.onLoadMoreComplete();
+                    }
+
+                });
+        mLoadMoreRequest.setPriority(RequestPriority.PREFETCH);
+
+        addToRequestQueue(mLoadMoreRequest);
+    }
+
+    /**
+     * Loads the statuses missing in a gap, newest first, a page at a time. Stops when
+     * the gap is closed or after {@link #MAX_GAP_PAGES}, the rest stays a gap.
+     *
+     * @param gap the gap, as shown in the list
+     * @param pages the number of pages loaded into it so far
+     */
+    private void fillGap(final Timeline.Gap gap, final int pages) {
+        if (pages == 0 && mAdapter.getLoadingGap() != null) {
+            return;
+        }
+
+        final int pageSize = FetchProfile.current().getPageSize();
+        String url = Configuration.API_SERVER + "/statuses/friends_timeline.json";
+        WeiboParameters  params = new WeiboParameters();
+        params.put("access_token", mAccessToken.getToken());
+        params.put("since_id", gap.olderId);
+        params.put("max_id", gap.newerId - 1);
+        params.put("count", pageSize);
+        params.put("page", 1);
+        params.put("base_app", 0);
+        params.put("feature", 0);
+        params.put("trim_user", FetchProfile.current().isTrimUser() ? 1 : 0);
+
+        url = url + "?" + params.encodeUrl();
+
+        GsonRequest<WeiboObject> gapRequest = new GsonRequest<WeiboObject>(Method.GET, url,
+                null,
+                WeiboObject.class,
+                new Response.Listener<WeiboObject>() {
+
                     @Override
-                    public void onWeiboException(final WeiboException e) {
-                        Message msg = Message.obtain();
-                        msg.what = ON_ERROR_RESPONSE;
-                        msg.obj = e.getMessage();
+                    public void onResponse(WeiboObject response) {
+                        Timeline.Gap rest = mAdapter.fillGap(gap, response.statuses, pageSize);
+                        if (rest != null && pages + 1 < MAX_GAP_PAGES) {
+                            fillGap(rest, pages + 1);
+                        } else {
+                            mAdapter.setLoadingGap(null);
+                        }
+                        mAdapter.notifyDataSetChanged();
+                    }
 
-                        mHandler.sendMessage(msg);
+                },
+                new Response.ErrorListener() {
+
+                    @Override
+                    public void onErrorResponse(VolleyError e) {
+                        mAdapter.setLoadingGap(null);
+                        mAdapter.notifyDataSetChanged();
+                        Utils.showToast(TimelineActivity.this, "Error:" + e.getMessage());
                     }
+
                 });
+        gapRequest.setPriority(RequestPriority.USER_INITIATED);
+
+        mAdapter.setLoadingGap(gap);
+        mAdapter.notifyDataSetChanged();
+        addToRequestQueue(gapRequest);
+    }
+
+    /**
+     * Notifies the list of a merge. If rows were added above the ones on screen while
+     * the list is scrolled, the rows on screen stay in place.
+     */
+    private void notifyMerged(Timeline.Merge merge) {
+        if (merge.isEmpty()) {
+            return;
+        }
+
+        // The list is still laid out for the timeline before the merge.
+        int first = mListView.getFirstVisiblePosition();
+        View firstView = mListView.getChildAt(0);
+        int top = firstView == null ? 0 : firstView.getTop();
+
+        mAdapter.notifyDataSetChanged();
+        // At the very top the new statuses are shown instead.
+        if (merge.insertedAtTop > 0 && first > 0) {
+            int rowsAbove = merge.insertedAtTop + (merge.gap ? 1 : 0);
+            mListView.setSelectionFromTop(first + rowsAbove, top);
+        }
+    }
+
+    /**
+     * Moves {@link #mSinceId} and {@link #mMaxId} past a page.
+     */
+    private void updateCursors(List<Statuses> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+
+        mSinceId = Math.max(mSinceId, statuses.get(0).id);
+        long oldestId = statuses.get(statuses.size() - 1).id;
+        if (mMaxId == 0 || oldestId - 1 < mMaxId) {
+            mMaxId = oldestId - 1;
+        }
     }
 
     private void showContents() {
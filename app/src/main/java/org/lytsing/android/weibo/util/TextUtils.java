@@ -1,57 +0,0 @@
-/*
- * Copyright (C) 2012 http://lytsing.org
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package org.lytsing.android.weibo.util;
-
-import android.text.SpannableString;
-import android.text.Spanned;
-import android.text.style.ForegroundColorSpan;
-import android.widget.TextView;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-/**
- * Text Utils
- * @author Liqing Huang
- */
-public class TextUtils {
-
-    /**
-     * 将text中@某人的字体加亮，匹配的表情文字以表情显示
-     * @param text
-     * @param context
-     * @return
-     */
-    public static void formatContent(TextView textView) {
-        SpannableString spannableString = new SpannableString(textView.getText());
-        /*
-         * @[^\\s:：]+[:：\\s] 匹配@某人  \\[[^0-9]{1,4}\\] 匹配表情
-         */
-        Pattern pattern = Pattern.compile("@[^\\s:：]+[:：\\s]|\\[[^0-9]{1,4}\\]");
-        Matcher matcher = pattern.matcher(spannableString);
-        while (matcher.find()) {
-            String match = matcher.group();
-            if (match.startsWith("@")) { //@某人，加亮字体
-                spannableString.setSpan(new ForegroundColorSpan(0xff0077ff),
-                        matcher.start(), matcher.end(),
-                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-            }
-        }
-
-    }
-}
-
@@ -26,14 +26,9 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Toast;
-import com.sina.weibo.sdk.exception.WeiboException;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
-import java.util.TimeZone;
+import org.lytsing.android.weibo.core.TextEntities;
 
 /**
  * Utils
@@ -41,32 +36,11 @@ import java.util.TimeZone;
  */
 public class Utils {
 
-    private static Map<String, SimpleDateFormat> formatMap =
-            new HashMap<String, SimpleDateFormat>();
-
-    public static Date parseDate(String str) throws WeiboException {
-        String format = "EEE MMM dd HH:mm:ss z yyyy";
-        if (str == null || "".equals(str)) {
-            return null;
-        }
-        SimpleDateFormat sdf = formatMap.get(format);
-        if (null == sdf) {
-            sdf = new SimpleDateFormat(format, Locale.ENGLISH);
-            sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-            formatMap.put(format, sdf);
-        }
-
-        synchronized (sdf) {
-            // SimpleDateFormat is not thread safe
-            try {
-                return sdf.parse(str);
-            } catch (ParseException e) {
-                throw new WeiboException("Unexpected format(" + str
-                        + ") returned from sina.com.cn");
-            }
-        }
-
-    }
+    /**
+     * ics android blue color
+     * see http://developer.android.com/design/style/color.html
+     */
+    private static final int HIGHLIGHT_COLOR = Color.rgb(0x33, 0xB5, 0xE5);
 
     public static String getNowLocaleTime() {
         Date date = new Date();
@@ -119,60 +93,32 @@ public class Utils {
         return vi.inflate(resource, parent, false);
     }
 
-    public static void textHighlight2(TextView textView, String start, String end) {
-        Spannable sp = (Spannable) textView.getText();
-        String text = textView.getText().toString();
-        int n = 0;
-        int s = -1;
-        int e = -1;
-        while (n < text.length()) {
-            s = text.indexOf(start, n);
-            if (s != -1) {
-                e = text.indexOf(end, s + start.length());
-                if (e != -1) {
-                    e = e + end.length();
-                } else {
-                    e = text.length();
-                }
-                n = e;
-                // ics android blue color
-                // see http://developer.android.com/design/style/color.html
-                sp.setSpan(new ForegroundColorSpan(Color.rgb(0x33, 0xB5, 0xE5)), s, e,
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                s = e = -1;
-            } else {
-                n = text.length();
-            }
+    /**
+     * Colors the topics, mentions and links of a status text. {@code sp} need not be
+     * shown yet, so this may run off the main thread.
+     *
+     * @param sp the text, or a text which contains it at {@code offset}
+     * @param entities as returned by {@link TextEntities#tokenize(String)}, may be null
+     * @param offset where the status text starts in {@code sp}
+     */
+    public static void highlightEntities(Spannable sp, int[] entities, int offset) {
+        if (entities == null) {
+            return;
         }
-    }
 
-    public static void textHighlight(TextView textView, String start, String end) {
-        Spannable sp = (Spannable) textView.getText();
-        String text = textView.getText().toString();
-        int n = 0;
-        int s = -1;
-        int e = -1;
-        while (n < text.length()) {
-            s = text.indexOf(start, n);
-            if (s != -1) {
-                e = text.indexOf(end, s + start.length());
-                if (e != -1) {
-                    e = e + end.length();
-                } else {
-                    e = text.length();
-                }
-                n = e;
-                // ics android blue color
-                // see http://developer.android.com/design/style/color.html
-                sp.setSpan(new ForegroundColorSpan(Color.rgb(0x33, 0xB5, 0xE5)), s, e,
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                s = e = -1;
-            } else {
-                n = text.length();
+        for (int i = 0; i < entities.length; i += TextEntities.STRIDE) {
+            // There are no images to show emoticons with yet.
+            if (entities[i] != TextEntities.EMOTICON) {
+                highlight(sp, offset + entities[i + 1], offset + entities[i + 2]);
             }
         }
     }
 
+    public static void highlight(Spannable sp, int start, int end) {
+        sp.setSpan(new ForegroundColorSpan(HIGHLIGHT_COLOR), start, end,
+                Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+    }
+
     public static void showToast(final Activity activity, final String content) {
         activity.runOnUiThread(new Runnable() {
 
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.WeiboObject;
+import org.lytsing.android.weibo.testing.BaselineModels;
+import org.lytsing.android.weibo.testing.Benchmark;
+import org.lytsing.android.weibo.testing.Fixtures;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time, allocation and retained heap of a decoded {@code friends_timeline} page, with
+ * the streaming adapters of {@link ModelTypeAdapterFactory} and with Gson's reflective
+ * ones on the models as they were before.
+ */
+public class ModelTypeAdapterBenchmark {
+
+    private static final int WARMUPS = 200;
+
+    private static final int ITERATIONS = 500;
+
+    /** Pages held at once to measure what they retain. */
+    private static final int PAGES = 40;
+
+    private static String sPage;
+
+    private static final Gson REFLECTIVE = new Gson();
+
+    @BeforeClass
+    public static void loadFixture() throws IOException {
+        sPage = new String(Fixtures.read(Fixtures.FRIENDS_TIMELINE), "UTF-8");
+    }
+
+    private static WeiboObject decode() {
+        return GsonFactory.getGson().fromJson(sPage, WeiboObject.class);
+    }
+
+    private static BaselineModels.WeiboObject decodeReflective() {
+        return REFLECTIVE.fromJson(sPage, BaselineModels.WeiboObject.class);
+    }
+
+    /**
+     * The first page a new Gson decodes, as on a cold start: the reflective adapters are
+     * built from the model classes, the streaming ones are just created.
+     */
+    @Test
+    public void firstPage() throws Exception {
+        Benchmark.run("reflective, first page", WARMUPS, ITERATIONS,
+                new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        return new Gson().fromJson(sPage, BaselineModels.WeiboObject.class);
+                    }
+                });
+        Benchmark.run("streaming, first page", WARMUPS, ITERATIONS,
+                new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        Gson gson = new GsonBuilder()
+                                .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+                                .registerTypeAdapterFactory(new UserTypeAdapterFactory())
+                                .create();
+                        return gson.fromJson(sPage, WeiboObject.class);
+                    }
+                });
+    }
+
+    @Test
+    public void allocationPerPage() throws Exception {
+        Benchmark.Result reflective = Benchmark.run("reflective", WARMUPS, ITERATIONS,
+                new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        return decodeReflective();
+                    }
+                });
+        Benchmark.Result streaming = Benchmark.run("streaming", WARMUPS, ITERATIONS,
+                new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        return decode();
+                    }
+                });
+
+        // Streaming also parses dates, splits texts and compacts the details, so it may
+        // allocate a little more. A writer per status tripled it.
+        if (reflective.bytesPerOp > 0) {
+            assertTrue("Streaming allocates " + streaming.bytesPerOp + " bytes per page, "
+                    + "reflection " + reflective.bytesPerOp,
+                    streaming.bytesPerOp < 2 * reflective.bytesPerOp);
+        }
+    }
+
+    /**
+     * What a page costs while it stays in the timeline: its detail fields as compact
+     * JSON, as scrolled past, and decoded, as after the detail screen read them.
+     */
+    @Test
+    public void retainedPerPage() throws Exception {
+        long reflective = Benchmark.retained("reflective", PAGES, new Benchmark.Operation() {
+            @Override
+            public Object run() {
+                return decodeReflective();
+            }
+        });
+        long lazy = Benchmark.retained("streaming, details as JSON", PAGES,
+                new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        return decode();
+                    }
+                });
+        Benchmark.retained("streaming, details decoded", PAGES, new Benchmark.Operation() {
+            @Override
+            public Object run() {
+                WeiboObject page = decode();
+                for (Statuses status : page.statuses) {
+                    status.getDetails();
+                    if (status.retweeted_status != null) {
+                        status.retweeted_status.getDetails();
+                    }
+                }
+                return page;
+            }
+        });
+
+        if (reflective > 0 && lazy > 0) {
+            assertTrue("A streamed page retains " + lazy + " bytes, a reflective one "
+                    + reflective, lazy < reflective);
+        }
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lytsing.android.weibo.core.models.Comment;
+import org.lytsing.android.weibo.core.models.CommentsObject;
+import org.lytsing.android.weibo.core.models.Geo;
+import org.lytsing.android.weibo.core.models.Statuses;
+import org.lytsing.android.weibo.core.models.User;
+import org.lytsing.android.weibo.core.models.Visible;
+import org.lytsing.android.weibo.core.models.WeiboObject;
+import org.lytsing.android.weibo.testing.Fixtures;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the hand written adapters of {@link ModelTypeAdapterFactory} against Gson's
+ * reflective ones, field by field, on a recorded {@code friends_timeline} page.
+ * <p>
+ * A field added to a model but not to its adapter is filled by reflection and left at
+ * its default by the adapter, so it fails here. {@link #decodesEveryFieldOfEveryModel()}
+ * does not depend on the page: it walks every field of every model reachable from
+ * {@link WeiboObject} and gives each a value of its own.
+ */
+public class ModelTypeAdapterFactoryTest {
+
+    private static final String MODELS_PACKAGE = "org.lytsing.android.weibo.core.models";
+
+    /** Detail fields the API sends as "" when there is none. */
+    private static final String[] EMPTY_AS_NONE = {
+        "mid", "in_reply_to_status_id", "in_reply_to_user_id", "in_reply_to_screen_name",
+        "bmiddle_pic", "original_pic"
+    };
+
+    /** Private state of the models, not read from JSON. */
+    private static final Set<String> NOT_DECODED = new HashSet<String>(Arrays.asList(
+            "Statuses.mTextEntities", "Statuses.mHasGeo", "Statuses.mDetailsJson",
+            "Statuses.mDetails"));
+
+    /** How deep models are nested in a sample, enough for a retweet of a status. */
+    private static final int SAMPLE_DEPTH = 2;
+
+    private static final String SAMPLE_CREATED_AT = "Tue May 31 17:46:55 +0800 2011";
+
+    private static final Gson REFLECTIVE = new Gson();
+
+    /** The last value given to a sample field, so that no two fields get the same. */
+    private static int sLastSample;
+
+    private static String sPage;
+
+    /** The page as the reflective adapters can read it, see {@link #normalize}. */
+    private static JsonObject sNormalized;
+
+    @BeforeClass
+    public static void loadFixture() throws Exception {
+        sPage = new String(Fixtures.read(Fixtures.FRIENDS_TIMELINE), "UTF-8");
+        sNormalized = JsonParser.parseString(sPage).getAsJsonObject();
+        for (JsonElement status : sNormalized.getAsJsonArray("statuses")) {
+            normalize(status.getAsJsonObject());
+        }
+    }
+
+    /**
+     * Does what the streaming adapters do on top of plain decoding, so that reflection
+     * can be compared with them: parses {@code created_at}, flattens {@code pic_urls} and
+     * drops the empty strings which stand for no value.
+     */
+    private static void normalize(JsonObject status) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+        status.addProperty("created_at",
+                format.parse(status.get("created_at").getAsString()).getTime());
+
+        JsonArray picUrls = status.getAsJsonArray("pic_urls");
+        if (picUrls != null) {
+            JsonArray urls = new JsonArray();
+            for (JsonElement picUrl : picUrls) {
+                urls.add(picUrl.getAsJsonObject().get("thumbnail_pic"));
+            }
+            status.remove("pic_urls");
+            if (urls.size() > 0) {
+                status.add("pic_urls", urls);
+            }
+        }
+
+        for (String name : EMPTY_AS_NONE) {
+            JsonElement value = status.get(name);
+            if (value != null && value.isJsonPrimitive() && value.getAsString().isEmpty()) {
+                status.remove(name);
+            }
+        }
+
+        JsonObject retweeted = status.getAsJsonObject("retweeted_status");
+        if (retweeted != null) {
+            normalize(retweeted);
+        }
+    }
+
+    @Test
+    public void decodesLikeReflection() throws Exception {
+        WeiboObject expected = REFLECTIVE.fromJson(sNormalized, WeiboObject.class);
+        WeiboObject actual = GsonFactory.getGson().fromJson(sPage, WeiboObject.class);
+
+        assertFieldsEqual("page", expected, actual);
+
+        JsonArray statuses = sNormalized.getAsJsonArray("statuses");
+        for (int i = 0; i < statuses.size(); i++) {
+            assertStatusEqual("statuses[" + i + "]", statuses.get(i).getAsJsonObject(),
+                    actual.statuses.get(i));
+        }
+    }
+
+    /**
+     * What {@link StatusStore} saves must read back the same.
+     */
+    @Test
+    public void writesWhatItReads() throws Exception {
+        Gson gson = GsonFactory.getGson();
+        WeiboObject page = gson.fromJson(sPage, WeiboObject.class);
+        WeiboObject copy = gson.fromJson(gson.toJson(page), WeiboObject.class);
+
+        assertFieldsEqual("page", page, copy);
+        for (int i = 0; i < page.statuses.size(); i++) {
+            Statuses status = page.statuses.get(i);
+            Statuses statusCopy = copy.statuses.get(i);
+            assertFieldsEqual("statuses[" + i + "].details", status.getDetails(),
+                    statusCopy.getDetails());
+            if (status.retweeted_status != null) {
+                assertFieldsEqual("statuses[" + i + "].retweeted_status.details",
+                        status.retweeted_status.getDetails(),
+                        statusCopy.retweeted_status.getDetails());
+            }
+        }
+    }
+
+    @Test
+    public void pageCoversEveryField() throws Exception {
+        Set<String> seen = new HashSet<String>();
+        for (JsonElement status : sNormalized.getAsJsonArray("statuses")) {
+            collectStatus(status.getAsJsonObject(), seen);
+        }
+
+        Class<?>[] models = {Statuses.class, Statuses.Details.class, User.class, Geo.class,
+            Visible.class};
+        for (Class<?> model : models) {
+            for (Field field : model.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    String name = model.getSimpleName() + "." + field.getName();
+                    assertTrue("No value for " + name + " in " + Fixtures.FRIENDS_TIMELINE,
+                            seen.contains(name));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void decodesEveryFieldOfEveryModel() throws Exception {
+        Set<Class<?>> models = new LinkedHashSet<Class<?>>();
+        collectModels(WeiboObject.class, models);
+        models.add(Statuses.Details.class);
+
+        Gson gson = GsonFactory.getGson();
+        for (Class<?> model : models) {
+            String name = model.getSimpleName();
+            assertNotNull(name + " has no streaming adapter",
+                    new ModelTypeAdapterFactory().create(gson, TypeToken.get(model)));
+
+            JsonObject json = sample(model, 0);
+            Object actual = gson.fromJson(json.toString(), model);
+            normalizeSample(model, json);
+            Object expected = REFLECTIVE.fromJson(json, model);
+            assertNoDefaults(name, expected);
+
+            if (model == Statuses.class) {
+                assertStatusEqual(name, json, (Statuses) actual);
+            } else {
+                assertFieldsEqual(name, expected, actual);
+            }
+            assertFieldsEqual(name + " written", actual,
+                    gson.fromJson(gson.toJson(actual), model));
+        }
+    }
+
+    /**
+     * {@link Comment} keeps its fields private, so it is compared through its getters.
+     */
+    @Test
+    public void decodesCommentsLikeReflection() throws Exception {
+        JsonObject comment = new JsonObject();
+        comment.addProperty("id", ++sLastSample);
+        comment.addProperty("author", "sample " + ++sLastSample);
+        comment.addProperty("created_at", SAMPLE_CREATED_AT);
+        comment.addProperty("text", "sample " + ++sLastSample);
+        comment.addProperty("source", "sample " + ++sLastSample);
+        comment.addProperty("isTruncated", true);
+        comment.add("user", sample(User.class, 0));
+        comment.addProperty("mid", "skipped");
+        JsonArray comments = new JsonArray();
+        comments.add(comment);
+        JsonObject json = new JsonObject();
+        json.add("comments", comments);
+        json.addProperty("previous_cursor", ++sLastSample);
+        json.addProperty("next_cursor", ++sLastSample);
+        json.addProperty("total_number", ++sLastSample);
+
+        Gson gson = GsonFactory.getGson();
+        for (Class<?> model : new Class<?>[] {CommentsObject.class, Comment.class}) {
+            assertNotNull(model.getSimpleName() + " has no streaming adapter",
+                    new ModelTypeAdapterFactory().create(gson, TypeToken.get(model)));
+        }
+
+        CommentsObject expected = REFLECTIVE.fromJson(json, CommentsObject.class);
+        CommentsObject actual = gson.fromJson(json.toString(), CommentsObject.class);
+        assertNoDefaults("CommentsObject", expected);
+        assertFieldsEqual("CommentsObject", expected, actual);
+        assertCommentEqual("comments[0]", expected.comments.get(0), actual.comments.get(0));
+
+        CommentsObject copy = gson.fromJson(gson.toJson(actual), CommentsObject.class);
+        assertFieldsEqual("CommentsObject written", actual, copy);
+        assertCommentEqual("comments[0] written", actual.comments.get(0),
+                copy.comments.get(0));
+    }
+
+    private static void assertCommentEqual(String path, Comment expected, Comment actual)
+            throws IllegalAccessException {
+        assertEquals(path + ".id", expected.getId(), actual.getId());
+        assertEquals(path + ".author", expected.getAuthor(), actual.getAuthor());
+        assertEquals(path + ".created_at", expected.getCreationTime(),
+                actual.getCreationTime());
+        assertEquals(path + ".text", expected.getBody(), actual.getBody());
+        assertEquals(path + ".source", expected.getSource(), actual.getSource());
+        assertEquals(path + ".isTruncated", expected.hasTruncated(), actual.hasTruncated());
+        assertNoDefaults(path + ".user", expected.getUser());
+        assertFieldsEqual(path + ".user", expected.getUser(), actual.getUser());
+
+        // Every field is compared above.
+        int fields = 0;
+        for (Field field : Comment.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                fields++;
+            }
+        }
+        assertEquals(path + " fields", 7, fields);
+    }
+
+    /**
+     * Adds {@code model} and the models its fields hold.
+     */
+    private static void collectModels(Class<?> model, Set<Class<?>> models) {
+        if (!models.add(model)) {
+            return;
+        }
+        for (Field field : model.getDeclaredFields()) {
+            Type type = field.getGenericType();
+            if (type instanceof ParameterizedType) {
+                type = ((ParameterizedType) type).getActualTypeArguments()[0];
+            }
+            if (type instanceof Class && isModel((Class<?>) type)) {
+                collectModels((Class<?>) type, models);
+            }
+        }
+    }
+
+    /**
+     * @return {@code model} as the API sends it, with a value for every field; a status
+     *         also has the fields of its details
+     */
+    private static JsonObject sample(Class<?> model, int depth) {
+        JsonObject json = new JsonObject();
+        for (Field field : model.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+
+            String name = model.getSimpleName() + "." + field.getName();
+            if (!Modifier.isPublic(modifiers)) {
+                assertTrue(name + " is neither public nor listed as not decoded",
+                        NOT_DECODED.contains(name));
+                continue;
+            }
+
+            SerializedName serializedName = field.getAnnotation(SerializedName.class);
+            JsonElement value = sampleValue(field.getGenericType(), depth);
+            if (value != null) {
+                json.add(serializedName == null ? field.getName() : serializedName.value(),
+                        value);
+            }
+        }
+
+        if (model == Statuses.class) {
+            for (Map.Entry<String, JsonElement> entry
+                    : sample(Statuses.Details.class, depth).entrySet()) {
+                json.add(entry.getKey(), entry.getValue());
+            }
+            json.addProperty("created_at", SAMPLE_CREATED_AT);
+            JsonArray picUrls = new JsonArray();
+            for (JsonElement url : json.getAsJsonArray("pic_urls")) {
+                JsonObject picUrl = new JsonObject();
+                picUrl.add("thumbnail_pic", url);
+                picUrls.add(picUrl);
+            }
+            json.add("pic_urls", picUrls);
+        }
+        return json;
+    }
+
+    /**
+     * @return a value of {@code type} no other sample field has, or null for a model
+     *         nested deeper than {@link #SAMPLE_DEPTH}
+     */
+    private static JsonElement sampleValue(Type type, int depth) {
+        if (type == long.class || type == int.class) {
+            return new JsonPrimitive(++sLastSample);
+        } else if (type == float.class || type == Float.class) {
+            return new JsonPrimitive(++sLastSample + 0.5f);
+        } else if (type == boolean.class) {
+            return new JsonPrimitive(true);
+        } else if (type == String.class) {
+            return new JsonPrimitive("sample " + ++sLastSample);
+        } else if (type instanceof ParameterizedType
+                && ((ParameterizedType) type).getRawType() == List.class) {
+            JsonElement element = sampleValue(
+                    ((ParameterizedType) type).getActualTypeArguments()[0], depth);
+            JsonArray array = new JsonArray();
+            if (element != null) {
+                array.add(element);
+            }
+            return array;
+        } else if (type instanceof Class && isModel((Class<?>) type)) {
+            return depth < SAMPLE_DEPTH ? sample((Class<?>) type, depth + 1) : null;
+        }
+        throw new AssertionError("No sample value for " + type);
+    }
+
+    private static void normalizeSample(Class<?> model, JsonObject json)
+            throws ParseException {
+        if (model == Statuses.class) {
+            normalize(json);
+        } else if (model == WeiboObject.class) {
+            for (JsonElement status : json.getAsJsonArray("statuses")) {
+                normalize(status.getAsJsonObject());
+            }
+        }
+    }
+
+    /**
+     * Makes sure a sample has given every public field a value.
+     */
+    private static void assertNoDefaults(String path, Object model) {
+        Set<String> seen = new HashSet<String>();
+        try {
+            collect(model, seen);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+        for (Field field : model.getClass().getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                assertTrue(path + "." + field.getName() + " has no sample value",
+                        seen.contains(model.getClass().getSimpleName() + "." + field.getName()));
+            }
+        }
+    }
+
+    private static void assertStatusEqual(String path, JsonObject json, Statuses actual)
+            throws IllegalAccessException {
+        assertFieldsEqual(path, REFLECTIVE.fromJson(json, Statuses.class), actual);
+
+        Statuses.Details details = REFLECTIVE.fromJson(json, Statuses.Details.class);
+        assertEquals(path + ".hasGeo()", details.geo != null, actual.hasGeo());
+        assertFieldsEqual(path + ".details", details, actual.getDetails());
+        assertArrayEquals(path + ".textEntities", TextEntities.tokenize(actual.text),
+                actual.getTextEntities());
+
+        JsonObject retweeted = json.getAsJsonObject("retweeted_status");
+        if (retweeted != null) {
+            assertStatusEqual(path + ".retweeted_status", retweeted, actual.retweeted_status);
+        }
+    }
+
+    /**
+     * Compares the public fields of two models, and of the models they hold.
+     */
+    private static void assertFieldsEqual(String path, Object expected, Object actual)
+            throws IllegalAccessException {
+        if (expected == null) {
+            assertNull(path, actual);
+            return;
+        }
+        assertNotNull(path, actual);
+
+        if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path + ".size()", expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertFieldsEqual(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+            }
+        } else if (isModel(expected.getClass())) {
+            for (Field field : expected.getClass().getFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    assertFieldsEqual(path + "." + field.getName(), field.get(expected),
+                            field.get(actual));
+                }
+            }
+        } else {
+            assertEquals(path, expected, actual);
+        }
+    }
+
+    /**
+     * Notes the fields of a status, its details and the models it holds that have a
+     * value other than their default, as {@code Class.field}.
+     */
+    private static void collectStatus(JsonObject json, Set<String> seen)
+            throws IllegalAccessException {
+        collect(REFLECTIVE.fromJson(json, Statuses.class), seen);
+        collect(REFLECTIVE.fromJson(json, Statuses.Details.class), seen);
+
+        JsonObject retweeted = json.getAsJsonObject("retweeted_status");
+        if (retweeted != null) {
+            collectStatus(retweeted, seen);
+        }
+    }
+
+    private static void collect(Object model, Set<String> seen) throws IllegalAccessException {
+        for (Field field : model.getClass().getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Object value = field.get(model);
+            if (value == null || value.equals(Boolean.FALSE)
+                    || (value instanceof Number && ((Number) value).doubleValue() == 0)
+                    || (value instanceof List && ((List<?>) value).isEmpty())) {
+                continue;
+            }
+            seen.add(model.getClass().getSimpleName() + "." + field.getName());
+            if (isModel(value.getClass()) && !(value instanceof Statuses)) {
+                collect(value, seen);
+            }
+        }
+    }
+
+    private static boolean isModel(Class<?> clazz) {
+        return clazz.getName().startsWith(MODELS_PACKAGE);
+    }
+}
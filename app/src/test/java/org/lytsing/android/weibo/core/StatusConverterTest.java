@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import com.sina.weibo.sdk.openapi.models.Geo;
+import com.sina.weibo.sdk.openapi.models.Status;
+import com.sina.weibo.sdk.openapi.models.User;
+import com.sina.weibo.sdk.openapi.models.Visible;
+
+import org.junit.Test;
+import org.lytsing.android.weibo.core.models.Statuses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link StatusConverter} carries the SDK's models over to the app's,
+ * details and location included.
+ */
+public class StatusConverterTest {
+
+    private static final String CREATED_AT = "Tue May 31 17:46:55 +0800 2011";
+
+    private static Status status(String id, String text) {
+        Status status = new Status();
+        status.created_at = CREATED_AT;
+        status.id = id;
+        status.mid = id;
+        status.text = text;
+        status.source = "<a href=\"http://weibo.com/\">新浪微博</a>";
+        status.favorited = true;
+        status.thumbnail_pic = "";
+        status.in_reply_to_status_id = "";
+        status.in_reply_to_user_id = "";
+        status.in_reply_to_screen_name = "";
+        status.bmiddle_pic = "";
+        status.original_pic = "";
+        status.reposts_count = 1;
+        status.comments_count = 2;
+        status.attitudes_count = 3;
+        status.user = user("1404376560", "zaku");
+        return status;
+    }
+
+    private static User user(String id, String name) {
+        User user = new User();
+        user.id = id;
+        user.screen_name = name;
+        user.name = name;
+        user.province = 11;
+        user.city = 5;
+        user.domain = "";
+        user.url = "";
+        user.weihao = "";
+        user.remark = "";
+        user.verified_reason = "";
+        user.followers_count = 42;
+        return user;
+    }
+
+    /**
+     * A status {@code geo} as the SDK reads it: only the coordinates, all else "".
+     */
+    private static Geo point(String latitude, String longitude) {
+        Geo geo = new Geo();
+        geo.latitude = latitude;
+        geo.longitude = longitude;
+        geo.city = "";
+        geo.province = "";
+        geo.address = "";
+        return geo;
+    }
+
+    @Test
+    public void convertsTheRowFields() {
+        Status status = status("3424883176420210", "#话题# @zaku: http://t.cn/abc [哈哈]");
+        status.pic_urls = new ArrayList<String>(Arrays.asList(
+                "http://ww1.sinaimg.cn/thumbnail/a.jpg", "http://ww2.sinaimg.cn/thumbnail/b.jpg"));
+
+        Statuses result = StatusConverter.convert(status);
+
+        assertEquals(WeiboDate.parse(CREATED_AT), result.created_at);
+        assertEquals(3424883176420210L, result.id);
+        assertEquals(status.text, result.text);
+        assertEquals(status.source, result.source);
+        assertTrue(result.favorited);
+        assertNull(result.thumbnail_pic);
+        assertEquals(status.pic_urls, result.pic_urls);
+        assertEquals(1, result.reposts_count);
+        assertEquals(2, result.comments_count);
+        assertEquals(3, result.attitudes_count);
+        assertArrayEquals(TextEntities.tokenize(result.text), result.getTextEntities());
+
+        assertEquals(1404376560L, result.user.id);
+        assertEquals("zaku", result.user.name);
+        assertEquals("11", result.user.province);
+        assertNull(result.user.domain);
+        assertEquals(42, result.user.followers_count);
+    }
+
+    @Test
+    public void convertsTheDetails() {
+        Status status = status("3424883176420210", "text");
+        status.in_reply_to_status_id = "3424883176420200";
+        status.in_reply_to_user_id = "1404376560";
+        status.in_reply_to_screen_name = "zaku";
+        status.bmiddle_pic = "http://ww1.sinaimg.cn/bmiddle/a.jpg";
+        status.visible = new Visible();
+        status.visible.type = 3;
+        status.visible.list_id = 7;
+
+        Statuses.Details details = StatusConverter.convert(status).getDetails();
+
+        assertEquals(3424883176420210L, details.mid);
+        assertEquals(3424883176420200L, details.in_reply_to_status_id);
+        assertEquals(1404376560L, details.in_reply_to_user_id);
+        assertEquals("zaku", details.in_reply_to_screen_name);
+        assertEquals(status.bmiddle_pic, details.bmiddle_pic);
+        assertNull(details.original_pic);
+        assertEquals(3, details.visible.type);
+        assertEquals(7, details.visible.list_id);
+    }
+
+    @Test
+    public void convertsTheLocation() {
+        Status status = status("3424883176420210", "text");
+        status.geo = point("39.98343", "116.30621");
+
+        Statuses result = StatusConverter.convert(status);
+
+        assertTrue(result.hasGeo());
+        org.lytsing.android.weibo.core.models.Geo geo = result.getDetails().geo;
+        assertEquals("Point", geo.type);
+        assertEquals(Arrays.asList(39.98343f, 116.30621f), geo.coordinates);
+    }
+
+    @Test
+    public void dropsALocationWithoutCoordinates() {
+        Status status = status("3424883176420210", "text");
+        status.geo = point("", "");
+
+        Statuses result = StatusConverter.convert(status);
+
+        assertFalse(result.hasGeo());
+        assertNull(result.getDetails().geo);
+    }
+
+    @Test
+    public void convertsTheRetweet() {
+        Status retweeted = status("3424883176420200", "original");
+        Status status = status("3424883176420210", "retweet");
+        status.retweeted_status = retweeted;
+
+        Statuses result = StatusConverter.convert(status);
+
+        assertEquals(3424883176420200L, result.retweeted_status.id);
+        assertEquals("original", result.retweeted_status.text);
+        assertEquals(1404376560L, result.retweeted_status.user.id);
+    }
+
+    @Test
+    public void convertsNull() {
+        assertNull(StatusConverter.convert((Status) null));
+        assertNull(StatusConverter.convert((User) null));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lytsing.android.weibo.testing.Benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time and allocation to read the {@code created_at} values of a few pages, with
+ * {@link WeiboDate} and with the shared {@link SimpleDateFormat} it used to lock.
+ */
+public class WeiboDateBenchmark {
+
+    private static final int WARMUPS = 200;
+
+    private static final int ITERATIONS = 1000;
+
+    /** Statuses, retweets and comments of a few pages. */
+    private static final int VALUES = 200;
+
+    private static String[] sValues;
+
+    @BeforeClass
+    public static void createValues() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy",
+                Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("GMT+08:00"));
+        Random random = new Random(23);
+        sValues = new String[VALUES];
+        long now = 1500000000000L;
+        for (int i = 0; i < VALUES; i++) {
+            sValues[i] = format.format(now - (long) (random.nextDouble() * 30 * 86400000L));
+        }
+    }
+
+    @Test
+    public void parse() throws Exception {
+        final SimpleDateFormat shared = new SimpleDateFormat("EEE MMM dd HH:mm:ss Z yyyy",
+                Locale.ENGLISH);
+        Benchmark.Result simpleDateFormat = Benchmark.run("SimpleDateFormat, " + VALUES
+                + " values", WARMUPS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public Object run() throws Exception {
+                        long sum = 0;
+                        for (String value : sValues) {
+                            synchronized (shared) {
+                                sum += shared.parse(value).getTime();
+                            }
+                        }
+                        return sum;
+                    }
+                });
+        Benchmark.Result weiboDate = Benchmark.run("WeiboDate, " + VALUES + " values",
+                WARMUPS, ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public Object run() {
+                        long sum = 0;
+                        for (String value : sValues) {
+                            sum += WeiboDate.parse(value);
+                        }
+                        return sum;
+                    }
+                });
+
+        // Only the boxed sum is allocated.
+        if (simpleDateFormat.bytesPerOp > 0) {
+            assertTrue("WeiboDate allocates " + weiboDate.bytesPerOp + " bytes for "
+                    + VALUES + " values", weiboDate.bytesPerOp < VALUES);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.core;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks the fast {@code created_at} parser of {@link WeiboDate} against
+ * {@link SimpleDateFormat}, which it replaces for the API's layout.
+ */
+public class WeiboDateTest {
+
+    private static final String FORMAT = "EEE MMM dd HH:mm:ss Z yyyy";
+
+    private static final String[] OFFSETS = {
+        "+0800", "+0000", "-0500", "+0530", "-0930", "+1400"
+    };
+
+    private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private static final int SAMPLES = 200000;
+
+    /** 2100-01-01, in seconds since the epoch. */
+    private static final long END_SECONDS = 4102444800L;
+
+    private static long expected(String value) {
+        SimpleDateFormat format = new SimpleDateFormat(FORMAT, Locale.ENGLISH);
+        try {
+            return format.parse(value).getTime();
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    @Test
+    public void parsesLikeSimpleDateFormat() {
+        Random random = new Random(20);
+        SimpleDateFormat[] formats = new SimpleDateFormat[OFFSETS.length];
+        for (int i = 0; i < OFFSETS.length; i++) {
+            formats[i] = new SimpleDateFormat(FORMAT, Locale.ENGLISH);
+            formats[i].setTimeZone(TimeZone.getTimeZone("GMT" + OFFSETS[i]));
+        }
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long time = (long) (random.nextDouble() * END_SECONDS) * 1000;
+            String value = formats[i % formats.length].format(time);
+            assertEquals(value, time, WeiboDate.parse(value));
+        }
+    }
+
+    /**
+     * Out of range fields roll over into the next larger one, a wrong day of the week
+     * is ignored.
+     */
+    @Test
+    public void rollsOverLikeSimpleDateFormat() {
+        Random random = new Random(21);
+        for (int i = 0; i < SAMPLES; i++) {
+            String value = String.format(Locale.US, "%s %s %02d %02d:%02d:%02d %s %04d",
+                    DAYS[random.nextInt(DAYS.length)], MONTHS[random.nextInt(MONTHS.length)],
+                    random.nextInt(40), random.nextInt(30), random.nextInt(70),
+                    random.nextInt(70), OFFSETS[random.nextInt(OFFSETS.length)],
+                    1970 + random.nextInt(130));
+            assertEquals(value, expected(value), WeiboDate.parse(value));
+        }
+    }
+
+    @Test
+    public void readsOtherLayoutsWithSimpleDateFormat() {
+        String[] values = {
+            "Tue May 31 17:46:55 +0800 2011",
+            "Tue May  3 17:46:55 +0800 2011",
+            "Tue May 31 17:46:55 +08:00 2011",
+            "Tue May 31 17:46:55 GMT+08:00 2011",
+            "Tue May 31 17:46:55 +0800 11",
+            "Tue Foo 31 17:46:55 +0800 2011",
+            "Tue May 3a 17:46:55 +0800 2011",
+            "2011-05-31T17:46:55+0800",
+        };
+        for (String value : values) {
+            assertEquals(value, expected(value), WeiboDate.parse(value));
+        }
+    }
+
+    @Test
+    public void emptyIsZero() {
+        assertEquals(0, WeiboDate.parse(null));
+        assertEquals(0, WeiboDate.parse(""));
+        assertNull(WeiboDate.format(0));
+    }
+
+    @Test
+    public void formatsWhatItParses() {
+        Random random = new Random(22);
+        for (int i = 0; i < 1000; i++) {
+            long time = (long) (random.nextDouble() * END_SECONDS) * 1000;
+            assertEquals(time, WeiboDate.parse(WeiboDate.format(time)));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.testing;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * The timeline models as they were before the streaming adapters: strings for ids and
+ * times, a separate retweeted status class, every field decoded up front. Decoded with
+ * Gson's reflective adapters, they are the baseline the benchmarks compare against.
+ */
+public final class BaselineModels {
+
+    private BaselineModels() {
+    }
+
+    public static class WeiboObject {
+        public List<Statuses> statuses;
+
+        @SerializedName("hasvisible")
+        public boolean hasvisible;
+
+        @SerializedName("previous_cursor")
+        public long previous_cursor;
+
+        @SerializedName("next_cursor")
+        public long next_cursor;
+
+        @SerializedName("total_number")
+        public int total_number;
+    }
+
+    public static class Statuses {
+        public String created_at;
+        public long id;
+        public String mid;
+        public String idstr;
+        public String text;
+        public String source;
+        public boolean favorited;
+        public boolean truncated;
+        public String in_reply_to_status_id;
+        public String in_reply_to_user_id;
+        public String in_reply_to_screen_name;
+        public String thumbnail_pic;
+        public String bmiddle_pic;
+        public String original_pic;
+        public Geo geo;
+        public User user;
+        public RetweetedStatus retweeted_status;
+        public int reposts_count;
+        public int comments_count;
+        public int attitudes_count;
+        public int melvel;
+        public Visible visible;
+    }
+
+    public static class RetweetedStatus {
+        public String created_at;
+        public long id;
+        public String idstr;
+        public String text;
+        public String source;
+        public boolean favorited;
+        public boolean truncated;
+        public String in_reply_to_status_id;
+        public String in_reply_to_user_id;
+        public String in_reply_to_screen_name;
+        public String thumbnail_pic;
+        public String bmiddle_pic;
+        public String original_pic;
+        public List<Geo> geos;
+        public String mid;
+        public int reposts_count;
+        public int comments_count;
+        public int melvel;
+        public Visible visible;
+        public User user;
+    }
+
+    public static class User {
+        public long id;
+        public String screen_name;
+        public String name;
+        public String domain;
+        public String province;
+        public String city;
+        public String location;
+        public String description;
+        public String url;
+        public String profile_image_url;
+        public String user_domain;
+        public String gender;
+        public String weihao;
+        public int followers_count;
+        public int friends_count;
+        public int statuses_count;
+        public int favourites_count;
+        public String created_at;
+        public boolean following;
+        public boolean allow_all_act_msg;
+        public String remark;
+        public boolean geo_enabled;
+        public boolean verified;
+        public boolean allow_all_comment;
+        public String avatar_large;
+        public String verified_reason;
+        public boolean follow_me;
+        public int online_status;
+        public int bi_followers_count;
+    }
+
+    public static class Geo {
+        public String type;
+        public List<Float> coordinates;
+    }
+
+    public static class Visible {
+        public int type;
+        public int list_id;
+    }
+}
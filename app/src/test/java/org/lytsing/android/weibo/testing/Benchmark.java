@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2012 lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.testing;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * A minimal JVM micro benchmark: runs an operation to warm up, then measures the mean
+ * time and the bytes allocated by the current thread per run, or the heap its results
+ * keep.
+ * <p>
+ * Meant to compare two ways of doing the same thing in one process, not to give
+ * absolute numbers for a device.
+ */
+public final class Benchmark {
+
+    /**
+     * The code to measure. Its result is kept, so the JIT can't drop the work.
+     */
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * What one benchmark measured.
+     */
+    public static final class Result {
+        public final String name;
+
+        public final double nanosPerOp;
+
+        /** -1 if the JVM can't tell. */
+        public final long bytesPerOp;
+
+        Result(String name, double nanosPerOp, long bytesPerOp) {
+            this.name = name;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s %10.1f us/op %10d bytes/op", name,
+                    nanosPerOp / 1000, bytesPerOp);
+        }
+    }
+
+    private static volatile int sSink;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Measures {@code operation} and prints the result.
+     *
+     * @param warmups runs before measuring
+     * @param iterations measured runs
+     */
+    public static Result run(String name, int warmups, int iterations, Operation operation)
+            throws Exception {
+        for (int i = 0; i < warmups; i++) {
+            consume(operation.run());
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            consume(operation.run());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        long bytesPerOp = allocatedBefore < 0 ? -1
+                : (allocatedAfter - allocatedBefore) / iterations;
+        Result result = new Result(name, (double) elapsed / iterations, bytesPerOp);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Measures the heap still held by the results of {@code copies} runs, per run, and
+     * prints it. Relies on {@link System#gc()}, so only take differences of a few percent
+     * or more seriously.
+     *
+     * @return the retained bytes per run, -1 if the heap moved the wrong way
+     */
+    public static long retained(String name, int copies, Operation operation)
+            throws Exception {
+        consume(operation.run());
+
+        Object[] results = new Object[copies];
+        long before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            results[i] = operation.run();
+        }
+        long after = usedHeap();
+        // Keeps them reachable up to here.
+        consume(results);
+
+        long bytesPerOp = after > before ? (after - before) / copies : -1;
+        System.out.println(String.format(Locale.US, "%-40s %10d bytes retained", name,
+                bytesPerOp));
+        return bytesPerOp;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void consume(Object result) {
+        sSink += System.identityHashCode(result);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014-2017 http://lytsing.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lytsing.android.weibo.toolbox;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request.Method;
+import com.android.volley.Response;
+import com.google.gson.Gson;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lytsing.android.weibo.core.models.WeiboObject;
+import org.lytsing.android.weibo.testing.BaselineModels;
+import org.lytsing.android.weibo.testing.Benchmark;
+import org.lytsing.android.weibo.testing.Fixtures;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time and allocation per gzipped {@code friends_timeline} page, decoded the way
+ * {@link GsonRequest#parseNetworkResponse(NetworkResponse)} did before it streamed, and
+ * the way it does now.
+ * <p>
+ * Streaming saves the copies of the body, not time: on a warm JVM both take about the
+ * same time per page, so only the allocation is asserted.
+ */
+public class GsonRequestBenchmark {
+
+    private static final int WARMUPS = 100;
+
+    private static final int ITERATIONS = 300;
+
+    private static final String URL =
+            "https://api.weibo.com/2/statuses/friends_timeline.json?since_id=1";
+
+    private static NetworkResponse sResponse;
+
+    @BeforeClass
+    public static void loadFixture() throws IOException {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Content-Type", "application/json;charset=UTF-8");
+        headers.put("Content-Encoding", "gzip");
+        sResponse = new NetworkResponse(200,
+                Fixtures.gzip(Fixtures.read(Fixtures.FRIENDS_TIMELINE)), headers, false);
+    }
+
+    /**
+     * The old path: gunzip into a byte array, copy it into a String and decode that with
+     * a new, reflective Gson, as every request built its own.
+     */
+    private static BaselineModels.WeiboObject decodeBaseline(NetworkResponse response)
+            throws IOException {
+        GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.data));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = gzip.read(buffer, 0, buffer.length)) != -1) {
+            bytes.write(buffer, 0, count);
+        }
+        String body = new String(bytes.toByteArray(), "UTF-8");
+        return new Gson().fromJson(body, BaselineModels.WeiboObject.class);
+    }
+
+    private static WeiboObject decode(NetworkResponse response) {
+        GsonRequest<WeiboObject> request = new GsonRequest<WeiboObject>(Method.GET, URL, null,
+                WeiboObject.class, null, null);
+        Response<WeiboObject> result = request.parseNetworkResponse(response);
+        assertTrue("Not decoded: " + result.error, result.isSuccess());
+        return result.result;
+    }
+
+    @Test
+    public void decodesTheSamePage() throws IOException {
+        BaselineModels.WeiboObject baseline = decodeBaseline(sResponse);
+        WeiboObject page = decode(sResponse);
+
+        assertEquals(baseline.statuses.size(), page.statuses.size());
+        for (int i = 0; i < page.statuses.size(); i++) {
+            assertEquals(baseline.statuses.get(i).id, page.statuses.get(i).id);
+            assertEquals(baseline.statuses.get(i).text, page.statuses.get(i).text);
+        }
+        assertEquals(baseline.next_cursor, page.next_cursor);
+    }
+
+    @Test
+    public void perPage() throws Exception {
+        Benchmark.Result baseline = Benchmark.run("String + new Gson, reflective", WARMUPS,
+                ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public Object run() throws Exception {
+                        return decodeBaseline(sResponse);
+                    }
+                });
+        Benchmark.Result streaming = Benchmark.run("GsonRequest, streamed", WARMUPS,
+                ITERATIONS, new Benchmark.Operation() {
+                    @Override
+                    public Object run() throws Exception {
+                        return decode(sResponse);
+                    }
+                });
+
+        // Time depends on the machine, the copies saved do not.
+        if (baseline.bytesPerOp > 0) {
+            assertTrue("Streaming allocates " + streaming.bytesPerOp + " bytes per page, "
+                    + "the old path " + baseline.bytesPerOp,
+                    streaming.bytesPerOp < baseline.bytesPerOp);
+        }
+    }
+}